@@ -14,10 +14,17 @@ import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/quiz")
@@ -66,6 +73,25 @@ public class QuizController {
         return ResponseEntity.ok(quizService.getQuestion(sessionId));
     }
 
+    @Operation(summary = "Prefetch the session's questions",
+            description = "Returns every question drawn for the session, without correctness data, gzip-compressed "
+                    + "when the client accepts it. Questions are still served and answered in order through "
+                    + "/question and /answer; currentIndex is the question the player is on.")
+    @ApiResponse(responseCode = "200", description = "Questions retrieved successfully")
+    @GetMapping("/questions")
+    public ResponseEntity<byte[]> prefetchQuestions(
+            @RequestParam String sessionId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        byte[] json = quizService.prefetchQuestions(sessionId);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(gzip(json));
+        }
+        return response.body(json);
+    }
+
     @Operation(summary = "Validate answer",
             description = "Validates the user's answer to the current question")
     @ApiResponse(responseCode = "200", description = "Answer validated",
@@ -75,6 +101,15 @@ public class QuizController {
         return ResponseEntity.ok(quizService.validateAnswer(request));
     }
 
+    @Operation(summary = "Answer and get the next question",
+            description = "Validates the user's answer and, when the question is completed, returns the next question in the same response")
+    @ApiResponse(responseCode = "200", description = "Answer validated",
+            content = @Content(schema = @Schema(implementation = ValidateAnswerResponse.class)))
+    @PostMapping("/answer")
+    public ResponseEntity<ValidateAnswerResponse> answerQuestion(@Valid @RequestBody ValidateAnswerRequest request) {
+        return ResponseEntity.ok(quizService.answerQuestion(request));
+    }
+
     @Operation(summary = "Get current score",
             description = "Retrieves the current score for the active session")
     @ApiResponse(responseCode = "200", description = "Score retrieved successfully",
@@ -97,6 +132,15 @@ public class QuizController {
         return ResponseEntity.ok(response);
     }
     
+    @Operation(summary = "Get session statistics (Admin only)",
+            description = "Returns live session count, the session cap and eviction counters")
+    @ApiResponse(responseCode = "200", description = "Session statistics retrieved successfully",
+            content = @Content(schema = @Schema(implementation = SessionStatsResponse.class)))
+    @GetMapping("/admin/session-stats")
+    public ResponseEntity<SessionStatsResponse> getSessionStats() {
+        return ResponseEntity.ok(quizService.getSessionStats());
+    }
+    
     @Operation(summary = "Clear leaderboard data (Admin only)",
             description = "Clears all quiz results from the leaderboard")
     @ApiResponse(responseCode = "200", description = "Leaderboard data cleared successfully")
@@ -113,6 +157,51 @@ public class QuizController {
         }
     }
     
+    /**
+     * Checks an Accept-Encoding header for gzip with a non-zero q-value, given by name or by "*".
+     * A q-value that does not parse makes its coding unacceptable.
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzipQuality = -1;
+        double anyQuality = -1;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            String name = parameters[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < parameters.length; i++) {
+                String parameter = parameters[i].trim();
+                if (parameter.length() > 2 && (parameter.charAt(0) == 'q' || parameter.charAt(0) == 'Q')
+                        && parameter.charAt(1) == '=') {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzipQuality = Math.max(gzipQuality, quality);
+            } else if (name.equals("*")) {
+                anyQuality = Math.max(anyQuality, quality);
+            }
+        }
+        // A coding named explicitly takes precedence over the wildcard
+        return (gzipQuality >= 0 ? gzipQuality : anyQuality) > 0;
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 2 + 32);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+    
     /**
      * Helper method to export the current DB data to a special db_results.xlsx file
      * before deletion
@@ -3,6 +3,9 @@ package com.quizmaster.controller;
 import com.quizmaster.model.QuizResult;
 import com.quizmaster.model.dto.RankingListResponse;
 import com.quizmaster.model.dto.RankingResponse;
+import com.quizmaster.service.LeaderboardBroadcaster;
+import com.quizmaster.service.LeaderboardCache;
+import com.quizmaster.service.LeaderboardCache.CachedLeaderboard;
 import com.quizmaster.service.QuizRankingService;
 import com.quizmaster.service.ScheduledExportService;
 import com.quizmaster.util.ExcelReportGenerator;
@@ -16,12 +19,15 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
-import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -34,39 +40,69 @@ public class RankingController {
     private final QuizRankingService quizRankingService;
     private final ExcelReportGenerator excelReportGenerator;
     private final ScheduledExportService scheduledExportService;
+    private final LeaderboardCache leaderboardCache;
+    private final LeaderboardBroadcaster leaderboardBroadcaster;
 
     @Autowired
     public RankingController(@Qualifier("jpaQuizRankingService") QuizRankingService quizRankingService, 
                             ExcelReportGenerator excelReportGenerator,
-                            ScheduledExportService scheduledExportService) {
+                            ScheduledExportService scheduledExportService,
+                            LeaderboardCache leaderboardCache,
+                            LeaderboardBroadcaster leaderboardBroadcaster) {
         this.quizRankingService = quizRankingService;
         this.excelReportGenerator = excelReportGenerator;
         this.scheduledExportService = scheduledExportService;
+        this.leaderboardCache = leaderboardCache;
+        this.leaderboardBroadcaster = leaderboardBroadcaster;
     }
 
     @Operation(summary = "Get leaderboard",
-            description = "Retrieves the top quiz participants by score")
+            description = "Retrieves the top quiz participants by score. Send the ETag of a previous "
+                    + "response in If-None-Match to get 304 Not Modified while the results are unchanged.")
     @ApiResponse(responseCode = "200", description = "Leaderboard retrieved successfully",
             content = @Content(schema = @Schema(implementation = RankingListResponse.class)))
-    @GetMapping("/leaderboard")
-    public ResponseEntity<RankingListResponse> getLeaderboard(
-            @RequestParam(defaultValue = "10") int limit) {
+    @ApiResponse(responseCode = "304", description = "Results unchanged since the given ETag")
+    @GetMapping(value = "/leaderboard", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getLeaderboard(
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String userName,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 
         LoggingUtils.logApiRequest(log, "GET", "/api/rankings/leaderboard", "limit=" + limit);
         
-        List<QuizResult> topResults = quizRankingService.getTopResults(limit);
-        int totalParticipants = quizRankingService.getAllResults().size();
+        // Answered from the results version alone, no lookup or serialization
+        String currentETag = leaderboardCache.currentETag();
+        if (ifNoneMatch != null && (ifNoneMatch.contains(currentETag) || ifNoneMatch.trim().equals("*"))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(currentETag)
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
         
-        LoggingUtils.logDatabaseOperation(log, "SELECT", "QuizResults", 
-                String.format("Retrieved top %d results out of %d total", topResults.size(), totalParticipants));
-
-        RankingListResponse response = RankingListResponse.builder()
-                .rankings(topResults)
-                .totalParticipants(totalParticipants)
-                .generatedAt(LocalDateTime.now())
-                .build();
+        CachedLeaderboard leaderboard = leaderboardCache.getLeaderboard(limit, userName);
+        return ResponseEntity.ok()
+                .eTag(leaderboard.getETag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(leaderboard.getBody());
+    }
 
-        return ResponseEntity.ok(response);
+    @Operation(summary = "Stream the live leaderboard",
+            description = "Streams the top of the leaderboard as server-sent events: a 'snapshot' event with "
+                    + "every row, then 'diff' events with only the rows that changed, at most one per interval. "
+                    + "Rows past 'size' are removed. A client that falls behind is disconnected and reconnects.")
+    @ApiResponse(responseCode = "200", description = "Event stream opened")
+    @ApiResponse(responseCode = "503", description = "Too many subscribers")
+    @GetMapping(value = "/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamLeaderboard() {
+        LoggingUtils.logApiRequest(log, "GET", "/api/rankings/live");
+        SseEmitter emitter = leaderboardBroadcaster.subscribe();
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .build();
+        }
+        return ResponseEntity.ok(emitter);
     }
 
     @Operation(summary = "Get user ranking",
@@ -81,6 +117,18 @@ public class RankingController {
         return ResponseEntity.ok(ranking);
     }
 
+    @Operation(summary = "Get results around a user",
+            description = "Retrieves the results ranked just above and below a user's best result")
+    @ApiResponse(responseCode = "200", description = "Results retrieved successfully")
+    @GetMapping("/user/{userName}/around")
+    public ResponseEntity<List<QuizResult>> getResultsAround(
+            @PathVariable String userName,
+            @RequestParam(defaultValue = "5") int radius) {
+        LoggingUtils.logApiRequest(log, "GET", "/api/rankings/user/" + userName + "/around", "radius=" + radius);
+        List<QuizResult> results = quizRankingService.getResultsAround(userName, Math.max(0, radius));
+        return ResponseEntity.ok(results);
+    }
+
     @Operation(summary = "Download rankings report (Admin only)",
             description = "Downloads a report of all quiz rankings in Excel format. Restricted to admin access.")
     @GetMapping("/admin/download/excel")
@@ -1,6 +1,8 @@
 package com.quizmaster.controller;
 
 import com.quizmaster.model.QuizResult;
+import com.quizmaster.model.dto.LeaderboardView;
+import com.quizmaster.service.LeaderboardCache;
 import com.quizmaster.service.QuizRankingService;
 import com.quizmaster.service.QuizService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,6 +12,7 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
@@ -23,12 +26,15 @@ public class WebController {
 
     private final QuizService quizService;
     private final QuizRankingService quizRankingService;
+    private final LeaderboardCache leaderboardCache;
 
     @Autowired
     public WebController(QuizService quizService, 
-                        @Qualifier("jpaQuizRankingService") QuizRankingService quizRankingService) {
+                        @Qualifier("jpaQuizRankingService") QuizRankingService quizRankingService,
+                        LeaderboardCache leaderboardCache) {
         this.quizService = quizService;
         this.quizRankingService = quizRankingService;
+        this.leaderboardCache = leaderboardCache;
     }
 
     /**
@@ -52,18 +58,20 @@ public class WebController {
      * Leaderboard page
      */
     @GetMapping("/leaderboard")
-    public String leaderboard(@RequestParam(required = false) String userName, Model model) {
-        // Get top 15 results
-        List<QuizResult> topResults = quizRankingService.getTopResults(15);
-        model.addAttribute("rankings", topResults);
+    public String leaderboard(@RequestParam(required = false) String userName, WebRequest webRequest, Model model) {
+        // The page only changes with the results, so a browser holding the current version gets a 304
+        if (webRequest.checkNotModified(leaderboardCache.currentETag())) {
+            return null;
+        }
         
-        // Get the total number of participants
-        List<QuizResult> allResults = quizRankingService.getAllResults();
-        model.addAttribute("totalParticipants", allResults.size());
+        // Top 15 results, the number of participants and the user's ranking, from one snapshot
+        LeaderboardView view = quizRankingService.getLeaderboardView(15, userName);
+        model.addAttribute("rankings", view.getRankings());
+        model.addAttribute("totalParticipants", view.getTotalParticipants());
 
         // Add the user's ranking if provided
-        if (userName != null && !userName.isEmpty()) {
-            model.addAttribute("userRanking", quizRankingService.getUserRanking(userName));
+        if (view.getUserRanking() != null) {
+            model.addAttribute("userRanking", view.getUserRanking());
             model.addAttribute("userName", userName);
         }
 
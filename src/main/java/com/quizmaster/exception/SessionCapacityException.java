@@ -0,0 +1,18 @@
+package com.quizmaster.exception;
+
+/**
+ * Thrown when no new quiz session can be started because the session cap is reached
+ */
+public class SessionCapacityException extends QuizException {
+
+    private final long retryAfterSeconds;
+
+    public SessionCapacityException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
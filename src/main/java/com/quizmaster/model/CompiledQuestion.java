@@ -0,0 +1,184 @@
+package com.quizmaster.model;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Immutable, pre-processed form of a {@link Question} used on the answer-checking path.
+ * Option IDs are resolved to indexes and the correct options are folded into a bitmask,
+ * so checking an answer is a short array scan plus a single bit test.
+ */
+public final class CompiledQuestion {
+
+    private static final int MAX_OPTIONS = Integer.SIZE;
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final Question question;
+    private final String[] optionIds;
+    private final int correctMask;
+    private final String correctAnswerId;
+    private final String correctAnswerText;
+    private final String attemptsExhaustedMessage;
+    // Written on first use; a race writes the same bytes twice
+    private volatile byte[] clientJson;
+
+    private CompiledQuestion(Question question, String[] optionIds, int correctMask,
+                             String correctAnswerId, String correctAnswerText) {
+        this.question = question;
+        this.optionIds = optionIds;
+        this.correctMask = correctMask;
+        this.correctAnswerId = correctAnswerId;
+        this.correctAnswerText = correctAnswerText;
+        this.attemptsExhaustedMessage =
+                "Incorrect answer. You've used all attempts. The correct answer was: " + correctAnswerText;
+    }
+
+    /**
+     * Compiles a question into its answer-checking form
+     *
+     * @param question the question to compile
+     * @return the compiled question
+     */
+    public static CompiledQuestion compile(Question question) {
+        List<Option> options = question.getOptions();
+        if (options.size() > MAX_OPTIONS) {
+            throw new IllegalArgumentException("Question has more than " + MAX_OPTIONS + " options: " + question.getId());
+        }
+
+        String[] optionIds = new String[options.size()];
+        for (int i = 0; i < optionIds.length; i++) {
+            optionIds[i] = options.get(i).getId();
+        }
+
+        int correctMask = 0;
+        String correctAnswerId = "";
+        String correctAnswerText = "";
+        boolean firstCorrect = true;
+        for (int i = 0; i < optionIds.length; i++) {
+            Option option = options.get(i);
+            if (!option.isCorrect()) {
+                continue;
+            }
+            // Options sharing an ID are answered by the first of them, so set that option's bit
+            int index = indexOf(optionIds, option.getId());
+            if (index >= 0) {
+                correctMask |= 1 << index;
+            }
+            if (firstCorrect) {
+                correctAnswerId = option.getId();
+                correctAnswerText = option.getText();
+                firstCorrect = false;
+            }
+        }
+
+        return new CompiledQuestion(question, optionIds, correctMask, correctAnswerId, correctAnswerText);
+    }
+
+    /**
+     * Checks whether an option ID is a correct answer
+     *
+     * @param optionId the submitted option ID
+     * @return true if the option is correct
+     */
+    public boolean isCorrect(String optionId) {
+        int index = indexOf(optionIds, optionId);
+        return index >= 0 && (correctMask & (1 << index)) != 0;
+    }
+
+    /**
+     * Gets the index of an option
+     *
+     * @param optionId the option ID
+     * @return the zero-based option index, or -1 if the question has no such option
+     */
+    public int optionIndex(String optionId) {
+        return indexOf(optionIds, optionId);
+    }
+
+    public Question getQuestion() {
+        return question;
+    }
+
+    public String getId() {
+        return question.getId();
+    }
+
+    public int getOptionCount() {
+        return optionIds.length;
+    }
+
+    public int getCorrectMask() {
+        return correctMask;
+    }
+
+    public String getCorrectAnswerId() {
+        return correctAnswerId;
+    }
+
+    public String getCorrectAnswerText() {
+        return correctAnswerText;
+    }
+
+    /**
+     * Gets the feedback shown once all attempts at this question are used up
+     *
+     * @return the pre-built feedback message
+     */
+    public String getAttemptsExhaustedMessage() {
+        return attemptsExhaustedMessage;
+    }
+
+    /**
+     * Gets the question as sent to clients, without correctness data, as UTF-8 JSON with the
+     * question fields of a QuestionResponse: questionId, text and options with their id and text.
+     * The bytes are written once and shared, so callers must not modify them.
+     *
+     * @return the serialized question
+     */
+    public byte[] getClientJson() {
+        byte[] json = clientJson;
+        if (json == null) {
+            json = writeClientJson(question);
+            clientJson = json;
+        }
+        return json;
+    }
+
+    private static byte[] writeClientJson(Question question) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField("questionId", question.getId());
+            generator.writeStringField("text", question.getText());
+            generator.writeArrayFieldStart("options");
+            for (Option option : question.getOptions()) {
+                generator.writeStartObject();
+                generator.writeStringField("id", option.getId());
+                generator.writeStringField("text", option.getText());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static int indexOf(String[] optionIds, String optionId) {
+        if (optionId == null) {
+            return -1;
+        }
+        for (int i = 0; i < optionIds.length; i++) {
+            if (optionId.equals(optionIds[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
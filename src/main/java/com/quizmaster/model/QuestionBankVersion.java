@@ -0,0 +1,33 @@
+package com.quizmaster.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Single-row change counter of the database-backed question bank.
+ * Every write bumps the version in the same transaction, so each node can detect
+ * changes by reading one row instead of the whole bank.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "question_bank_version")
+public class QuestionBankVersion {
+
+    public static final int SINGLETON_ID = 1;
+
+    @Id
+    private Integer id;
+
+    private long version;
+
+    @Column(columnDefinition = "TIMESTAMP")
+    private LocalDateTime updatedAt;
+}
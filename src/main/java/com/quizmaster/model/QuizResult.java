@@ -17,6 +17,7 @@ public class QuizResult {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    @Column(length = 512)
     private String sessionId;
     private String userName;
     private String iNumber;
@@ -1,28 +1,197 @@
 package com.quizmaster.model;
 
+import com.quizmaster.repository.QuestionRepository;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
-import java.util.Date;
-import java.util.List;
-import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
+/**
+ * State of one quiz in progress. The fields that change while the quiz is played are packed into
+ * a single {@code long} state word that is only ever replaced with compare-and-set, so concurrent
+ * requests on one session are linearizable without locks or allocation. Questions are referred to
+ * by their slot in {@link #questionSequence}, which is limited to {@link #MAX_SLOTS} slots.
+ * <p>
+ * State word layout: bits 0-31 completed slots, 32-39 cursor, 40-47 attempts on the current
+ * question, 48-55 correct answers, bit 56 active. Bits 57-63 belong to the session store, which may
+ * keep a record generation there; transitions leave them untouched.
+ */
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class QuizSession {
+
+    public static final int MAX_SLOTS = 32;
+
+    private static final long COMPLETED_MASK = 0xFFFF_FFFFL;
+    private static final int CURSOR_SHIFT = 32;
+    private static final int ATTEMPTS_SHIFT = 40;
+    private static final int CORRECT_SHIFT = 48;
+    private static final long BYTE_MASK = 0xFFL;
+    private static final long ACTIVE_BIT = 1L << 56;
+
+    private static final AtomicLongFieldUpdater<QuizSession> STATE =
+            AtomicLongFieldUpdater.newUpdater(QuizSession.class, "state");
+
     private String sessionId;
     private String userName;
     private String iNumber;
-    private List<Question> questions;
-    private String currentQuestionId;
-    private int currentAttempts;
-    private Set<String> completedQuestions;
-    private int correctAnswers;
-    private boolean active;
-    private Date startTime;
-    private Date endTime;
+    // Name of the question bank, or null for the default catalog
+    private String questionBankName;
+    // Catalog snapshot the session was started on, so its questions stay stable across edits
+    private QuestionRepository questionBank;
+    // Positions in questionBank drawn for this session, served in order
+    private int[] questionSequence;
+    // Digest of the IDs of the drawn questions, see fingerprint; 0 if unknown
+    private long questionFingerprint;
+    // Packed progress, see the class comment; replace only through compareAndSetState
+    @Setter(AccessLevel.NONE)
+    private volatile long state;
+    // Epoch millis; endedAt is 0 until the quiz ends
+    private long startedAt;
+    private long endedAt;
+    // Epoch millis of the last request on this session, used for idle expiry
+    private volatile long lastAccessedAt;
+
+    /**
+     * Atomically replaces the state word if it still holds the expected value
+     *
+     * @param expected the state the transition was computed from
+     * @param updated the new state
+     * @return true if the state was replaced
+     */
+    public boolean compareAndSetState(long expected, long updated) {
+        return STATE.compareAndSet(this, expected, updated);
+    }
+
+    public int getQuestionCursor() {
+        return cursor(getState());
+    }
+
+    public int getCurrentAttempts() {
+        return attempts(getState());
+    }
+
+    public int getCorrectAnswers() {
+        return correctAnswers(getState());
+    }
+
+    public int getCompletedCount() {
+        return completedCount(getState());
+    }
+
+    public boolean isActive() {
+        return isActive(getState());
+    }
+
+    /**
+     * Gets the state of a session that has just started
+     *
+     * @return an active state with nothing served yet
+     */
+    public static long initialState() {
+        return ACTIVE_BIT;
+    }
+
+    public static int cursor(long state) {
+        return (int) ((state >>> CURSOR_SHIFT) & BYTE_MASK);
+    }
+
+    public static int attempts(long state) {
+        return (int) ((state >>> ATTEMPTS_SHIFT) & BYTE_MASK);
+    }
+
+    public static int correctAnswers(long state) {
+        return (int) ((state >>> CORRECT_SHIFT) & BYTE_MASK);
+    }
+
+    public static int completedCount(long state) {
+        return Long.bitCount(state & COMPLETED_MASK);
+    }
+
+    public static boolean isCompleted(long state, int slot) {
+        return (state & (1L << slot)) != 0;
+    }
+
+    public static boolean isActive(long state) {
+        return (state & ACTIVE_BIT) != 0;
+    }
+
+    /**
+     * Gets the slot of the question awaiting an answer
+     *
+     * @param state the state word
+     * @return the slot, or -1 if no question is being answered
+     */
+    public static int currentSlot(long state) {
+        int slot = cursor(state) - 1;
+        return slot >= 0 && !isCompleted(state, slot) ? slot : -1;
+    }
+
+    /**
+     * Orders states along the transitions of a session. Every transition below ends the session,
+     * serves the next slot, completes one or adds an attempt, and each of them increases this value,
+     * so of two states of one session the one with the higher progress is the later.
+     */
+    public static long progress(long state) {
+        return (isActive(state) ? 0 : 1L << 40)
+                | ((long) cursor(state) << 32)
+                | ((long) completedCount(state) << 16)
+                | attempts(state);
+    }
+
+    /**
+     * Serves the next slot with a fresh attempt count
+     */
+    public static long advanced(long state) {
+        long cleared = state & ~((BYTE_MASK << CURSOR_SHIFT) | (BYTE_MASK << ATTEMPTS_SHIFT));
+        return cleared | ((long) (cursor(state) + 1) << CURSOR_SHIFT);
+    }
+
+    public static long withAttempts(long state, int attempts) {
+        return (state & ~(BYTE_MASK << ATTEMPTS_SHIFT)) | ((long) attempts << ATTEMPTS_SHIFT);
+    }
+
+    /**
+     * Marks a slot completed, resetting the attempts and optionally counting a correct answer
+     */
+    public static long completed(long state, int slot, boolean correct) {
+        long updated = withAttempts(state, 0) | (1L << slot);
+        if (correct) {
+            updated = (updated & ~(BYTE_MASK << CORRECT_SHIFT))
+                    | ((long) (correctAnswers(state) + 1) << CORRECT_SHIFT);
+        }
+        return updated;
+    }
+
+    public static long ended(long state) {
+        return state & ~ACTIVE_BIT;
+    }
+
+    /**
+     * Digests the IDs of the questions at the drawn positions of a bank. Positions only identify
+     * questions within one snapshot of a bank, so a session put back onto a later snapshot compares
+     * digests to make sure the positions still hold the questions it was started with.
+     *
+     * @param questionBank the bank the positions refer to
+     * @param questionSequence the drawn positions
+     * @return the digest, never 0
+     */
+    public static long fingerprint(QuestionRepository questionBank, int[] questionSequence) {
+        // 64-bit FNV-1a over the IDs, each followed by a character that cannot be part of one
+        long hash = 0xcbf29ce484222325L;
+        for (int position : questionSequence) {
+            String id = questionBank.findByIndex(position).getId();
+            for (int i = 0, length = id != null ? id.length() : 0; i < length; i++) {
+                hash = (hash ^ id.charAt(i)) * 0x100000001b3L;
+            }
+            hash = (hash ^ 0xFFFF) * 0x100000001b3L;
+        }
+        return hash != 0 ? hash : 1;
+    }
 }
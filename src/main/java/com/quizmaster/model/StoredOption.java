@@ -0,0 +1,27 @@
+package com.quizmaster.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Answer option of a stored question, persisted in the question_options table
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class StoredOption {
+
+    @Column(name = "option_id")
+    private String optionId;
+
+    @Column(name = "option_text", length = 1000)
+    private String text;
+
+    private boolean correct;
+}
@@ -0,0 +1,49 @@
+package com.quizmaster.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Question of the database-backed question bank.
+ * The ID is the question ID used throughout the quiz, so it is assigned rather than generated.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "questions")
+public class StoredQuestion implements Persistable<String> {
+
+    @Id
+    private String id;
+
+    @Column(length = 2000)
+    private String text;
+
+    // Order of the question within the bank
+    private int position;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "question_options", joinColumns = @JoinColumn(name = "question_id"))
+    @OrderColumn(name = "option_index")
+    @Builder.Default
+    private List<StoredOption> options = new ArrayList<>();
+
+    // Set for questions known not to exist yet, so saving them skips the merge lookup
+    @Transient
+    @Builder.Default
+    private boolean newEntity = false;
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+}
@@ -0,0 +1,61 @@
+package com.quizmaster.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Quiz session shared between instances through the database.
+ * The state word of {@link QuizSession} doubles as the row version: every transition changes it, so
+ * updates are conditional on the state they were computed from.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "quiz_sessions", indexes = @Index(name = "idx_quiz_sessions_last_accessed", columnList = "lastAccessedAt"))
+public class StoredQuizSession implements Persistable<String> {
+
+    @Id
+    @Column(length = 64)
+    private String sessionId;
+
+    private String userName;
+
+    private String iNumber;
+
+    private String questionBankName;
+
+    // Drawn bank positions, comma-separated
+    @Column(length = 512)
+    private String questionSequence;
+
+    // Digest of the drawn question IDs; nullable so rows written before it existed still load
+    private Long questionFingerprint;
+
+    private long state;
+
+    // Epoch millis, as in QuizSession
+    private long startedAt;
+    private long endedAt;
+    private long lastAccessedAt;
+
+    // Sessions are only ever inserted once, so saving skips the merge lookup
+    @Transient
+    @Builder.Default
+    private boolean newEntity = false;
+
+    @Override
+    public String getId() {
+        return sessionId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+}
@@ -0,0 +1,79 @@
+package com.quizmaster.model.dto;
+
+import com.quizmaster.model.QuizResult;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Event of the live leaderboard. A snapshot carries every row; a diff carries only the rows
+ * whose content changed since the previous event, and the client drops the rows past size.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardUpdate {
+    private long version;
+    private int totalParticipants;
+    private int size;
+    private List<Row> rows;
+
+    /**
+     * Creates the event carrying every row of a view
+     */
+    public static LeaderboardUpdate snapshot(LeaderboardView view) {
+        return LeaderboardUpdate.builder()
+                .version(view.getVersion())
+                .totalParticipants(view.getTotalParticipants())
+                .size(view.getRankings().size())
+                .rows(rows(view))
+                .build();
+    }
+
+    /**
+     * Creates the event carrying the rows of a view that differ from the previous rows
+     *
+     * @param previous the rows the clients hold
+     * @param view the new view
+     */
+    public static LeaderboardUpdate diff(List<Row> previous, LeaderboardView view) {
+        List<Row> changed = new ArrayList<>();
+        List<Row> current = rows(view);
+        for (int i = 0; i < current.size(); i++) {
+            if (i >= previous.size() || !previous.get(i).equals(current.get(i))) {
+                changed.add(current.get(i));
+            }
+        }
+        return LeaderboardUpdate.builder()
+                .version(view.getVersion())
+                .totalParticipants(view.getTotalParticipants())
+                .size(current.size())
+                .rows(changed)
+                .build();
+    }
+
+    public static List<Row> rows(LeaderboardView view) {
+        List<Row> rows = new ArrayList<>(view.getRankings().size());
+        for (QuizResult result : view.getRankings()) {
+            rows.add(new Row(result.getRank(), result.getId(), result.getUserName(),
+                    result.getPercentageScore(), result.getTimeTakenSeconds()));
+        }
+        return rows;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Row {
+        private int rank;
+        private Long id;
+        private String userName;
+        private double percentageScore;
+        private int timeTakenSeconds;
+    }
+}
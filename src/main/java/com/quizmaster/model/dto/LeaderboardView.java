@@ -0,0 +1,27 @@
+package com.quizmaster.model.dto;
+
+import com.quizmaster.model.QuizResult;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Everything a leaderboard page shows, taken from one snapshot of the results
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardView {
+    private List<QuizResult> rankings;
+    private int totalParticipants;
+    // Null unless a user was asked for
+    private RankingResponse userRanking;
+    private LocalDateTime generatedAt;
+    // Results version the view was taken at
+    private long version;
+}
@@ -12,6 +12,8 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 public class QuestionResponse {
+    // The ID to use for the next call; changes with every step when sessions are held by clients
+    private String sessionId;
     private String questionId;
     private String text;
     private List<OptionDto> options;
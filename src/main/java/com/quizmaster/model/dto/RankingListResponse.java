@@ -16,5 +16,6 @@ import java.util.List;
 public class RankingListResponse {
     private List<QuizResult> rankings;
     private int totalParticipants;
+    private RankingResponse userRanking;
     private LocalDateTime generatedAt;
 }
\ No newline at end of file
@@ -22,6 +22,8 @@ public class RankingResponse {
     private int timeTakenSeconds;
     private LocalDateTime completedAt;
     private int totalParticipants;
+    // Percentage of the other results ranked below the user's best result
+    private double percentile;
     
     // Additional fields used by QuizRankingServiceImpl
     private String message;
@@ -0,0 +1,34 @@
+package com.quizmaster.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionStatsResponse {
+    private int liveSessions;
+    private int maxSessions;
+    private int scheduledExpiries;
+    private long idleEvictions;
+    private long endedEvictions;
+    private long rejectedStarts;
+    // True while the session journal is refusing writes or has not yet recovered the sessions it lost
+    private boolean journalDegraded;
+    private List<ShardStats> shards;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ShardStats {
+        private int liveSessions;
+        private int scheduledExpiries;
+        private long idleEvictions;
+        private long endedEvictions;
+    }
+}
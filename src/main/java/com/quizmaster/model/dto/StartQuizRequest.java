@@ -20,4 +20,8 @@ public class StartQuizRequest {
     @NotBlank(message = "Identification Number cannot be empty")
     @JsonProperty("iNumber")
     private String iNumber;
+
+    // Optional name of a configured question bank; the default catalog is used when empty
+    @JsonProperty("bank")
+    private String bank;
 }
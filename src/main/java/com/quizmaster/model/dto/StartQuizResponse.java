@@ -15,4 +15,5 @@ public class StartQuizResponse {
     private String userName;
     private String iNumber;
     private int maxQuestions;
+    private String bank;
 }
@@ -10,6 +10,8 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class ValidateAnswerResponse {
+    // The ID to use for the next call; changes with every step when sessions are held by clients
+    private String sessionId;
     private String questionId;
     private boolean correct;
     private String message;
@@ -18,4 +20,6 @@ public class ValidateAnswerResponse {
     private Integer remainingAttempts;
     private String correctAnswerId;
     private Integer remainingQuestions;
+    // Set by the combined answer call when the question is completed and another one remains
+    private QuestionResponse nextQuestion;
 }
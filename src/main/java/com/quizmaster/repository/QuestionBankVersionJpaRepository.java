@@ -0,0 +1,20 @@
+package com.quizmaster.repository;
+
+import com.quizmaster.model.QuestionBankVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface QuestionBankVersionJpaRepository extends JpaRepository<QuestionBankVersion, Integer> {
+
+    @Query("SELECT v.version FROM QuestionBankVersion v WHERE v.id = ?1")
+    Long findVersion(Integer id);
+
+    @Modifying
+    @Query("UPDATE QuestionBankVersion v SET v.version = v.version + 1, v.updatedAt = ?2 WHERE v.id = ?1")
+    int incrementVersion(Integer id, LocalDateTime updatedAt);
+}
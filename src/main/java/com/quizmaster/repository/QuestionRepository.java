@@ -0,0 +1,66 @@
+package com.quizmaster.repository;
+
+import com.quizmaster.model.CompiledQuestion;
+import com.quizmaster.model.Question;
+
+import java.util.List;
+
+/**
+ * Read-only access to a question bank with constant-time lookups
+ */
+public interface QuestionRepository {
+
+    /**
+     * Gets all questions in bank order
+     *
+     * @return an unmodifiable list of questions
+     */
+    List<Question> findAll();
+
+    /**
+     * Finds a question by its ID
+     *
+     * @param id the question ID
+     * @return the question, or null if no question has this ID
+     */
+    Question findById(String id);
+
+    /**
+     * Finds the compiled form of a question by its ID
+     *
+     * @param id the question ID
+     * @return the compiled question, or null if no question has this ID
+     */
+    CompiledQuestion findCompiledById(String id);
+
+    /**
+     * Finds a question by its position in the bank
+     *
+     * @param index the zero-based position
+     * @return the question at the given position
+     */
+    Question findByIndex(int index);
+
+    /**
+     * Finds the compiled form of a question by its position in the bank
+     *
+     * @param index the zero-based position
+     * @return the compiled question at the given position
+     */
+    CompiledQuestion findCompiledByIndex(int index);
+
+    /**
+     * Gets the position of a question in the bank
+     *
+     * @param id the question ID
+     * @return the zero-based position, or -1 if no question has this ID
+     */
+    int indexOf(String id);
+
+    /**
+     * Gets the number of questions in the bank
+     *
+     * @return the question count
+     */
+    int count();
+}
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -19,4 +20,11 @@ public interface QuizResultJpaRepository extends JpaRepository<QuizResult, Long>
     QuizResult findBySessionId(String sessionId);
     
     boolean existsByiNumber(String iNumber);
+    
+    @Query("SELECT q.iNumber FROM QuizResult q WHERE q.iNumber IN ?1")
+    List<String> findINumbersIn(Collection<String> iNumbers);
+    
+    // IDs are generated in increasing order and never reused, so this moves with every insert
+    @Query("SELECT COALESCE(MAX(q.id), 0) FROM QuizResult q")
+    long findMaxId();
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.quizmaster.repository;
+
+import com.quizmaster.model.StoredQuizSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface QuizSessionJpaRepository extends JpaRepository<StoredQuizSession, String> {
+
+    @Query("SELECT s.state FROM StoredQuizSession s WHERE s.sessionId = ?1")
+    Long findState(String sessionId);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StoredQuizSession s SET s.state = ?3, s.lastAccessedAt = ?4 WHERE s.sessionId = ?1 AND s.state = ?2")
+    int compareAndSetState(String sessionId, long expectedState, long updatedState, long lastAccessedAt);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StoredQuizSession s SET s.lastAccessedAt = ?2 WHERE s.sessionId = ?1 AND s.lastAccessedAt < ?2")
+    int touch(String sessionId, long lastAccessedAt);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StoredQuizSession s SET s.endedAt = ?2 WHERE s.sessionId = ?1")
+    int updateEndedAt(String sessionId, long endedAt);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM StoredQuizSession s WHERE s.sessionId = ?1 AND s.state = ?2 AND s.lastAccessedAt <= ?3")
+    int deleteIfUnchanged(String sessionId, long state, long lastAccessedAt);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM StoredQuizSession s WHERE s.lastAccessedAt < ?1")
+    int deleteIdleBefore(long lastAccessedAt);
+}
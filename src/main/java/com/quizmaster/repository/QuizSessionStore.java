@@ -0,0 +1,75 @@
+package com.quizmaster.repository;
+
+import com.quizmaster.model.QuizSession;
+
+import java.util.function.Consumer;
+
+/**
+ * Storage for the quiz sessions in progress on this instance.
+ * <p>
+ * A session returned by {@link #find} may be a view over the stored record rather than the object
+ * that was saved, so callers change it only through {@link QuizSession#compareAndSetState} and the
+ * timestamp setters, and never keep it beyond the request. A store shared between instances may
+ * return a session without its question bank, which the caller then sets from the bank name.
+ */
+public interface QuizSessionStore {
+
+    /**
+     * Stores a new session under its session ID. A store may assign the session a new ID, which
+     * the caller then hands out instead.
+     *
+     * @param session the session to store
+     */
+    void save(QuizSession session);
+
+    /**
+     * Finds a session by its ID
+     *
+     * @param sessionId the session ID
+     * @return the session, or null if no session has this ID
+     */
+    QuizSession find(String sessionId);
+
+    /**
+     * Removes a session if it is still the one that was found
+     *
+     * @param sessionId the session ID
+     * @param session the session as returned by {@link #find}
+     * @return true if the session was removed
+     */
+    boolean remove(String sessionId, QuizSession session);
+
+    /**
+     * Gets the number of stored sessions
+     *
+     * @return the session count
+     */
+    int size();
+
+    /**
+     * Tells whether other instances add and remove sessions in this store too
+     *
+     * @return true if the store is shared between instances
+     */
+    default boolean isShared() {
+        return false;
+    }
+
+    /**
+     * Tells whether sessions take space in this store. A store that hands each session back to the
+     * client inside its ID holds nothing to evict, count against the cap or journal.
+     *
+     * @return true if saved sessions are kept until removed
+     */
+    default boolean holdsSessions() {
+        return true;
+    }
+
+    /**
+     * Visits every stored session, for snapshots. Sessions saved or removed during the walk may or
+     * may not be visited.
+     *
+     * @param action called with each session
+     */
+    void forEach(Consumer<QuizSession> action);
+}
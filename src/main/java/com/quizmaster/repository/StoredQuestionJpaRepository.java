@@ -0,0 +1,21 @@
+package com.quizmaster.repository;
+
+import com.quizmaster.model.StoredQuestion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StoredQuestionJpaRepository extends JpaRepository<StoredQuestion, String> {
+
+    @Query("SELECT DISTINCT q FROM StoredQuestion q LEFT JOIN FETCH q.options ORDER BY q.position")
+    List<StoredQuestion> findAllWithOptions();
+
+    @Query("SELECT COALESCE(MAX(q.position), -1) FROM StoredQuestion q")
+    int findMaxPosition();
+
+    @Query("SELECT q.id FROM StoredQuestion q")
+    List<String> findAllIds();
+}
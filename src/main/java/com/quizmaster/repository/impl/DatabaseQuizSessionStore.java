@@ -0,0 +1,296 @@
+package com.quizmaster.repository.impl;
+
+import com.quizmaster.model.QuizSession;
+import com.quizmaster.model.StoredQuizSession;
+import com.quizmaster.repository.QuestionRepository;
+import com.quizmaster.repository.QuizSessionJpaRepository;
+import com.quizmaster.repository.QuizSessionStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Keeps sessions in the shared database so any instance can serve any request, fronted by a
+ * near-cache of decoded sessions.
+ * <p>
+ * The state word changes with every transition, so it serves as the row version. Transitions are
+ * written with an update that only matches the state they were computed from, so a transition made
+ * on another instance in the meantime makes the compare-and-set fail; the cached session then
+ * picks up the current state and the caller recomputes from it, as with a local race.
+ * <p>
+ * Lookups therefore need not check the database to be safe, only to be fresh. A cached session is
+ * served without any database read for a lease of near-cache-lease-ms after its state was last
+ * read from or written to the database; after that a lookup reads only the state column and
+ * reloads the row only when it moved. A quiz makes a request every few seconds, so with the
+ * default lease of one second a page load that fetches the question and the score costs one
+ * single-column primary-key read instead of two, and requests answered in the same second cost
+ * none. The price is that a lookup on one instance may miss, for up to the lease, a transition
+ * made on another; what it serves from that state is a read, and acting on it fails the
+ * compare-and-set.
+ * Sessions come back without their question bank when loaded from the database, and the caller
+ * attaches it by name.
+ */
+@Slf4j
+@Repository
+@ConditionalOnProperty(name = "quizmaster.session.store", havingValue = "database")
+public class DatabaseQuizSessionStore implements QuizSessionStore {
+
+    // Touches reach the database at most this often, so plain reads do not turn into writes
+    static final long ACCESS_WRITE_INTERVAL_MS = 30_000;
+
+    private final QuizSessionJpaRepository sessions;
+    private final int nearCacheSize;
+    private final ConcurrentHashMap<String, CachedSession> nearCache = new ConcurrentHashMap<>();
+
+    @Value("${quizmaster.session.idle-ttl-ms:1800000}")
+    private long sessionIdleTtlMs = 1800000;
+
+    @Value("${quizmaster.session.database.near-cache-lease-ms:1000}")
+    private long nearCacheLeaseMs = 1000;
+
+    @Autowired
+    public DatabaseQuizSessionStore(QuizSessionJpaRepository sessions,
+                                    @Value("${quizmaster.session.database.near-cache-size:10000}") int nearCacheSize) {
+        this.sessions = sessions;
+        this.nearCacheSize = nearCacheSize;
+        log.info("Storing quiz sessions in the database with a near-cache of {} sessions", nearCacheSize);
+    }
+
+    @Override
+    public void save(QuizSession session) {
+        StoredQuizSession row = toRow(session);
+        row.setNewEntity(true);
+        sessions.save(row);
+        cache(new CachedSession(row, session.getQuestionBank(), System.currentTimeMillis()));
+    }
+
+    @Override
+    public QuizSession find(String sessionId) {
+        return find(sessionId, System.currentTimeMillis());
+    }
+
+    /**
+     * Looks a session up as of the given time, which decides whether its near-cache lease still holds
+     */
+    public QuizSession find(String sessionId, long nowMillis) {
+        CachedSession cached = nearCache.get(sessionId);
+        // An ended session is reloaded until the end time written after the transition shows up
+        boolean complete = cached != null && (cached.isActive() || cached.getEndedAt() > 0);
+        if (complete && nowMillis - cached.verifiedAt < nearCacheLeaseMs) {
+            return cached;
+        }
+        if (cached != null) {
+            Long state = sessions.findState(sessionId);
+            if (state == null) {
+                nearCache.remove(sessionId, cached);
+                return null;
+            }
+            if (complete && state == cached.getState()) {
+                cached.verifiedAt = nowMillis;
+                return cached;
+            }
+        }
+
+        Optional<StoredQuizSession> row = sessions.findById(sessionId);
+        if (row.isEmpty()) {
+            if (cached != null) {
+                nearCache.remove(sessionId, cached);
+            }
+            return null;
+        }
+        if (cached != null) {
+            cached.refresh(row.get(), nowMillis);
+            return cached;
+        }
+        return cache(new CachedSession(row.get(), null, nowMillis));
+    }
+
+    @Override
+    public boolean remove(String sessionId, QuizSession session) {
+        if (!(session instanceof CachedSession)) {
+            return false;
+        }
+        nearCache.remove(sessionId, session);
+        // Only delete if no instance has moved or touched the session since it was read
+        return sessions.deleteIfUnchanged(sessionId, session.getState(), session.getLastAccessedAt()) == 1;
+    }
+
+    @Override
+    public int size() {
+        return (int) sessions.count();
+    }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+
+    @Override
+    public void forEach(Consumer<QuizSession> action) {
+        for (StoredQuizSession row : sessions.findAll()) {
+            CachedSession cached = nearCache.get(row.getSessionId());
+            action.accept(cached != null ? cached : new CachedSession(row, null, System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Deletes sessions idle for twice the idle TTL. Each instance evicts the sessions it has served;
+     * this catches those left behind by an instance that went away.
+     */
+    @Scheduled(fixedDelayString = "${quizmaster.session.database.purge-interval-ms:600000}")
+    public void purgeAbandonedSessions() {
+        int purged = sessions.deleteIdleBefore(System.currentTimeMillis() - 2 * sessionIdleTtlMs);
+        if (purged > 0) {
+            log.info("Purged {} abandoned quiz sessions from the database", purged);
+        }
+    }
+
+    private CachedSession cache(CachedSession session) {
+        if (nearCache.size() >= nearCacheSize) {
+            // Drop an arbitrary entry; it is reloaded from the database when next needed
+            Iterator<String> keys = nearCache.keySet().iterator();
+            if (keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        }
+        CachedSession existing = nearCache.putIfAbsent(session.getSessionId(), session);
+        return existing != null ? existing : session;
+    }
+
+    private static StoredQuizSession toRow(QuizSession session) {
+        StringBuilder sequence = new StringBuilder();
+        for (int position : session.getQuestionSequence()) {
+            if (sequence.length() > 0) {
+                sequence.append(',');
+            }
+            sequence.append(position);
+        }
+        return StoredQuizSession.builder()
+                .sessionId(session.getSessionId())
+                .userName(session.getUserName())
+                .iNumber(session.getINumber())
+                .questionBankName(session.getQuestionBankName())
+                .questionSequence(sequence.toString())
+                .questionFingerprint(session.getQuestionFingerprint())
+                .state(session.getState())
+                .startedAt(session.getStartedAt())
+                .endedAt(session.getEndedAt())
+                .lastAccessedAt(session.getLastAccessedAt())
+                .build();
+    }
+
+    private static int[] parseSequence(String sequence) {
+        if (sequence == null || sequence.isEmpty()) {
+            return new int[0];
+        }
+        String[] positions = sequence.split(",");
+        int[] parsed = new int[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            parsed[i] = Integer.parseInt(positions[i]);
+        }
+        return parsed;
+    }
+
+    /**
+     * Session as last seen in the database, writing its transitions through to it
+     */
+    private final class CachedSession extends QuizSession {
+
+        // Last access time known to be in the database
+        private volatile long writtenAccessAt;
+
+        // When the cached state was last known to match the database, which starts the lease
+        private volatile long verifiedAt;
+
+        CachedSession(StoredQuizSession row, QuestionRepository questionBank, long verifiedAt) {
+            setSessionId(row.getSessionId());
+            setUserName(row.getUserName());
+            setINumber(row.getINumber());
+            setQuestionBankName(row.getQuestionBankName());
+            setQuestionBank(questionBank);
+            setQuestionSequence(parseSequence(row.getQuestionSequence()));
+            setQuestionFingerprint(row.getQuestionFingerprint() != null ? row.getQuestionFingerprint() : 0L);
+            setStartedAt(row.getStartedAt());
+            super.setEndedAt(row.getEndedAt());
+            super.setLastAccessedAt(row.getLastAccessedAt());
+            super.compareAndSetState(super.getState(), row.getState());
+            this.writtenAccessAt = row.getLastAccessedAt();
+            this.verifiedAt = verifiedAt;
+        }
+
+        @Override
+        public boolean compareAndSetState(long expected, long updated) {
+            long accessedAt = getLastAccessedAt();
+            if (sessions.compareAndSetState(getSessionId(), expected, updated, accessedAt) == 1) {
+                writtenAccessAt = accessedAt;
+                advanceTo(updated);
+                verifiedAt = System.currentTimeMillis();
+                return true;
+            }
+
+            // Another instance got there first; pick up its state so the caller recomputes from it
+            Long current = sessions.findState(getSessionId());
+            if (current == null) {
+                nearCache.remove(getSessionId(), this);
+                advanceTo(QuizSession.ended(getState()));
+            } else {
+                advanceTo(current);
+                verifiedAt = System.currentTimeMillis();
+            }
+            return false;
+        }
+
+        @Override
+        public void setLastAccessedAt(long lastAccessedAt) {
+            super.setLastAccessedAt(lastAccessedAt);
+            if (lastAccessedAt - writtenAccessAt >= ACCESS_WRITE_INTERVAL_MS) {
+                writtenAccessAt = lastAccessedAt;
+                sessions.touch(getSessionId(), lastAccessedAt);
+            }
+        }
+
+        @Override
+        public void setEndedAt(long endedAt) {
+            super.setEndedAt(endedAt);
+            sessions.updateEndedAt(getSessionId(), endedAt);
+        }
+
+        void refresh(StoredQuizSession row, long verifiedAt) {
+            advanceTo(row.getState());
+            this.verifiedAt = verifiedAt;
+            if (row.getEndedAt() > getEndedAt()) {
+                super.setEndedAt(row.getEndedAt());
+            }
+            if (row.getLastAccessedAt() > getLastAccessedAt()) {
+                super.setLastAccessedAt(row.getLastAccessedAt());
+            }
+            if (row.getLastAccessedAt() > writtenAccessAt) {
+                writtenAccessAt = row.getLastAccessedAt();
+            }
+        }
+
+        /**
+         * Moves the cached state forward to a state read from or written to the database, never back
+         */
+        private void advanceTo(long target) {
+            while (true) {
+                long current = getState();
+                if (QuizSession.progress(current) >= QuizSession.progress(target)) {
+                    return;
+                }
+                if (super.compareAndSetState(current, target)) {
+                    return;
+                }
+            }
+        }
+    }
+}
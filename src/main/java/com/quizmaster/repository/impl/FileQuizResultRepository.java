@@ -2,6 +2,8 @@
 package com.quizmaster.repository.impl;
 
 import com.quizmaster.model.QuizResult;
+import com.quizmaster.util.StreamingXlsxReader;
+import com.quizmaster.util.StreamingXlsxReader.SheetCell;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
@@ -196,28 +198,22 @@ public class FileQuizResultRepository implements QuizResultRepository {
                 return results;
             }
 
-            try (FileInputStream fis = new FileInputStream(file);
-                 Workbook workbook = WorkbookFactory.create(fis)) {
+            StreamingXlsxReader.read(file, null, row -> {
+                // Skip header row
+                if (row.getRowNum() == 0) return;
 
-                Sheet sheet = workbook.getSheetAt(0);
-
-                for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                    Row row = sheet.getRow(i);
-                    if (row == null) continue;
-
-                    QuizResult result = new QuizResult();
-                    result.setUserName(getCellValueAsString(row.getCell(0)));
-                    result.setScore((int) row.getCell(1).getNumericCellValue());
-                    result.setPercentageScore(row.getCell(2).getNumericCellValue());
-                    result.setTotalQuestions((int) row.getCell(3).getNumericCellValue());
-                    result.setCorrectAnswers((int) row.getCell(4).getNumericCellValue());
-                    result.setTimeTakenSeconds((int) row.getCell(5).getNumericCellValue());
-                    result.setCompletedAt(LocalDateTime.parse(
-                            getCellValueAsString(row.getCell(6)), DATE_TIME_FORMATTER));
+                QuizResult result = new QuizResult();
+                result.setUserName(getCellValueAsString(row.getCell(0)));
+                result.setScore((int) row.getCell(1).getNumericCellValue());
+                result.setPercentageScore(row.getCell(2).getNumericCellValue());
+                result.setTotalQuestions((int) row.getCell(3).getNumericCellValue());
+                result.setCorrectAnswers((int) row.getCell(4).getNumericCellValue());
+                result.setTimeTakenSeconds((int) row.getCell(5).getNumericCellValue());
+                result.setCompletedAt(LocalDateTime.parse(
+                        getCellValueAsString(row.getCell(6)), DATE_TIME_FORMATTER));
 
-                    results.add(result);
-                }
-            }
+                results.add(result);
+            });
 
         } catch (Exception e) {
             throw new RuntimeException("Error reading quiz results from Excel", e);
@@ -336,7 +332,7 @@ public class FileQuizResultRepository implements QuizResultRepository {
         }
     }
 
-    private String getCellValueAsString(Cell cell) {
+    private String getCellValueAsString(SheetCell cell) {
         if (cell == null) {
             return "";
         }
@@ -345,7 +341,7 @@ public class FileQuizResultRepository implements QuizResultRepository {
             case STRING:
                 return cell.getStringCellValue();
             case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
+                if (cell.isDateFormatted()) {
                     return cell.getLocalDateTimeCellValue().format(DATE_TIME_FORMATTER);
                 }
                 return String.valueOf(cell.getNumericCellValue());
@@ -0,0 +1,64 @@
+package com.quizmaster.repository.impl;
+
+import com.quizmaster.model.QuizSession;
+import com.quizmaster.repository.QuizSessionStore;
+import com.quizmaster.util.SessionIds;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Keeps sessions as objects in concurrent maps, one per session shard, the default store. The
+ * shard is read from the session ID, so each map only sees the traffic of its own sessions.
+ */
+@Repository
+@ConditionalOnProperty(name = "quizmaster.session.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryQuizSessionStore implements QuizSessionStore {
+
+    @SuppressWarnings("unchecked")
+    private final Map<String, QuizSession>[] shards = new Map[SessionIds.SHARDS];
+
+    public InMemoryQuizSessionStore() {
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    @Override
+    public void save(QuizSession session) {
+        shard(session.getSessionId()).put(session.getSessionId(), session);
+    }
+
+    @Override
+    public QuizSession find(String sessionId) {
+        return shard(sessionId).get(sessionId);
+    }
+
+    @Override
+    public boolean remove(String sessionId, QuizSession session) {
+        return shard(sessionId).remove(sessionId, session);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Map<String, QuizSession> shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    @Override
+    public void forEach(Consumer<QuizSession> action) {
+        for (Map<String, QuizSession> shard : shards) {
+            shard.values().forEach(action);
+        }
+    }
+
+    private Map<String, QuizSession> shard(String sessionId) {
+        return shards[SessionIds.shardOf(sessionId)];
+    }
+}
@@ -0,0 +1,76 @@
+package com.quizmaster.repository.impl;
+
+import com.quizmaster.model.CompiledQuestion;
+import com.quizmaster.model.Question;
+import com.quizmaster.repository.QuestionRepository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable question repository that maps question IDs to dense array positions.
+ * Built once per catalog snapshot, so lookups never scan the bank and questions
+ * are compiled for answer checking only once.
+ */
+public class IndexedQuestionRepository implements QuestionRepository {
+
+    private final List<Question> questions;
+    private final Question[] byIndex;
+    private final CompiledQuestion[] compiledByIndex;
+    private final Map<String, Integer> indexById;
+
+    public IndexedQuestionRepository(List<Question> questions) {
+        this.questions = List.copyOf(questions);
+        this.byIndex = this.questions.toArray(new Question[0]);
+        this.compiledByIndex = new CompiledQuestion[byIndex.length];
+        this.indexById = new HashMap<>(Math.max(16, byIndex.length * 4 / 3 + 1));
+
+        for (int i = 0; i < byIndex.length; i++) {
+            // Keep the first occurrence so duplicate IDs resolve the same way a linear scan would
+            indexById.putIfAbsent(byIndex[i].getId(), i);
+            compiledByIndex[i] = CompiledQuestion.compile(byIndex[i]);
+        }
+    }
+
+    @Override
+    public List<Question> findAll() {
+        return questions;
+    }
+
+    @Override
+    public Question findById(String id) {
+        int index = indexOf(id);
+        return index >= 0 ? byIndex[index] : null;
+    }
+
+    @Override
+    public CompiledQuestion findCompiledById(String id) {
+        int index = indexOf(id);
+        return index >= 0 ? compiledByIndex[index] : null;
+    }
+
+    @Override
+    public Question findByIndex(int index) {
+        return byIndex[index];
+    }
+
+    @Override
+    public CompiledQuestion findCompiledByIndex(int index) {
+        return compiledByIndex[index];
+    }
+
+    @Override
+    public int indexOf(String id) {
+        if (id == null) {
+            return -1;
+        }
+        Integer index = indexById.get(id);
+        return index != null ? index : -1;
+    }
+
+    @Override
+    public int count() {
+        return byIndex.length;
+    }
+}
@@ -0,0 +1,210 @@
+package com.quizmaster.repository.impl;
+
+import com.quizmaster.model.Option;
+import com.quizmaster.model.Question;
+import com.quizmaster.model.QuestionBankVersion;
+import com.quizmaster.model.StoredOption;
+import com.quizmaster.model.StoredQuestion;
+import com.quizmaster.repository.QuestionBankVersionJpaRepository;
+import com.quizmaster.repository.StoredQuestionJpaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Transactional access to the database-backed question bank.
+ * Every write bumps the bank version in the same transaction.
+ */
+@Repository
+public class JpaQuestionStore {
+
+    private final StoredQuestionJpaRepository questionRepository;
+    private final QuestionBankVersionJpaRepository versionRepository;
+
+    @Autowired
+    public JpaQuestionStore(StoredQuestionJpaRepository questionRepository,
+                            QuestionBankVersionJpaRepository versionRepository) {
+        this.questionRepository = questionRepository;
+        this.versionRepository = versionRepository;
+    }
+
+    /**
+     * Gets the current bank version
+     *
+     * @return the version, or -1 if the bank has never been written
+     */
+    @Transactional(readOnly = true)
+    public long getVersion() {
+        Long version = versionRepository.findVersion(QuestionBankVersion.SINGLETON_ID);
+        return version != null ? version : -1L;
+    }
+
+    /**
+     * Loads the whole bank in bank order together with the version it belongs to
+     *
+     * @return the version and questions, read in one transaction
+     */
+    @Transactional(readOnly = true)
+    public VersionedQuestions loadAll() {
+        long version = getVersion();
+        List<StoredQuestion> stored = questionRepository.findAllWithOptions();
+        List<Question> questions = new ArrayList<>(stored.size());
+        for (StoredQuestion question : stored) {
+            questions.add(toQuestion(question));
+        }
+        return new VersionedQuestions(version, questions);
+    }
+
+    /**
+     * Replaces the whole bank, e.g. when importing a workbook
+     *
+     * @param questions the new bank in order
+     * @return the new bank version
+     */
+    @Transactional
+    public long replaceAll(List<Question> questions) {
+        questionRepository.deleteAllInBatch();
+        questionRepository.flush();
+
+        // Inserts are batched by hibernate.jdbc.batch_size, the new flag skips a lookup per row
+        List<StoredQuestion> stored = new ArrayList<>(questions.size());
+        for (int i = 0; i < questions.size(); i++) {
+            stored.add(toStoredQuestion(questions.get(i), i, true));
+        }
+        questionRepository.saveAll(stored);
+        return bumpVersion();
+    }
+
+    /**
+     * Inserts a new question at the end of the bank
+     *
+     * @param question the question with its assigned ID
+     * @return the new bank version
+     */
+    @Transactional
+    public long insert(Question question) {
+        int position = questionRepository.findMaxPosition() + 1;
+        questionRepository.saveAndFlush(toStoredQuestion(question, position, true));
+        return bumpVersion();
+    }
+
+    /**
+     * Replaces an existing question, keeping its position
+     *
+     * @param question the updated question
+     * @return the new bank version, or -1 if no question has this ID
+     */
+    @Transactional
+    public long update(Question question) {
+        StoredQuestion existing = questionRepository.findById(question.getId()).orElse(null);
+        if (existing == null) {
+            return -1L;
+        }
+        existing.setText(question.getText());
+        existing.getOptions().clear();
+        existing.getOptions().addAll(toStoredOptions(question));
+        questionRepository.save(existing);
+        return bumpVersion();
+    }
+
+    /**
+     * Deletes a question
+     *
+     * @param id the question ID
+     * @return the new bank version, or -1 if no question has this ID
+     */
+    @Transactional
+    public long delete(String id) {
+        if (!questionRepository.existsById(id)) {
+            return -1L;
+        }
+        questionRepository.deleteById(id);
+        return bumpVersion();
+    }
+
+    /**
+     * Gets the IDs of all stored questions
+     *
+     * @return the question IDs
+     */
+    @Transactional(readOnly = true)
+    public List<String> findAllIds() {
+        return questionRepository.findAllIds();
+    }
+
+    private long bumpVersion() {
+        LocalDateTime now = LocalDateTime.now();
+        if (versionRepository.incrementVersion(QuestionBankVersion.SINGLETON_ID, now) == 0) {
+            versionRepository.saveAndFlush(QuestionBankVersion.builder()
+                    .id(QuestionBankVersion.SINGLETON_ID)
+                    .version(1L)
+                    .updatedAt(now)
+                    .build());
+            return 1L;
+        }
+        return versionRepository.findVersion(QuestionBankVersion.SINGLETON_ID);
+    }
+
+    private static Question toQuestion(StoredQuestion stored) {
+        List<Option> options = new ArrayList<>(stored.getOptions().size());
+        for (StoredOption option : stored.getOptions()) {
+            options.add(Option.builder()
+                    .id(option.getOptionId())
+                    .text(option.getText())
+                    .correct(option.isCorrect())
+                    .build());
+        }
+        return Question.builder()
+                .id(stored.getId())
+                .text(stored.getText())
+                .options(options)
+                .build();
+    }
+
+    private static StoredQuestion toStoredQuestion(Question question, int position, boolean isNew) {
+        return StoredQuestion.builder()
+                .id(question.getId())
+                .text(question.getText())
+                .position(position)
+                .options(toStoredOptions(question))
+                .newEntity(isNew)
+                .build();
+    }
+
+    private static List<StoredOption> toStoredOptions(Question question) {
+        List<StoredOption> options = new ArrayList<>(question.getOptions().size());
+        for (Option option : question.getOptions()) {
+            options.add(StoredOption.builder()
+                    .optionId(option.getId())
+                    .text(option.getText())
+                    .correct(option.isCorrect())
+                    .build());
+        }
+        return options;
+    }
+
+    /**
+     * Questions of the bank together with the version they were read at
+     */
+    public static final class VersionedQuestions {
+        private final long version;
+        private final List<Question> questions;
+
+        public VersionedQuestions(long version, List<Question> questions) {
+            this.version = version;
+            this.questions = questions;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public List<Question> getQuestions() {
+            return questions;
+        }
+    }
+}
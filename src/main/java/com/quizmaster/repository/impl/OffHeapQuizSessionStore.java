@@ -0,0 +1,598 @@
+package com.quizmaster.repository.impl;
+
+import com.quizmaster.exception.QuizException;
+import com.quizmaster.model.QuizSession;
+import com.quizmaster.repository.QuestionRepository;
+import com.quizmaster.repository.QuizSessionStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Keeps sessions as fixed-size records in direct memory slabs, so hundreds of thousands of live
+ * sessions add almost nothing to the heap the collector has to trace. Records are located through
+ * an open-addressing index keyed by session ID, and the state word is swapped in place with
+ * compare-and-set like the field of an on-heap session.
+ * <p>
+ * Freed records are reused oldest first, and each reuse bumps a generation kept in the reserved
+ * bits of the state word, so a view of a removed session can neither change nor read its successor.
+ */
+@Repository
+@Slf4j
+@ConditionalOnProperty(name = "quizmaster.session.store", havingValue = "offheap")
+public class OffHeapQuizSessionStore implements QuizSessionStore {
+
+    static final int SEQUENCE_CAPACITY = 8;
+    static final int SESSION_ID_CAPACITY = 48;
+    static final int USER_NAME_CAPACITY = 128;
+    static final int I_NUMBER_CAPACITY = 32;
+
+    // Record layout; the longs come first so they stay 8-byte aligned for atomic access
+    private static final int STATE = 0;
+    private static final int STARTED_AT = 8;
+    private static final int ENDED_AT = 16;
+    private static final int LAST_ACCESSED_AT = 24;
+    private static final int BANK_REF = 32;
+    private static final int ID_HASH = 36;
+    private static final int SEQUENCE_LENGTH = 40;
+    private static final int SESSION_ID_LENGTH = 41;
+    private static final int USER_NAME_LENGTH = 42;
+    private static final int I_NUMBER_LENGTH = 43;
+    private static final int SEQUENCE = 44;
+    private static final int SESSION_ID = SEQUENCE + SEQUENCE_CAPACITY * Integer.BYTES;
+    private static final int USER_NAME = SESSION_ID + SESSION_ID_CAPACITY;
+    private static final int I_NUMBER = USER_NAME + USER_NAME_CAPACITY;
+    static final int RECORD_SIZE = (I_NUMBER + I_NUMBER_CAPACITY + 7) & ~7;
+
+    private static final int NULL_LENGTH = 0xFF;
+    private static final int GENERATION_SHIFT = 57;
+    private static final long GENERATION_MASK = 0x7FL << GENERATION_SHIFT;
+
+    // Index entries hold record + 1, so 0 is an empty slot
+    private static final int EMPTY = 0;
+    private static final int DELETED = -1;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final int slabRecords;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private ByteBuffer[] slabs = new ByteBuffer[0];
+    private int[] index = new int[64];
+    private int indexUsed;
+    private int allocatedRecords;
+    private int[] freeRecords = new int[64];
+    private int freeHead;
+    private int freeCount;
+    private int size;
+    private final List<BankRef> bankRefs = new ArrayList<>();
+    private final Map<QuestionRepository, Integer> bankRefByRepository = new IdentityHashMap<>();
+    private final Deque<Integer> freeBankRefs = new ArrayDeque<>();
+
+    public OffHeapQuizSessionStore(@Value("${quizmaster.session.offheap.slab-records:4096}") int slabRecords) {
+        if (slabRecords <= 0) {
+            throw new IllegalArgumentException("Slab size must be positive");
+        }
+        this.slabRecords = slabRecords;
+        log.info("Storing quiz sessions off-heap in slabs of {} records of {} bytes", slabRecords, RECORD_SIZE);
+    }
+
+    @Override
+    public void save(QuizSession session) {
+        String sessionId = session.getSessionId();
+        byte[] id = encodeSessionId(sessionId);
+        byte[] userName = encode(session.getUserName(), USER_NAME_CAPACITY, "User name");
+        byte[] iNumber = encode(session.getINumber(), I_NUMBER_CAPACITY, "Identification Number");
+        int[] sequence = session.getQuestionSequence();
+        if (sequence.length > SEQUENCE_CAPACITY) {
+            throw new IllegalArgumentException("Sessions stored off-heap hold at most " + SEQUENCE_CAPACITY + " questions");
+        }
+
+        lock.writeLock().lock();
+        try {
+            int hash = mix(sessionId.hashCode());
+            if (findRecord(sessionId, hash) >= 0) {
+                throw new IllegalStateException("Session already stored: " + sessionId);
+            }
+            int record = allocateRecord();
+            ByteBuffer slab = slab(record);
+            int base = offset(record);
+
+            long generation = ((long) LONGS.getVolatile(slab, base + STATE)) & GENERATION_MASK;
+            slab.putLong(base + STARTED_AT, session.getStartedAt());
+            slab.putLong(base + ENDED_AT, session.getEndedAt());
+            slab.putLong(base + LAST_ACCESSED_AT, session.getLastAccessedAt());
+            slab.putInt(base + BANK_REF, acquireBankRef(session.getQuestionBankName(), session.getQuestionBank()));
+            slab.putInt(base + ID_HASH, hash);
+            slab.put(base + SEQUENCE_LENGTH, (byte) sequence.length);
+            for (int i = 0; i < sequence.length; i++) {
+                slab.putInt(base + SEQUENCE + i * Integer.BYTES, sequence[i]);
+            }
+            putBytes(slab, base + SESSION_ID_LENGTH, base + SESSION_ID, id);
+            putBytes(slab, base + USER_NAME_LENGTH, base + USER_NAME, userName);
+            putBytes(slab, base + I_NUMBER_LENGTH, base + I_NUMBER, iNumber);
+            // Publishing the state last makes the rest of the record visible to views that read it
+            LONGS.setVolatile(slab, base + STATE, (session.getState() & ~GENERATION_MASK) | generation);
+
+            insertIndex(hash, record);
+            size++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public QuizSession find(String sessionId) {
+        lock.readLock().lock();
+        try {
+            int record = findRecord(sessionId, mix(sessionId.hashCode()));
+            if (record < 0) {
+                return null;
+            }
+            long state = (long) LONGS.getVolatile(slab(record), offset(record) + STATE);
+            return new SessionView(record, state & GENERATION_MASK);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(String sessionId, QuizSession session) {
+        if (!(session instanceof SessionView)) {
+            return false;
+        }
+        SessionView view = (SessionView) session;
+        lock.writeLock().lock();
+        try {
+            int hash = mix(sessionId.hashCode());
+            int slot = findIndexSlot(sessionId, hash);
+            if (slot < 0 || index[slot] - 1 != view.record || !view.isCurrent()) {
+                return false;
+            }
+            index[slot] = DELETED;
+            size--;
+
+            // Retire the record under a new generation so stale views fail their compare-and-set
+            ByteBuffer slab = slab(view.record);
+            int base = offset(view.record);
+            long nextGeneration = (view.generation + (1L << GENERATION_SHIFT)) & GENERATION_MASK;
+            LONGS.setVolatile(slab, base + STATE, nextGeneration);
+            releaseBankRef(slab.getInt(base + BANK_REF));
+            pushFreeRecord(view.record);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<QuizSession> action) {
+        List<SessionView> views = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (int entry : index) {
+                if (entry > 0) {
+                    int record = entry - 1;
+                    long state = (long) LONGS.getVolatile(slab(record), offset(record) + STATE);
+                    views.add(new SessionView(record, state & GENERATION_MASK));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        // Views take the read lock themselves, so the action runs without holding it
+        views.forEach(action);
+    }
+
+    /**
+     * Gets the direct memory reserved for records
+     *
+     * @return the size of all slabs in bytes
+     */
+    public long getReservedBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) slabs.length * slabRecords * RECORD_SIZE;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private ByteBuffer slab(int record) {
+        return slabs[record / slabRecords];
+    }
+
+    private int offset(int record) {
+        return (record % slabRecords) * RECORD_SIZE;
+    }
+
+    private int allocateRecord() {
+        if (freeCount > 0) {
+            int record = freeRecords[freeHead];
+            freeHead = (freeHead + 1) % freeRecords.length;
+            freeCount--;
+            return record;
+        }
+        if (allocatedRecords == slabs.length * slabRecords) {
+            ByteBuffer slab = ByteBuffer.allocateDirect(slabRecords * RECORD_SIZE).order(ByteOrder.nativeOrder());
+            slabs = Arrays.copyOf(slabs, slabs.length + 1);
+            slabs[slabs.length - 1] = slab;
+        }
+        return allocatedRecords++;
+    }
+
+    private void pushFreeRecord(int record) {
+        if (freeCount == freeRecords.length) {
+            int[] grown = new int[freeRecords.length * 2];
+            for (int i = 0; i < freeCount; i++) {
+                grown[i] = freeRecords[(freeHead + i) % freeRecords.length];
+            }
+            freeRecords = grown;
+            freeHead = 0;
+        }
+        freeRecords[(freeHead + freeCount) % freeRecords.length] = record;
+        freeCount++;
+    }
+
+    private int findRecord(String sessionId, int hash) {
+        int slot = findIndexSlot(sessionId, hash);
+        return slot >= 0 ? index[slot] - 1 : -1;
+    }
+
+    private int findIndexSlot(String sessionId, int hash) {
+        int mask = index.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = index[slot];
+            if (entry == EMPTY) {
+                return -1;
+            }
+            if (entry != DELETED && matches(entry - 1, sessionId, hash)) {
+                return slot;
+            }
+        }
+    }
+
+    private boolean matches(int record, String sessionId, int hash) {
+        ByteBuffer slab = slab(record);
+        int base = offset(record);
+        if (slab.getInt(base + ID_HASH) != hash) {
+            return false;
+        }
+        int length = slab.get(base + SESSION_ID_LENGTH) & 0xFF;
+        if (length != sessionId.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (slab.get(base + SESSION_ID + i) != sessionId.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void insertIndex(int hash, int record) {
+        // Keep the table at most half full, counting deleted entries that still lengthen probes
+        if ((indexUsed + 1) * 2 > index.length) {
+            rebuildIndex(size + 1 > index.length / 4 ? index.length * 2 : index.length);
+        }
+        int mask = index.length - 1;
+        int slot = hash & mask;
+        while (index[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = record + 1;
+        indexUsed++;
+    }
+
+    private void rebuildIndex(int capacity) {
+        int[] previous = index;
+        index = new int[capacity];
+        indexUsed = 0;
+        int mask = capacity - 1;
+        for (int entry : previous) {
+            if (entry == EMPTY || entry == DELETED) {
+                continue;
+            }
+            int record = entry - 1;
+            int slot = slab(record).getInt(offset(record) + ID_HASH) & mask;
+            while (index[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            index[slot] = entry;
+            indexUsed++;
+        }
+    }
+
+    private int acquireBankRef(String name, QuestionRepository repository) {
+        Integer existing = bankRefByRepository.get(repository);
+        if (existing != null) {
+            bankRefs.get(existing).sessions++;
+            return existing;
+        }
+        BankRef ref = new BankRef(name, repository);
+        int id;
+        if (!freeBankRefs.isEmpty()) {
+            id = freeBankRefs.pop();
+            bankRefs.set(id, ref);
+        } else {
+            id = bankRefs.size();
+            bankRefs.add(ref);
+        }
+        bankRefByRepository.put(repository, id);
+        return id;
+    }
+
+    private void releaseBankRef(int id) {
+        BankRef ref = bankRefs.get(id);
+        if (--ref.sessions == 0) {
+            // Drop the snapshot so an old catalog version is not kept alive
+            bankRefByRepository.remove(ref.repository);
+            bankRefs.set(id, null);
+            freeBankRefs.push(id);
+        }
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static byte[] encodeSessionId(String sessionId) {
+        if (sessionId.length() > SESSION_ID_CAPACITY) {
+            throw new IllegalArgumentException("Session ID is too long to store off-heap");
+        }
+        byte[] bytes = new byte[sessionId.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            char c = sessionId.charAt(i);
+            if (c > 0x7F) {
+                throw new IllegalArgumentException("Session IDs stored off-heap must be ASCII");
+            }
+            bytes[i] = (byte) c;
+        }
+        return bytes;
+    }
+
+    private static byte[] encode(String value, int capacity, String field) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > capacity) {
+            throw new QuizException(field + " is too long");
+        }
+        return bytes;
+    }
+
+    private static void putBytes(ByteBuffer slab, int lengthOffset, int offset, byte[] bytes) {
+        if (bytes == null) {
+            slab.put(lengthOffset, (byte) NULL_LENGTH);
+            return;
+        }
+        slab.put(lengthOffset, (byte) bytes.length);
+        for (int i = 0; i < bytes.length; i++) {
+            slab.put(offset + i, bytes[i]);
+        }
+    }
+
+    private static String getString(ByteBuffer slab, int lengthOffset, int offset) {
+        int length = slab.get(lengthOffset) & 0xFF;
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = slab.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A question bank snapshot shared by the sessions that were started on it
+     */
+    private static final class BankRef {
+        private final String name;
+        private final QuestionRepository repository;
+        private int sessions = 1;
+
+        private BankRef(String name, QuestionRepository repository) {
+            this.name = name;
+            this.repository = repository;
+        }
+    }
+
+    /**
+     * Session backed by a record. Fields other than the state are decoded when first read, under
+     * the read lock so the record cannot be retired and reused while it is being read.
+     */
+    private final class SessionView extends QuizSession {
+        private final int record;
+        private final long generation;
+        private final ByteBuffer slab;
+        private final int base;
+        private BankRef bankRef;
+        private int[] questionSequence;
+
+        private SessionView(int record, long generation) {
+            this.record = record;
+            this.generation = generation;
+            this.slab = slab(record);
+            this.base = offset(record);
+        }
+
+        private boolean isCurrent() {
+            return (((long) LONGS.getVolatile(slab, base + STATE)) & GENERATION_MASK) == generation;
+        }
+
+        private void checkCurrent() {
+            if (!isCurrent()) {
+                throw new QuizException("Invalid or expired session ID");
+            }
+        }
+
+        @Override
+        public long getState() {
+            long state = (long) LONGS.getVolatile(slab, base + STATE);
+            // A retired record reads as an ended session
+            return (state & GENERATION_MASK) == generation ? state : QuizSession.ended(state);
+        }
+
+        @Override
+        public boolean compareAndSetState(long expected, long updated) {
+            return (expected & GENERATION_MASK) == generation
+                    && LONGS.compareAndSet(slab, base + STATE, expected, updated);
+        }
+
+        @Override
+        public String getSessionId() {
+            lock.readLock().lock();
+            try {
+                checkCurrent();
+                return getString(slab, base + SESSION_ID_LENGTH, base + SESSION_ID);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public String getUserName() {
+            lock.readLock().lock();
+            try {
+                checkCurrent();
+                return getString(slab, base + USER_NAME_LENGTH, base + USER_NAME);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public String getINumber() {
+            lock.readLock().lock();
+            try {
+                checkCurrent();
+                return getString(slab, base + I_NUMBER_LENGTH, base + I_NUMBER);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public String getQuestionBankName() {
+            return bankRef().name;
+        }
+
+        @Override
+        public QuestionRepository getQuestionBank() {
+            return bankRef().repository;
+        }
+
+        @Override
+        public int[] getQuestionSequence() {
+            if (questionSequence == null) {
+                lock.readLock().lock();
+                try {
+                    checkCurrent();
+                    int[] sequence = new int[slab.get(base + SEQUENCE_LENGTH)];
+                    for (int i = 0; i < sequence.length; i++) {
+                        sequence[i] = slab.getInt(base + SEQUENCE + i * Integer.BYTES);
+                    }
+                    questionSequence = sequence;
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+            return questionSequence;
+        }
+
+        @Override
+        public long getQuestionFingerprint() {
+            // The record keeps the bank the session was started on, so the digest is not stored
+            return QuizSession.fingerprint(getQuestionBank(), getQuestionSequence());
+        }
+
+        @Override
+        public long getStartedAt() {
+            return slab.getLong(base + STARTED_AT);
+        }
+
+        @Override
+        public long getEndedAt() {
+            return slab.getLong(base + ENDED_AT);
+        }
+
+        @Override
+        public void setEndedAt(long endedAt) {
+            writeLong(ENDED_AT, endedAt);
+        }
+
+        @Override
+        public long getLastAccessedAt() {
+            return (long) LONGS.getVolatile(slab, base + LAST_ACCESSED_AT);
+        }
+
+        @Override
+        public void setLastAccessedAt(long lastAccessedAt) {
+            writeLong(LAST_ACCESSED_AT, lastAccessedAt);
+        }
+
+        private void writeLong(int field, long value) {
+            lock.readLock().lock();
+            try {
+                if (isCurrent()) {
+                    LONGS.setVolatile(slab, base + field, value);
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private BankRef bankRef() {
+            if (bankRef == null) {
+                lock.readLock().lock();
+                try {
+                    checkCurrent();
+                    bankRef = bankRefs.get(slab.getInt(base + BANK_REF));
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+            return bankRef;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof SessionView && ((SessionView) o).record == record
+                    && ((SessionView) o).generation == generation;
+        }
+
+        @Override
+        public int hashCode() {
+            return record * 31 + (int) (generation >>> GENERATION_SHIFT);
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.quizmaster.repository.impl;
+
+import com.quizmaster.exception.QuizException;
+import com.quizmaster.model.QuizSession;
+import com.quizmaster.repository.QuizSessionStore;
+import com.quizmaster.util.SpentStepSet;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Keeps no sessions at all: the session ID handed to the client is an HMAC-signed token holding
+ * the whole session, and every transition issues a new token for the next step.
+ * <p>
+ * A token can be used for one transition only. Each session has a random key, and the last step
+ * spent per key is kept in a {@link SpentStepSet} for the idle TTL, after which the token has
+ * expired anyway; this is the only state on the server, a few bytes per recently active session.
+ * <p>
+ * That set lives in the memory of one instance, so a token is only accepted by the store that
+ * issued it: every token carries the random epoch the store drew when it was created, and tokens
+ * from another instance or from before a restart are rejected as expired, as they could otherwise
+ * be replayed there. Run this store on a single instance or behind sticky routing; the database
+ * store is the one to use when any instance must serve any session.
+ * <p>
+ * Token layout, base64url encoded: version, issuer epoch, session key, step, state word, started
+ * at, issued at, question sequence, question fingerprint, user name, identification number, bank
+ * name, and the first 16 bytes of the HMAC-SHA256 of everything before it.
+ */
+@Slf4j
+@Repository
+@ConditionalOnProperty(name = "quizmaster.session.store", havingValue = "token")
+public class TokenQuizSessionStore implements QuizSessionStore {
+
+    private static final byte TOKEN_VERSION = 3;
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int MAC_BYTES = 16;
+    // Keeps the token well within the session ID column of the results
+    private static final int MAX_STRING_BYTES = 64;
+    private static final int NULL_LENGTH = 0xFF;
+    private static final String STEP_ALREADY_USED =
+            "This step of the quiz has already been submitted. Please continue with the latest session.";
+
+    private final SecretKeySpec secretKey;
+    private final long idleTtlMs;
+    private final SpentStepSet spentSteps;
+    // Identifies this store and its lifetime, which the spent steps are only valid for
+    private final long epoch;
+    private final ThreadLocal<Mac> macs;
+
+    @Autowired
+    public TokenQuizSessionStore(@Value("${quizmaster.session.token.secret:}") String secret,
+                                 @Value("${quizmaster.session.idle-ttl-ms:1800000}") long idleTtlMs) {
+        byte[] keyBytes;
+        if (secret == null || secret.isEmpty()) {
+            log.info("No quizmaster.session.token.secret set; session tokens are signed with a random key");
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.secretKey = new SecretKeySpec(keyBytes, MAC_ALGORITHM);
+        this.idleTtlMs = idleTtlMs;
+        this.spentSteps = new SpentStepSet(idleTtlMs, System.currentTimeMillis());
+        this.epoch = new SecureRandom().nextLong();
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(MAC_ALGORITHM);
+                mac.init(secretKey);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC-SHA256 is not available", e);
+            }
+        });
+        log.info("Handing quiz sessions to clients as signed tokens accepted by this instance only");
+    }
+
+    /**
+     * Issues the first token of the session and sets it as the session ID
+     */
+    @Override
+    public void save(QuizSession session) {
+        long sessionKey = ThreadLocalRandom.current().nextLong();
+        session.setSessionId(encode(session, sessionKey, 0, session.getState()));
+    }
+
+    /**
+     * Decodes a token into the session it carries
+     *
+     * @return the session, or null if the token is malformed, forged, expired or issued by another
+     *         instance or before a restart
+     * @throws QuizException if the token was already used for a transition
+     */
+    @Override
+    public QuizSession find(String sessionId) {
+        byte[] token;
+        try {
+            token = Base64.getUrlDecoder().decode(sessionId);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (token.length <= MAC_BYTES || token[0] != TOKEN_VERSION || !hasValidMac(token)) {
+            return null;
+        }
+
+        TokenSession session;
+        try {
+            ByteBuffer in = ByteBuffer.wrap(token, 1, token.length - 1 - MAC_BYTES);
+            // Another store has not seen which steps of this token were spent
+            if (in.getLong() != epoch) {
+                return null;
+            }
+            session = decode(in, sessionId);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            return null;
+        }
+        if (session.getLastAccessedAt() + idleTtlMs <= System.currentTimeMillis()) {
+            return null;
+        }
+        if (spentSteps.lastSpent(session.sessionKey) >= session.step) {
+            throw new QuizException(STEP_ALREADY_USED);
+        }
+        return session;
+    }
+
+    @Override
+    public boolean remove(String sessionId, QuizSession session) {
+        return false;
+    }
+
+    /**
+     * Gets the number of sessions with a transition within the idle TTL, roughly
+     */
+    @Override
+    public int size() {
+        return spentSteps.size();
+    }
+
+    @Override
+    public boolean holdsSessions() {
+        return false;
+    }
+
+    @Override
+    public void forEach(Consumer<QuizSession> action) {
+        // Sessions are held by the clients
+    }
+
+    private String encode(QuizSession session, long sessionKey, int step, long state) {
+        byte[] userName = encodeString(session.getUserName(), "User name");
+        byte[] iNumber = encodeString(session.getINumber(), "Identification Number");
+        byte[] bankName = encodeString(session.getQuestionBankName(), "Question bank name");
+        int[] sequence = session.getQuestionSequence();
+
+        int length = 1 + 2 * Long.BYTES + Integer.BYTES + 3 * Long.BYTES + 1 + sequence.length * Integer.BYTES
+                + Long.BYTES + 3 + length(userName) + length(iNumber) + length(bankName);
+        ByteBuffer out = ByteBuffer.allocate(length + MAC_BYTES);
+        out.put(TOKEN_VERSION);
+        out.putLong(epoch);
+        out.putLong(sessionKey);
+        out.putInt(step);
+        out.putLong(state);
+        out.putLong(session.getStartedAt());
+        out.putLong(session.getLastAccessedAt());
+        out.put((byte) sequence.length);
+        for (int position : sequence) {
+            out.putInt(position);
+        }
+        out.putLong(session.getQuestionFingerprint());
+        putString(out, userName);
+        putString(out, iNumber);
+        putString(out, bankName);
+
+        Mac mac = macs.get();
+        mac.update(out.array(), 0, length);
+        out.put(mac.doFinal(), 0, MAC_BYTES);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(out.array());
+    }
+
+    private TokenSession decode(ByteBuffer in, String token) {
+        long sessionKey = in.getLong();
+        int step = in.getInt();
+        long state = in.getLong();
+        long startedAt = in.getLong();
+        long issuedAt = in.getLong();
+        int[] sequence = new int[in.get() & 0xFF];
+        if (sequence.length > QuizSession.MAX_SLOTS) {
+            throw new IllegalArgumentException("Question sequence too long");
+        }
+        for (int i = 0; i < sequence.length; i++) {
+            sequence[i] = in.getInt();
+        }
+        long fingerprint = in.getLong();
+
+        TokenSession session = new TokenSession(sessionKey, step);
+        session.setSessionId(token);
+        session.setUserName(getString(in));
+        session.setINumber(getString(in));
+        session.setQuestionBankName(getString(in));
+        session.setQuestionSequence(sequence);
+        session.setQuestionFingerprint(fingerprint);
+        session.setStartedAt(startedAt);
+        session.setLastAccessedAt(issuedAt);
+        session.initState(state);
+        return session;
+    }
+
+    private boolean hasValidMac(byte[] token) {
+        Mac mac = macs.get();
+        mac.update(token, 0, token.length - MAC_BYTES);
+        byte[] expected = mac.doFinal();
+        return MessageDigest.isEqual(Arrays.copyOf(expected, MAC_BYTES),
+                Arrays.copyOfRange(token, token.length - MAC_BYTES, token.length));
+    }
+
+    private static byte[] encodeString(String value, String field) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new QuizException(field + " is too long");
+        }
+        return bytes;
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes != null ? bytes.length : 0;
+    }
+
+    private static void putString(ByteBuffer out, byte[] bytes) {
+        if (bytes == null) {
+            out.put((byte) NULL_LENGTH);
+            return;
+        }
+        out.put((byte) bytes.length);
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.get() & 0xFF;
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Session decoded from a token. A transition spends the token's step and replaces the session
+     * ID with the token for the next step.
+     */
+    private final class TokenSession extends QuizSession {
+
+        private final long sessionKey;
+        private int step;
+
+        TokenSession(long sessionKey, int step) {
+            this.sessionKey = sessionKey;
+            this.step = step;
+        }
+
+        void initState(long state) {
+            super.compareAndSetState(getState(), state);
+        }
+
+        @Override
+        public boolean compareAndSetState(long expected, long updated) {
+            if (getState() != expected) {
+                return false;
+            }
+            if (!spentSteps.spend(sessionKey, step, System.currentTimeMillis())) {
+                throw new QuizException(STEP_ALREADY_USED);
+            }
+            super.compareAndSetState(expected, updated);
+            step++;
+            setSessionId(encode(this, sessionKey, step, updated));
+            return true;
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.quizmaster.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.quizmaster.model.dto.LeaderboardUpdate;
+import com.quizmaster.model.dto.LeaderboardView;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams the top of the leaderboard to every subscriber as server-sent events: a snapshot on
+ * subscribing, then diffs holding only the changed rows.
+ * <p>
+ * Changes are picked up from the results version at most once per interval, so a burst of saved
+ * results becomes one diff, which is computed and serialized once for all subscribers. Each
+ * subscriber has a bounded queue of pending events drained by a small shared pool of sender
+ * threads. A subscriber whose queue is full is dropped rather than buffered without bound; a
+ * diff is meaningless once one is missed, so its EventSource reconnects and starts over with a
+ * snapshot.
+ * <p>
+ * Sends block while the client does not read, until the container's write timeout. A send still
+ * running after send-timeout-ms drops its subscriber, and the pool gets a thread in place of the
+ * stuck one until the send returns, so stalled clients cannot hold up the others.
+ */
+@Service
+@Slf4j
+public class LeaderboardBroadcaster {
+
+    private static final long HEARTBEAT_MS = 15000;
+    private static final long EMITTER_TIMEOUT_MS = 1800000;
+    // Threads added in place of senders stuck on stalled clients, at most
+    private static final int MAX_REPLACEMENT_SENDERS = 64;
+
+    private final QuizRankingService quizRankingService;
+    private final ObjectWriter writer;
+    private final int topSize;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final int senderThreads;
+    private final long sendTimeoutMs;
+    private final ThreadPoolExecutor senders;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // Subscribers with a send in progress, including dropped ones
+    private final Set<Subscriber> sending = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger droppedSubscribers = new AtomicInteger();
+    // Guarded by senders
+    private int replacementSenders;
+
+    // State the subscribers hold, as of the last event; guarded by this
+    private List<LeaderboardUpdate.Row> lastRows;
+    private String lastSnapshot;
+    private long lastVersion = -1;
+    private long lastSentAt;
+
+    @Autowired
+    public LeaderboardBroadcaster(@Qualifier("jpaQuizRankingService") QuizRankingService quizRankingService,
+                                  ObjectMapper objectMapper,
+                                  @Value("${quizmaster.ranking.live.top:15}") int topSize,
+                                  @Value("${quizmaster.ranking.live.buffer-size:16}") int bufferSize,
+                                  @Value("${quizmaster.ranking.live.max-subscribers:5000}") int maxSubscribers,
+                                  @Value("${quizmaster.ranking.live.sender-threads:4}") int senderThreads,
+                                  @Value("${quizmaster.ranking.live.send-timeout-ms:5000}") long sendTimeoutMs) {
+        this.quizRankingService = quizRankingService;
+        // Event data must stay on one line
+        this.writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.topSize = topSize;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.senderThreads = senderThreads;
+        this.sendTimeoutMs = sendTimeoutMs;
+        AtomicInteger threads = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "leaderboard-sender-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    SseEmitter createEmitter() {
+        return new SseEmitter(EMITTER_TIMEOUT_MS);
+    }
+
+    /**
+     * Adds a subscriber and queues the current snapshot for it
+     *
+     * @return the emitter of the stream, or null if the subscriber limit is reached
+     */
+    public SseEmitter subscribe() {
+        synchronized (this) {
+            // Checked under the lock, so concurrent subscribes cannot all pass it before any is added
+            if (subscribers.size() >= maxSubscribers) {
+                return null;
+            }
+            SseEmitter emitter = createEmitter();
+            Subscriber subscriber = new Subscriber(emitter);
+            emitter.onCompletion(() -> subscribers.remove(subscriber));
+            emitter.onTimeout(() -> subscribers.remove(subscriber));
+            emitter.onError(e -> subscribers.remove(subscriber));
+
+            if (lastSnapshot == null) {
+                // Nobody is subscribed yet, so there is nobody to send a diff to
+                LeaderboardView view = quizRankingService.getLeaderboardView(topSize, null);
+                remember(view);
+            }
+            // Added while holding the lock, so no diff falls between the snapshot and the next one
+            subscribers.add(subscriber);
+            subscriber.offer("snapshot", lastSnapshot);
+            return emitter;
+        }
+    }
+
+    /**
+     * Sends a diff to every subscriber when the results changed since the last event, or a
+     * heartbeat when nothing was sent for a while
+     */
+    @Scheduled(fixedDelayString = "${quizmaster.ranking.live.interval-ms:1000}")
+    public void broadcastChanges() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        long version = quizRankingService.getResultsVersion();
+        synchronized (this) {
+            if (version != lastVersion) {
+                LeaderboardView view = quizRankingService.getLeaderboardView(topSize, null);
+                String diff = serialize(LeaderboardUpdate.diff(lastRows, view));
+                remember(view);
+                publish("diff", diff);
+            } else if (System.currentTimeMillis() - lastSentAt >= HEARTBEAT_MS) {
+                // A comment keeps proxies from closing the idle stream and finds dead clients
+                publish(null, "heartbeat");
+            }
+        }
+    }
+
+    /**
+     * Drops the subscribers whose send has been running for longer than the send timeout
+     */
+    @Scheduled(fixedDelayString = "${quizmaster.ranking.live.interval-ms:1000}")
+    public void dropStalledSubscribers() {
+        dropStalledSubscribers(System.currentTimeMillis());
+    }
+
+    public void dropStalledSubscribers(long nowMillis) {
+        for (Subscriber subscriber : sending) {
+            // Locked so the send cannot finish between the check and the replacement
+            synchronized (subscriber) {
+                long startedAt = subscriber.sendStartedAt;
+                if (startedAt > 0 && nowMillis - startedAt >= sendTimeoutMs && !subscriber.replaced) {
+                    subscriber.drop();
+                    subscriber.replaced = resizeSenders(1);
+                }
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public int getDroppedSubscriberCount() {
+        return droppedSubscribers.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        senders.shutdownNow();
+    }
+
+    /**
+     * Adds or removes a thread standing in for a sender stuck on a stalled client
+     *
+     * @return whether the pool was resized
+     */
+    private boolean resizeSenders(int delta) {
+        synchronized (senders) {
+            if (delta > 0 && replacementSenders >= MAX_REPLACEMENT_SENDERS) {
+                return false;
+            }
+            replacementSenders += delta;
+            int size = senderThreads + replacementSenders;
+            // The core size may never exceed the maximum, so the order depends on the direction
+            if (delta > 0) {
+                senders.setMaximumPoolSize(size);
+                senders.setCorePoolSize(size);
+            } else {
+                senders.setCorePoolSize(size);
+                senders.setMaximumPoolSize(size);
+            }
+            return true;
+        }
+    }
+
+    // Called with the lock held
+    private void remember(LeaderboardView view) {
+        lastRows = LeaderboardUpdate.rows(view);
+        lastSnapshot = serialize(LeaderboardUpdate.snapshot(view));
+        lastVersion = view.getVersion();
+    }
+
+    // Called with the lock held
+    private void publish(String name, String data) {
+        lastSentAt = System.currentTimeMillis();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(name, data);
+        }
+    }
+
+    private String serialize(LeaderboardUpdate update) {
+        try {
+            return writer.writeValueAsString(update);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the leaderboard update", e);
+        }
+    }
+
+    /**
+     * Event waiting to be sent; a null name marks a comment
+     */
+    private static final class Event {
+
+        final String name;
+        final String data;
+
+        Event(String name, String data) {
+            this.name = name;
+            this.data = data;
+        }
+    }
+
+    private final class Subscriber {
+
+        final SseEmitter emitter;
+        final BlockingQueue<Event> pending = new ArrayBlockingQueue<>(bufferSize);
+        final AtomicBoolean draining = new AtomicBoolean();
+        // When the send in progress started, or 0
+        volatile long sendStartedAt;
+        volatile boolean dropped;
+        // Whether a thread was added in place of the one stuck in the send; guarded by this
+        boolean replaced;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(String name, String data) {
+            if (!pending.offer(new Event(name, data))) {
+                drop();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        void drain() {
+            try {
+                while (true) {
+                    Event event;
+                    while (!dropped && (event = pending.poll()) != null) {
+                        send(event);
+                    }
+                    if (dropped) {
+                        // Completing waits for a send in progress, so the drain that made it completes
+                        emitter.complete();
+                        return;
+                    }
+                    draining.set(false);
+                    // Stop unless an event arrived or the subscriber was dropped after the queue was found
+                    // empty, and no other drain took it
+                    if ((pending.isEmpty() && !dropped) || !draining.compareAndSet(false, true)) {
+                        return;
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Leaderboard subscriber went away: {}", e.getMessage());
+                subscribers.remove(this);
+                pending.clear();
+                emitter.completeWithError(e);
+            }
+        }
+
+        private void send(Event event) throws IOException {
+            sending.add(this);
+            sendStartedAt = System.currentTimeMillis();
+            try {
+                emitter.send(event.name == null
+                        ? SseEmitter.event().comment(event.data)
+                        : SseEmitter.event().name(event.name).data(event.data));
+            } finally {
+                synchronized (this) {
+                    sendStartedAt = 0;
+                    if (replaced) {
+                        replaced = false;
+                        resizeSenders(-1);
+                    }
+                }
+                sending.remove(this);
+            }
+        }
+
+        void drop() {
+            if (subscribers.remove(this)) {
+                droppedSubscribers.incrementAndGet();
+                log.debug("Dropping a leaderboard subscriber with {} events pending", pending.size());
+                dropped = true;
+                pending.clear();
+                // A drain in progress completes the emitter once its send returns
+                if (draining.compareAndSet(false, true)) {
+                    senders.execute(this::drain);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.quizmaster.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quizmaster.model.dto.LeaderboardView;
+import com.quizmaster.model.dto.RankingListResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the serialized REST leaderboards of the current results version, so screens polling an
+ * unchanged leaderboard are answered from memory, and gives the ETag of that version.
+ * <p>
+ * All entries belong to one version and are dropped together once a later version is served.
+ * Entries are kept per limit and user, at most {@link #MAX_ENTRIES} of them per version.
+ */
+@Service
+public class LeaderboardCache {
+
+    private static final int MAX_ENTRIES = 256;
+
+    private final QuizRankingService quizRankingService;
+    private final ObjectMapper objectMapper;
+    // Keeps ETags handed out before a restart from matching the versions of this run
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private volatile Generation generation = new Generation(-1);
+
+    @Autowired
+    public LeaderboardCache(@Qualifier("jpaQuizRankingService") QuizRankingService quizRankingService,
+                            ObjectMapper objectMapper) {
+        this.quizRankingService = quizRankingService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Gets the ETag of the current results version, without looking at the results
+     *
+     * @return the quoted ETag
+     */
+    public String currentETag() {
+        return eTag(quizRankingService.getResultsVersion());
+    }
+
+    /**
+     * Gets the serialized leaderboard, from the cache while the results are unchanged
+     *
+     * @param limit maximum number of top results
+     * @param userName the user whose ranking is included, or null
+     * @return the leaderboard and the ETag of the version it shows
+     */
+    public CachedLeaderboard getLeaderboard(int limit, String userName) {
+        String key = limit + ":" + (userName != null ? userName : "");
+        Generation current = generation;
+        if (current.version == quizRankingService.getResultsVersion()) {
+            CachedLeaderboard cached = current.entries.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        LeaderboardView view = quizRankingService.getLeaderboardView(limit, userName);
+        CachedLeaderboard leaderboard = new CachedLeaderboard(eTag(view.getVersion()), serialize(view));
+        current = generationFor(view.getVersion());
+        if (current != null && current.entries.size() < MAX_ENTRIES) {
+            current.entries.putIfAbsent(key, leaderboard);
+        }
+        return leaderboard;
+    }
+
+    /**
+     * Gets the generation of a version, starting it if the version is newer than the current one
+     *
+     * @return the generation, or null if the version is already outdated
+     */
+    private synchronized Generation generationFor(long version) {
+        if (generation.version < version) {
+            generation = new Generation(version);
+        }
+        return generation.version == version ? generation : null;
+    }
+
+    private byte[] serialize(LeaderboardView view) {
+        RankingListResponse response = RankingListResponse.builder()
+                .rankings(view.getRankings())
+                .totalParticipants(view.getTotalParticipants())
+                .userRanking(view.getUserRanking())
+                .generatedAt(view.getGeneratedAt())
+                .build();
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the leaderboard", e);
+        }
+    }
+
+    private String eTag(long version) {
+        return "\"" + epoch + "-" + version + "\"";
+    }
+
+    private static final class Generation {
+
+        final long version;
+        final Map<String, CachedLeaderboard> entries = new ConcurrentHashMap<>();
+
+        Generation(long version) {
+            this.version = version;
+        }
+    }
+
+    /**
+     * Serialized leaderboard and the ETag of the results version it shows
+     */
+    public static final class CachedLeaderboard {
+
+        private final String eTag;
+        private final byte[] body;
+
+        CachedLeaderboard(String eTag, byte[] body) {
+            this.eTag = eTag;
+            this.body = body;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+    }
+}
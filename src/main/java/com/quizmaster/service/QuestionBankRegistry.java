@@ -0,0 +1,35 @@
+package com.quizmaster.service;
+
+import com.quizmaster.repository.QuestionRepository;
+
+import java.util.Set;
+
+/**
+ * Registry of the named question banks configured next to the default catalog.
+ * Banks are loaded on first use and evicted again when they go cold.
+ */
+public interface QuestionBankRegistry {
+
+    /**
+     * Gets a named question bank, loading it if it is not resident
+     *
+     * @param name the bank name
+     * @return the questions of the bank
+     * @throws com.quizmaster.exception.QuizException if no bank has this name or it cannot be loaded
+     */
+    QuestionRepository getBank(String name);
+
+    /**
+     * Gets the names of all configured banks
+     *
+     * @return the configured bank names
+     */
+    Set<String> getBankNames();
+
+    /**
+     * Gets the names of the banks currently held in memory, least recently used first
+     *
+     * @return the resident bank names
+     */
+    Set<String> getResidentBankNames();
+}
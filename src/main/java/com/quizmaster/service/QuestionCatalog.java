@@ -0,0 +1,78 @@
+package com.quizmaster.service;
+
+import com.quizmaster.model.Question;
+import com.quizmaster.repository.QuestionRepository;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * In-memory catalog of quiz questions, shared by the quiz engine and the question editor.
+ * Holds an immutable snapshot of the question bank so the quiz hot path never touches the disk;
+ * every edit publishes a complete new snapshot under the next version. Edits are durable when
+ * these methods return, but may reach the underlying source later.
+ */
+public interface QuestionCatalog {
+
+    /**
+     * Gets the questions of the current snapshot
+     *
+     * @return an unmodifiable list of questions
+     */
+    List<Question> getQuestions();
+
+    /**
+     * Gets the indexed repository of the current snapshot for constant-time lookups
+     *
+     * @return the question repository of the current snapshot
+     */
+    QuestionRepository getQuestionRepository();
+
+    /**
+     * Gets the version of the current snapshot, incremented on every successful reload
+     *
+     * @return the snapshot version
+     */
+    long getVersion();
+
+    /**
+     * Reloads the question bank if its source has changed since the last load
+     *
+     * @return true if a new snapshot was published, false otherwise
+     */
+    boolean reloadIfChanged();
+
+    /**
+     * Adds a question with the next free numeric ID and publishes a new snapshot
+     *
+     * @param question the question to add, its ID is ignored
+     * @return the added question with its assigned ID
+     * @throws IOException if the edit cannot be recorded
+     */
+    Question addQuestion(Question question) throws IOException;
+
+    /**
+     * Replaces the question with the same ID and publishes a new snapshot
+     *
+     * @param question the updated question
+     * @return the updated question
+     * @throws IOException if the edit cannot be recorded
+     */
+    Question updateQuestion(Question question) throws IOException;
+
+    /**
+     * Removes a question and publishes a new snapshot
+     *
+     * @param id the ID of the question to remove
+     * @return true if the question existed, false otherwise
+     * @throws IOException if the edit cannot be recorded
+     */
+    boolean deleteQuestion(String id) throws IOException;
+
+    /**
+     * Writes the current snapshot back to its source immediately, including pending edits
+     *
+     * @throws IOException if the question bank cannot be saved
+     */
+    void save() throws IOException;
+}
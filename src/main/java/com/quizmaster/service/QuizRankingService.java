@@ -1,6 +1,7 @@
 package com.quizmaster.service;
 
 import com.quizmaster.model.QuizResult;
+import com.quizmaster.model.dto.LeaderboardView;
 import com.quizmaster.model.dto.RankingResponse;
 
 import java.io.IOException;
@@ -34,6 +35,39 @@ public interface QuizRankingService {
      */
     RankingResponse getUserRanking(String userName);
     
+    /**
+     * Gets the top results, the number of results and optionally a user's ranking, all from
+     * the same snapshot of the results
+     * 
+     * @param limit maximum number of top results to return
+     * @param userName the user's name, or null for no user ranking
+     * @return the leaderboard view
+     */
+    LeaderboardView getLeaderboardView(int limit, String userName);
+    
+    /**
+     * Gets the results ranked around a user's best result
+     * 
+     * @param userName the user's name
+     * @param radius number of results to include on each side of the user's best result
+     * @return list of quiz results ordered by score, empty if the user has no results
+     */
+    List<QuizResult> getResultsAround(String userName, int radius);
+    
+    /**
+     * Gets the version of the results, which increases with every save, delete or clear
+     * 
+     * @return the results version
+     */
+    long getResultsVersion();
+    
+    /**
+     * Gets the number of results
+     * 
+     * @return the number of quiz results
+     */
+    int getResultCount();
+    
     /**
      * Saves a quiz result
      * 
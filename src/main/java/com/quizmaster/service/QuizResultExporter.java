@@ -4,6 +4,7 @@ import com.quizmaster.model.QuizResult;
 import com.quizmaster.service.impl.ExcelQuizResultExporterImpl.ExportTrigger;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Interface for exporting and importing quiz results
@@ -18,11 +19,11 @@ public interface QuizResultExporter {
     void exportResults(List<QuizResult> results);
     
     /**
-     * Import quiz results from external storage (e.g., Excel)
+     * Import quiz results from external storage (e.g., Excel) one at a time
      * 
-     * @return List of imported quiz results
+     * @param consumer Receives each imported quiz result
      */
-    List<QuizResult> importResults();
+    void importResults(Consumer<QuizResult> consumer);
     
     /**
      * Export quiz results to external storage with a specific trigger type
@@ -30,6 +30,24 @@ public interface QuizService {
      */
     ValidateAnswerResponse validateAnswer(ValidateAnswerRequest request);
     
+    /**
+     * Validate the user's answer and, once the question is completed, serve the next question
+     * in the same step
+     * 
+     * @param request The validate answer request containing session ID, question ID, and answer
+     * @return The validation response, with the next question when one was served
+     */
+    ValidateAnswerResponse answerQuestion(ValidateAnswerRequest request);
+    
+    /**
+     * Get all questions drawn for a quiz session at once, without correctness data, so a client
+     * can show each question without waiting for it. Answers are still checked one at a time.
+     * 
+     * @param sessionId The session ID of the user
+     * @return The session's questions as UTF-8 JSON
+     */
+    byte[] prefetchQuestions(String sessionId);
+    
     /**
      * Get the current score for a user's quiz session
      * 
@@ -47,4 +65,11 @@ public interface QuizService {
     EndQuizResponse endQuiz(String sessionId);
 
     String getSessionUserName(String sessionId);
+
+    /**
+     * Get counters for the sessions held in memory
+     *
+     * @return live sessions, the session cap and eviction counts
+     */
+    SessionStatsResponse getSessionStats();
 }
@@ -0,0 +1,250 @@
+package com.quizmaster.service.impl;
+
+import com.quizmaster.exception.QuizException;
+import com.quizmaster.model.Option;
+import com.quizmaster.model.Question;
+import com.quizmaster.repository.QuestionRepository;
+import com.quizmaster.repository.impl.IndexedQuestionRepository;
+import com.quizmaster.repository.impl.JpaQuestionStore;
+import com.quizmaster.repository.impl.JpaQuestionStore.VersionedQuestions;
+import com.quizmaster.service.QuestionCatalog;
+import com.quizmaster.util.ExcelQuestionLoader;
+import com.quizmaster.util.ExcelQuestionWriter;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Question catalog backed by the database, for deployments with several instances.
+ * The database is the system of record and its bank version is polled so every node
+ * refreshes its in-memory snapshot after an edit made on any node. The questions
+ * workbook is only used to seed an empty database and as an export format.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "questions.store", havingValue = "database")
+public class DatabaseQuestionCatalog implements QuestionCatalog {
+
+    private static final int MAX_INSERT_ATTEMPTS = 3;
+
+    private final JpaQuestionStore questionStore;
+    private final ExcelQuestionLoader questionLoader;
+    private final ExcelQuestionWriter questionWriter;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    @Value("${questions.reload.enabled:true}")
+    private boolean reloadEnabled = true;
+
+    @Autowired
+    public DatabaseQuestionCatalog(JpaQuestionStore questionStore, ExcelQuestionLoader questionLoader,
+                                   ExcelQuestionWriter questionWriter) {
+        this.questionStore = questionStore;
+        this.questionLoader = questionLoader;
+        this.questionWriter = questionWriter;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (questionStore.getVersion() < 0 && questionStore.findAllIds().isEmpty()) {
+            log.info("Question database is empty, importing questions from Excel");
+            importFromExcel();
+        } else {
+            reload();
+        }
+    }
+
+    @Override
+    public List<Question> getQuestions() {
+        return current().repository.findAll();
+    }
+
+    @Override
+    public QuestionRepository getQuestionRepository() {
+        return current().repository;
+    }
+
+    @Override
+    public long getVersion() {
+        return current().version;
+    }
+
+    @Override
+    public synchronized boolean reloadIfChanged() {
+        Snapshot loaded = snapshot.get();
+        if (loaded != null && loaded.version == questionStore.getVersion()) {
+            return false;
+        }
+        reload();
+        return true;
+    }
+
+    @Override
+    public synchronized Question addQuestion(Question question) {
+        Question added = copyOf(question);
+        questionLoader.validateQuestion(added);
+
+        // Another node may take the same ID between reading the IDs and inserting, so retry
+        for (int attempt = 1; ; attempt++) {
+            added.setId(String.valueOf(nextId(questionStore.findAllIds())));
+            try {
+                questionStore.insert(added);
+                break;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= MAX_INSERT_ATTEMPTS) {
+                    throw new QuizException("Could not assign an ID to the new question", e);
+                }
+            }
+        }
+
+        reload();
+        return copyOf(added);
+    }
+
+    @Override
+    public synchronized Question updateQuestion(Question question) {
+        Question updated = copyOf(question);
+        questionLoader.validateQuestion(updated);
+        if (questionStore.update(updated) < 0) {
+            throw new QuizException("Question not found: " + question.getId());
+        }
+
+        reload();
+        return copyOf(updated);
+    }
+
+    @Override
+    public synchronized boolean deleteQuestion(String id) {
+        QuestionRepository repository = current().repository;
+        if (repository.count() == 1 && repository.indexOf(id) == 0) {
+            throw new QuizException("The question bank must contain at least one question");
+        }
+        if (questionStore.delete(id) < 0) {
+            return false;
+        }
+
+        reload();
+        return true;
+    }
+
+    /**
+     * Exports the current snapshot to the questions workbook
+     */
+    @Override
+    public void save() throws IOException {
+        File target = questionLoader.getQuestionsFile();
+        if (target == null) {
+            throw new IOException("Questions are not backed by a writable file");
+        }
+        List<Question> questions = getQuestions();
+        questionWriter.writeQuestions(target, questions);
+        log.info("Exported {} questions to Excel file", questions.size());
+    }
+
+    /**
+     * Replaces the questions in the database with the contents of the questions workbook
+     */
+    public synchronized void importFromExcel() {
+        List<Question> questions = questionLoader.loadQuestions();
+        questionStore.replaceAll(questions);
+        log.info("Imported {} questions from Excel into the database", questions.size());
+        reload();
+    }
+
+    /**
+     * Polls the bank version so edits made on other nodes are picked up
+     */
+    @Scheduled(fixedDelayString = "${questions.reload-interval-ms:5000}")
+    public void pollForChanges() {
+        if (!reloadEnabled) {
+            return;
+        }
+        try {
+            reloadIfChanged();
+        } catch (Exception e) {
+            log.error("Failed to reload questions, keeping snapshot version {}", getVersion(), e);
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot.get();
+                if (current == null) {
+                    current = reload();
+                }
+            }
+        }
+        return current;
+    }
+
+    private synchronized Snapshot reload() {
+        VersionedQuestions loaded = questionStore.loadAll();
+        if (loaded.getQuestions().isEmpty()) {
+            throw new QuizException("No questions found in the database");
+        }
+
+        Snapshot published = new Snapshot(new IndexedQuestionRepository(loaded.getQuestions()), loaded.getVersion());
+        snapshot.set(published);
+
+        log.info("Loaded {} questions into catalog (version {})", published.repository.count(), published.version);
+        return published;
+    }
+
+    private static int nextId(List<String> ids) {
+        int maxId = 0;
+        for (String id : ids) {
+            try {
+                maxId = Math.max(maxId, Integer.parseInt(id));
+            } catch (NumberFormatException e) {
+                // Non-numeric IDs do not take part in numbering
+            }
+        }
+        return maxId + 1;
+    }
+
+    /**
+     * Copies a question so snapshots never share mutable instances with callers
+     */
+    private static Question copyOf(Question question) {
+        List<Option> options = new ArrayList<>();
+        if (question.getOptions() != null) {
+            for (Option option : question.getOptions()) {
+                options.add(Option.builder()
+                        .id(option.getId())
+                        .text(option.getText())
+                        .correct(option.isCorrect())
+                        .build());
+            }
+        }
+        return Question.builder()
+                .id(question.getId())
+                .text(question.getText())
+                .options(options)
+                .build();
+    }
+
+    /**
+     * Immutable view of the question bank at one database version
+     */
+    private static final class Snapshot {
+        private final QuestionRepository repository;
+        private final long version;
+
+        private Snapshot(QuestionRepository repository, long version) {
+            this.repository = repository;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,420 @@
+package com.quizmaster.service.impl;
+
+import com.quizmaster.exception.QuizException;
+import com.quizmaster.model.Option;
+import com.quizmaster.model.Question;
+import com.quizmaster.repository.QuestionRepository;
+import com.quizmaster.repository.impl.IndexedQuestionRepository;
+import com.quizmaster.service.QuestionCatalog;
+import com.quizmaster.util.ExcelQuestionLoader;
+import com.quizmaster.util.ExcelQuestionWriter;
+import com.quizmaster.util.QuestionEditJournal;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Question catalog backed by the questions Excel file.
+ * The workbook is parsed once at startup and re-parsed only when the file's
+ * modification time or size changes; readers always see a complete snapshot.
+ * Edits are serialized, fsynced to a small journal and published as a new
+ * copy-on-write snapshot, so readers never block and never see a half-applied edit.
+ * A write-behind flusher coalesces pending edits into one atomic workbook rewrite
+ * once edits pause, and the journal is replayed on startup if a flush never happened.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "questions.store", havingValue = "excel", matchIfMissing = true)
+public class ExcelQuestionCatalog implements QuestionCatalog {
+
+    private final ExcelQuestionLoader questionLoader;
+    private final ExcelQuestionWriter questionWriter;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final Object flushLock = new Object();
+
+    @Value("${questions.reload.enabled:true}")
+    private boolean reloadEnabled = true;
+
+    @Value("${questions.write-behind.debounce-ms:1000}")
+    private long flushDebounceMs = 1000;
+
+    @Value("${questions.write-behind.max-delay-ms:10000}")
+    private long flushMaxDelayMs = 10000;
+
+    // Guarded by this
+    private QuestionEditJournal journal;
+    private long editCount;
+    private long flushedEditCount;
+    private long firstPendingEditAt;
+    private long lastEditAt;
+
+    @Autowired
+    public ExcelQuestionCatalog(ExcelQuestionLoader questionLoader, ExcelQuestionWriter questionWriter) {
+        this.questionLoader = questionLoader;
+        this.questionWriter = questionWriter;
+    }
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Failed to flush pending question edits on shutdown, they remain in the journal", e);
+        }
+        synchronized (this) {
+            if (journal != null) {
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    log.warn("Failed to close question edit journal", e);
+                }
+                journal = null;
+            }
+        }
+    }
+
+    @Override
+    public List<Question> getQuestions() {
+        return current().repository.findAll();
+    }
+
+    @Override
+    public QuestionRepository getQuestionRepository() {
+        return current().repository;
+    }
+
+    @Override
+    public long getVersion() {
+        return current().version;
+    }
+
+    @Override
+    public synchronized boolean reloadIfChanged() {
+        // Never replace edits that have not reached the workbook yet
+        if (hasPendingEdits()) {
+            return false;
+        }
+        Snapshot loaded = snapshot.get();
+        if (loaded != null && loaded.matches(questionLoader.getExternalFile())) {
+            return false;
+        }
+        reload();
+        return true;
+    }
+
+    @Override
+    public synchronized Question addQuestion(Question question) throws IOException {
+        List<Question> questions = new ArrayList<>(current().repository.findAll());
+        Question added = copyOf(question);
+        added.setId(String.valueOf(nextId(questions)));
+        questionLoader.validateQuestion(added);
+        questions.add(added);
+
+        journal().appendUpsert(added);
+        publish(questions);
+        return copyOf(added);
+    }
+
+    @Override
+    public synchronized Question updateQuestion(Question question) throws IOException {
+        QuestionRepository repository = current().repository;
+        int index = repository.indexOf(question.getId());
+        if (index < 0) {
+            throw new QuizException("Question not found: " + question.getId());
+        }
+
+        Question updated = copyOf(question);
+        questionLoader.validateQuestion(updated);
+        List<Question> questions = new ArrayList<>(repository.findAll());
+        questions.set(index, updated);
+
+        journal().appendUpsert(updated);
+        publish(questions);
+        return copyOf(updated);
+    }
+
+    @Override
+    public synchronized boolean deleteQuestion(String id) throws IOException {
+        QuestionRepository repository = current().repository;
+        int index = repository.indexOf(id);
+        if (index < 0) {
+            return false;
+        }
+
+        List<Question> questions = new ArrayList<>(repository.findAll());
+        questions.remove(index);
+        if (questions.isEmpty()) {
+            throw new QuizException("The question bank must contain at least one question");
+        }
+
+        journal().appendDelete(id);
+        publish(questions);
+        return true;
+    }
+
+    @Override
+    public void save() throws IOException {
+        synchronized (flushLock) {
+            synchronized (this) {
+                // Force a rewrite even when nothing is pending
+                if (!hasPendingEdits()) {
+                    editCount++;
+                }
+            }
+            flush();
+        }
+    }
+
+    /**
+     * Writes pending edits to the workbook once edits have paused for the debounce delay,
+     * or once the oldest pending edit has waited for the maximum delay
+     */
+    @Scheduled(fixedDelayString = "${questions.write-behind.check-interval-ms:250}")
+    public void flushIfDue() {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            if (!hasPendingEdits()) {
+                return;
+            }
+            if (now - lastEditAt < flushDebounceMs && now - firstPendingEditAt < flushMaxDelayMs) {
+                return;
+            }
+        }
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Failed to write pending question edits, will retry", e);
+        }
+    }
+
+    /**
+     * Writes the current snapshot to the workbook in one atomic rewrite and clears the journal
+     *
+     * @throws IOException if the workbook cannot be written
+     */
+    public void flush() throws IOException {
+        synchronized (flushLock) {
+            List<Question> questions;
+            long flushingEditCount;
+            File target;
+            synchronized (this) {
+                if (!hasPendingEdits()) {
+                    return;
+                }
+                questions = current().repository.findAll();
+                flushingEditCount = editCount;
+                target = questionsFile();
+            }
+
+            // The slow part runs without the catalog lock, so edits and reads carry on meanwhile
+            questionWriter.writeQuestions(target, questions);
+            try {
+                questionLoader.writeSnapshot(target, questions);
+            } catch (IOException e) {
+                log.warn("Could not write question snapshot for {}", target, e);
+            }
+
+            synchronized (this) {
+                flushedEditCount = flushingEditCount;
+                // Stamp the snapshot with the file we just wrote so the poller does not reload our own edits
+                Snapshot current = snapshot.get();
+                snapshot.set(new Snapshot(current.repository, current.version,
+                        target.lastModified(), target.length()));
+                // Opened here if needed, as edits replayed at startup sit in a journal nothing has appended to
+                if (!hasPendingEdits()) {
+                    journal().truncate();
+                }
+            }
+            log.info("Saved {} questions to Excel file", questions.size());
+        }
+    }
+
+    /**
+     * Polls the questions file for changes so edits made outside the application are picked up
+     */
+    @Scheduled(fixedDelayString = "${questions.reload-interval-ms:5000}")
+    public void pollForChanges() {
+        if (!reloadEnabled) {
+            return;
+        }
+        try {
+            reloadIfChanged();
+        } catch (Exception e) {
+            log.error("Failed to reload questions, keeping snapshot version {}", getVersion(), e);
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot.get();
+                if (current == null) {
+                    current = reload();
+                }
+            }
+        }
+        return current;
+    }
+
+    private synchronized Snapshot reload() {
+        // Take the file stamp before parsing so a write racing with the parse triggers another reload
+        File source = questionLoader.getExternalFile();
+        long lastModified = source != null ? source.lastModified() : 0L;
+        long length = source != null ? source.length() : 0L;
+
+        List<Question> questions = questionLoader.loadQuestions();
+        Snapshot previous = snapshot.get();
+        if (previous == null) {
+            questions = replayJournal(questions);
+        }
+        QuestionRepository repository = new IndexedQuestionRepository(questions);
+
+        long version = previous != null ? previous.version + 1 : 1;
+        Snapshot loaded = new Snapshot(repository, version, lastModified, length);
+        snapshot.set(loaded);
+
+        log.info("Loaded {} questions into catalog (version {})", repository.count(), version);
+        return loaded;
+    }
+
+    /**
+     * Applies edits journaled before the last shutdown that never reached the workbook
+     */
+    private List<Question> replayJournal(List<Question> questions) {
+        File target = questionLoader.getQuestionsFile();
+        if (target == null) {
+            return questions;
+        }
+
+        List<Question> replayed = new ArrayList<>(questions);
+        try {
+            int applied = QuestionEditJournal.replay(QuestionEditJournal.journalPathFor(target), replayed);
+            if (applied == 0 || replayed.isEmpty()) {
+                return questions;
+            }
+            // Leave the journal in place until the replayed edits are flushed
+            long now = System.currentTimeMillis();
+            firstPendingEditAt = now;
+            lastEditAt = now;
+            editCount++;
+            log.info("Replayed {} pending question edits from the journal", applied);
+            return replayed;
+        } catch (IOException e) {
+            log.error("Failed to replay question edit journal, loading the workbook as is", e);
+            return questions;
+        }
+    }
+
+    /**
+     * Publishes the questions as the next snapshot and schedules them for writing.
+     * Must be called while holding the catalog lock, after the edit has been journaled.
+     */
+    private void publish(List<Question> questions) {
+        Snapshot previous = current();
+        Snapshot published = new Snapshot(new IndexedQuestionRepository(questions), previous.version + 1,
+                previous.lastModified, previous.length);
+        snapshot.set(published);
+
+        long now = System.currentTimeMillis();
+        if (!hasPendingEdits()) {
+            firstPendingEditAt = now;
+        }
+        lastEditAt = now;
+        editCount++;
+
+        log.debug("Published {} questions (version {})", questions.size(), published.version);
+    }
+
+    private boolean hasPendingEdits() {
+        return editCount != flushedEditCount;
+    }
+
+    private QuestionEditJournal journal() throws IOException {
+        if (journal == null) {
+            journal = new QuestionEditJournal(QuestionEditJournal.journalPathFor(questionsFile()));
+        }
+        return journal;
+    }
+
+    private File questionsFile() throws IOException {
+        File target = questionLoader.getQuestionsFile();
+        if (target == null) {
+            throw new IOException("Questions are not backed by a writable file");
+        }
+        return target;
+    }
+
+    private static int nextId(List<Question> questions) {
+        int maxId = 0;
+        for (Question question : questions) {
+            try {
+                maxId = Math.max(maxId, Integer.parseInt(question.getId()));
+            } catch (NumberFormatException e) {
+                // Non-numeric IDs do not take part in numbering
+            }
+        }
+        return maxId + 1;
+    }
+
+    /**
+     * Copies a question so snapshots never share mutable instances with callers
+     */
+    static Question copyOf(Question question) {
+        List<Option> options = new ArrayList<>();
+        if (question.getOptions() != null) {
+            for (Option option : question.getOptions()) {
+                options.add(Option.builder()
+                        .id(option.getId())
+                        .text(option.getText())
+                        .correct(option.isCorrect())
+                        .build());
+            }
+        }
+        return Question.builder()
+                .id(question.getId())
+                .text(question.getText())
+                .options(options)
+                .build();
+    }
+
+    /**
+     * Immutable view of the question bank together with the file stamp it was parsed from
+     */
+    private static final class Snapshot {
+        private final QuestionRepository repository;
+        private final long version;
+        private final long lastModified;
+        private final long length;
+
+        private Snapshot(QuestionRepository repository, long version, long lastModified, long length) {
+            this.repository = repository;
+            this.version = version;
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+
+        private boolean matches(File source) {
+            if (source == null) {
+                return lastModified == 0L && length == 0L;
+            }
+            return source.lastModified() == lastModified && source.length() == length;
+        }
+    }
+}
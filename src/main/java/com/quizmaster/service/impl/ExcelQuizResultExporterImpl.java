@@ -3,6 +3,8 @@ package com.quizmaster.service.impl;
 import com.quizmaster.model.QuizResult;
 import com.quizmaster.service.QuizResultExporter;
 import com.quizmaster.util.LoggingUtils;
+import com.quizmaster.util.StreamingXlsxReader;
+import com.quizmaster.util.StreamingXlsxReader.SheetCell;
 import org.slf4j.Logger;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
@@ -19,8 +21,8 @@ import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -168,115 +170,115 @@ public class ExcelQuizResultExporterImpl implements QuizResultExporter {
         }
     }
     
+    /**
+     * Streams quiz results from the Excel file one row at a time
+     * Rows are parsed with a SAX reader so large result files never build a full workbook in memory
+     * 
+     * @param consumer Receives each imported quiz result
+     */
     @Override
-    public List<QuizResult> importResults() {
-        List<QuizResult> results = new ArrayList<>();
-        
+    public void importResults(Consumer<QuizResult> consumer) {
         try {
             String filePath = getFilePath();
             File file = new File(filePath);
             
             if (!file.exists()) {
                 log.info("Results Excel file not found at: {}. Will be created when results are available.", filePath);
-                return results;
+                return;
             }
             
             log.info("Importing quiz results from Excel file: {}", filePath);
             
-            try (FileInputStream fis = new FileInputStream(file);
-                 Workbook workbook = new XSSFWorkbook(fis)) {
-                
-                Sheet sheet = workbook.getSheet(SHEET_NAME);
-                if (sheet == null) {
-                    log.warn("Sheet '{}' not found in Excel file", SHEET_NAME);
-                    return results;
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+            int[] imported = new int[1];
+            
+            boolean sheetFound = StreamingXlsxReader.read(file, SHEET_NAME, row -> {
+                // Skip header row (index 0)
+                if (row.getRowNum() == 0) {
+                    return;
                 }
                 
-                int lastRowNum = sheet.getLastRowNum();
-                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+                QuizResult result = new QuizResult();
                 
-                // Skip header row (index 0)
-                for (int i = 1; i <= lastRowNum; i++) {
-                    Row row = sheet.getRow(i);
-                    if (row != null) {
-                        QuizResult result = new QuizResult();
-                        
-                        // Extract cell values
-                        try {
-                            // ID
-                            Cell idCell = row.getCell(0);
-                            if (idCell != null) {
-                                if (idCell.getCellType() == CellType.NUMERIC) {
-                                    result.setId((long) idCell.getNumericCellValue());
-                                } else {
-                                    result.setId(Long.parseLong(idCell.getStringCellValue()));
-                                }
-                            }
-                            
-                            // User Name
-                            Cell userNameCell = row.getCell(1);
-                            if (userNameCell != null) {
-                                result.setUserName(userNameCell.getStringCellValue());
-                            }
-                            
-                            // I Number
-                            Cell iNumberCell = row.getCell(2);
-                            if (iNumberCell != null) {
-                                result.setINumber(iNumberCell.getStringCellValue());
-                            }
-                            
-                            // Score
-                            Cell scoreCell = row.getCell(3);
-                            if (scoreCell != null) {
-                                result.setPercentageScore((float) scoreCell.getNumericCellValue());
-                            }
-                            
-                            // Total Questions
-                            Cell totalQuestionsCell = row.getCell(4);
-                            if (totalQuestionsCell != null) {
-                                result.setTotalQuestions((int) totalQuestionsCell.getNumericCellValue());
-                            }
-                            
-                            // Correct Answers
-                            Cell correctAnswersCell = row.getCell(5);
-                            if (correctAnswersCell != null) {
-                                result.setCorrectAnswers((int) correctAnswersCell.getNumericCellValue());
-                            }
-                            
-                            // Duration
-                            Cell durationCell = row.getCell(6);
-                            if (durationCell != null) {
-                                result.setTimeTakenSeconds((int) durationCell.getNumericCellValue());
-                            }
-                            
-                            // Completion Date
-                            Cell dateCell = row.getCell(7);
-                            if (dateCell != null) {
-                                String dateStr;
-                                if (dateCell.getCellType() == CellType.NUMERIC && DateUtil.isCellDateFormatted(dateCell)) {
-                                    dateStr = dateCell.getLocalDateTimeCellValue().format(formatter);
-                                } else {
-                                    dateStr = dateCell.getStringCellValue();
-                                }
-                                result.setCompletedAt(LocalDateTime.parse(dateStr, formatter));
-                            } else {
-                                result.setCompletedAt(LocalDateTime.now());
-                            }
-                            
-                            results.add(result);
-                        } catch (Exception e) {
-                            log.warn("Error parsing row {}: {}", i, e.getMessage());
+                // Extract cell values
+                try {
+                    // ID
+                    SheetCell idCell = row.getCell(0);
+                    if (idCell != null) {
+                        if (idCell.getCellType() == CellType.NUMERIC) {
+                            result.setId((long) idCell.getNumericCellValue());
+                        } else {
+                            result.setId(Long.parseLong(idCell.getStringCellValue()));
                         }
                     }
+                    
+                    // User Name
+                    SheetCell userNameCell = row.getCell(1);
+                    if (userNameCell != null) {
+                        result.setUserName(userNameCell.getStringCellValue());
+                    }
+                    
+                    // I Number
+                    SheetCell iNumberCell = row.getCell(2);
+                    if (iNumberCell != null) {
+                        result.setINumber(iNumberCell.getStringCellValue());
+                    }
+                    
+                    // Score
+                    SheetCell scoreCell = row.getCell(3);
+                    if (scoreCell != null) {
+                        result.setPercentageScore((float) scoreCell.getNumericCellValue());
+                    }
+                    
+                    // Total Questions
+                    SheetCell totalQuestionsCell = row.getCell(4);
+                    if (totalQuestionsCell != null) {
+                        result.setTotalQuestions((int) totalQuestionsCell.getNumericCellValue());
+                    }
+                    
+                    // Correct Answers
+                    SheetCell correctAnswersCell = row.getCell(5);
+                    if (correctAnswersCell != null) {
+                        result.setCorrectAnswers((int) correctAnswersCell.getNumericCellValue());
+                    }
+                    
+                    // Duration
+                    SheetCell durationCell = row.getCell(6);
+                    if (durationCell != null) {
+                        result.setTimeTakenSeconds((int) durationCell.getNumericCellValue());
+                    }
+                    
+                    // Completion Date
+                    SheetCell dateCell = row.getCell(7);
+                    if (dateCell != null) {
+                        String dateStr;
+                        if (dateCell.getCellType() == CellType.NUMERIC && dateCell.isDateFormatted()) {
+                            dateStr = dateCell.getLocalDateTimeCellValue().format(formatter);
+                        } else {
+                            dateStr = dateCell.getStringCellValue();
+                        }
+                        result.setCompletedAt(LocalDateTime.parse(dateStr, formatter));
+                    } else {
+                        result.setCompletedAt(LocalDateTime.now());
+                    }
+                } catch (Exception e) {
+                    log.warn("Error parsing row {}: {}", row.getRowNum(), e.getMessage());
+                    return;
                 }
+                
+                consumer.accept(result);
+                imported[0]++;
+            });
+            
+            if (!sheetFound) {
+                log.warn("Sheet '{}' not found in Excel file", SHEET_NAME);
+                return;
             }
             
-            log.info("Successfully imported {} quiz results from Excel file", results.size());
+            log.info("Successfully imported {} quiz results from Excel file", imported[0]);
         } catch (IOException e) {
             log.error("Error importing quiz results from Excel", e);
         }
-        
-        return results;
     }
     
     /**
@@ -1,29 +1,41 @@
 package com.quizmaster.service.impl;
 
 import com.quizmaster.model.QuizResult;
+import com.quizmaster.model.dto.LeaderboardView;
 import com.quizmaster.model.dto.RankingResponse;
 import com.quizmaster.repository.QuizResultJpaRepository;
 import com.quizmaster.service.QuizRankingService;
 import com.quizmaster.service.QuizResultExporter;
 import com.quizmaster.service.impl.ExcelQuizResultExporterImpl.ExportTrigger;
+import com.quizmaster.util.IndexableSkipList;
+import com.quizmaster.util.ScoreHistogram;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
-import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
 import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 /**
- * JPA implementation of QuizRankingService
+ * JPA implementation of QuizRankingService. Rankings are answered from an in-memory index of
+ * all results, so rank, top and neighbourhood queries take O(log n) and no database round trip.
  */
 @Service
 @Slf4j
@@ -31,9 +43,34 @@ import java.util.stream.IntStream;
 @Qualifier("jpaQuizRankingService")
 public class JpaQuizRankingService implements QuizRankingService {
 
+    /**
+     * Ranking order: highest score first, then fastest, then earliest saved
+     */
+    static final Comparator<QuizResult> RANKING_ORDER =
+            Comparator.comparingDouble(QuizResult::getPercentageScore).reversed()
+                    .thenComparingInt(QuizResult::getTimeTakenSeconds)
+                    .thenComparingLong(QuizResult::getId);
+    
+    // Times are counted per second up to an hour; slower results share a bucket
+    private static final int HISTOGRAM_MAX_SECONDS = 3600;
+    // Excel rows looked up or saved at a time by the startup import
+    public static final int IMPORT_BATCH_SIZE = 500;
+
     private final QuizResultJpaRepository quizResultRepository;
     private final QuizResultExporter quizResultExporter;
     
+    // Results ordered by rank, loaded from the database on first use and kept up to date by the
+    // writes of this service; entries are copies, guarded by indexLock
+    private final ReadWriteLock indexLock = new ReentrantReadWriteLock();
+    private final IndexableSkipList<QuizResult> rankingIndex = new IndexableSkipList<>(RANKING_ORDER);
+    private final Map<Long, QuizResult> indexedById = new HashMap<>();
+    private final Map<String, List<QuizResult>> indexedByUser = new HashMap<>();
+    // Counts of the indexed results per score and time, for percentiles
+    private final ScoreHistogram scoreHistogram = new ScoreHistogram(HISTOGRAM_MAX_SECONDS);
+    private volatile boolean indexLoaded;
+    // Bumped with the write lock held by every change to the results
+    private final AtomicLong resultsVersion = new AtomicLong();
+    
     @Value("${quizmaster.import-from-excel-on-startup:true}")
     private boolean importFromExcelOnStartup;
 
@@ -68,77 +105,68 @@ public class JpaQuizRankingService implements QuizRankingService {
             // First, export existing DB data to db_results.xlsx before we potentially overwrite it
             exportExistingDbToSpecialFile();
             
-            // Load results from Excel file
-            List<QuizResult> excelResults = quizResultExporter.importResults();
-            log.info("Found {} quiz results in Excel file for import", excelResults.size());
+            // First pass: count the Excel rows and look their I-Numbers up in batches, holding one batch at a time
+            long dbCount = quizResultRepository.count();
+            long[] excelCount = new long[1];
+            boolean[] hasNewEntries = new boolean[1];
+            List<String> iNumbers = new ArrayList<>(IMPORT_BATCH_SIZE);
+            quizResultExporter.importResults(result -> {
+                excelCount[0]++;
+                String iNumber = result.getINumber();
+                if (!hasNewEntries[0] && iNumber != null && !iNumber.isEmpty()) {
+                    iNumbers.add(iNumber);
+                    if (iNumbers.size() == IMPORT_BATCH_SIZE) {
+                        hasNewEntries[0] = hasUnknownINumber(iNumbers);
+                        iNumbers.clear();
+                    }
+                }
+            });
+            if (!hasNewEntries[0] && !iNumbers.isEmpty()) {
+                hasNewEntries[0] = hasUnknownINumber(iNumbers);
+            }
+            log.info("Found {} quiz results in Excel file for import", excelCount[0]);
             
-            if (excelResults.isEmpty()) {
+            if (excelCount[0] == 0) {
                 log.info("No quiz results found in Excel file for import, keeping database records");
                 // Export existing database records to Excel to ensure sync
-                List<QuizResult> dbResults = quizResultRepository.findAll();
-                if (!dbResults.isEmpty()) {
+                if (dbCount > 0) {
+                    List<QuizResult> dbResults = quizResultRepository.findAll();
                     log.info("Exporting {} existing database records to Excel", dbResults.size());
                     quizResultExporter.exportResults(dbResults, ExportTrigger.STARTUP);
                 }
                 return;
             }
             
-            // Check if all Excel entries already exist in the database by I-Number
-            List<QuizResult> dbResults = quizResultRepository.findAll();
-            boolean hasNewEntries = false;
-            boolean countMismatch = excelResults.size() != dbResults.size();
-            
+            boolean countMismatch = excelCount[0] != dbCount;
             if (countMismatch) {
                 log.info("Count mismatch: Excel has {} entries, database has {} entries", 
-                         excelResults.size(), dbResults.size());
+                         excelCount[0], dbCount);
             }
             
-            // Collect all I-Numbers from database
-            List<String> dbINumbers = dbResults.stream()
-                .filter(result -> result.getINumber() != null && !result.getINumber().isEmpty())
-                .map(QuizResult::getINumber)
-                .collect(Collectors.toList());
-                
-            log.info("Found {} I-Numbers in database", dbINumbers.size());
-            
-            // Check if any Excel entry has an I-Number not present in the database
-            for (QuizResult excelResult : excelResults) {
-                String iNumber = excelResult.getINumber();
-                if (iNumber != null && !iNumber.isEmpty() && !dbINumbers.contains(iNumber)) {
-                    log.info("Found new I-Number in Excel that is not in database: {}", iNumber);
-                    hasNewEntries = true;
-                    break;
-                }
-            }
-            
-            // Declare importedCount outside the if-else block
-            int importedCount = 0;
-            
-            if (hasNewEntries || countMismatch) {
+            if (hasNewEntries[0] || countMismatch) {
                 // Clear the database if new entries were found or if counts don't match
-                String reason = hasNewEntries ? "new I-Numbers found" : "count mismatch";
+                String reason = hasNewEntries[0] ? "new I-Numbers found" : "count mismatch";
                 log.info("Clearing database before importing due to: {}", reason);
                 quizResultRepository.deleteAll();
                 
-                // Import all results from Excel
-                for (QuizResult result : excelResults) {
-                    try {
-                        QuizResult saved = quizResultRepository.save(result);
-                        importedCount++;
-                        log.debug("Imported quiz result for user: {} with ID: {}", 
-                                result.getUserName(), saved.getId());
-                    } catch (Exception e) {
-                        log.error("Failed to import result for user: {}", result.getUserName(), e);
+                // Second pass: import all results from Excel, saving them in batches
+                int[] importedCount = new int[1];
+                List<QuizResult> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+                quizResultExporter.importResults(result -> {
+                    batch.add(result);
+                    if (batch.size() == IMPORT_BATCH_SIZE) {
+                        importedCount[0] += saveImportBatch(batch);
+                        batch.clear();
                     }
-                }
-                log.info("Excel import complete: {} imported from Excel", importedCount);
+                });
+                importedCount[0] += saveImportBatch(batch);
+                log.info("Excel import complete: {} imported from Excel", importedCount[0]);
             } else {
                 log.info("All I-Numbers in Excel file already exist in database and counts match - skipping import");
                 // Export existing database records to Excel to ensure sync
-                if (!dbResults.isEmpty()) {
-                    log.info("Keeping existing {} database records and ensuring Excel is in sync", dbResults.size());
-                    quizResultExporter.exportResults(dbResults, ExportTrigger.STARTUP);
-                }
+                List<QuizResult> dbResults = quizResultRepository.findAll();
+                log.info("Keeping existing {} database records and ensuring Excel is in sync", dbResults.size());
+                quizResultExporter.exportResults(dbResults, ExportTrigger.STARTUP);
             }
             
             log.info("Total records in database after import: {}", quizResultRepository.count());
@@ -176,77 +204,148 @@ public class JpaQuizRankingService implements QuizRankingService {
         }
     }
 
+    // Whether any of the I-Numbers has no result in the database
+    private boolean hasUnknownINumber(List<String> iNumbers) {
+        Set<String> known = new HashSet<>(quizResultRepository.findINumbersIn(iNumbers));
+        for (String iNumber : iNumbers) {
+            if (!known.contains(iNumber)) {
+                log.info("Found new I-Number in Excel that is not in database: {}", iNumber);
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Saves a batch of imported results in one transaction, falling back to one at a time when it
+     * fails so a bad row only loses itself
+     *
+     * @return the number of results saved
+     */
+    private int saveImportBatch(List<QuizResult> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            quizResultRepository.saveAll(batch);
+            return batch.size();
+        } catch (Exception batchException) {
+            log.warn("Failed to import a batch of {} results, importing them one at a time", batch.size());
+        }
+        int saved = 0;
+        for (QuizResult result : batch) {
+            try {
+                // The failed batch may have assigned IDs before rolling back
+                result.setId(null);
+                quizResultRepository.save(result);
+                saved++;
+            } catch (Exception e) {
+                log.error("Failed to import result for user: {}", result.getUserName(), e);
+            }
+        }
+        return saved;
+    }
+
     @Override
     public List<QuizResult> getTopResults(int limit) {
         log.debug("Getting top {} quiz results", limit);
-        return getRankedResults().stream()
-                .limit(limit)
-                .collect(Collectors.toList());
+        return readIndex(() -> rankedRange(0, limit));
     }
 
     @Override
     public List<QuizResult> getAllResults() {
         log.debug("Getting all quiz results");
-        return getRankedResults();
+        return readIndex(() -> rankedRange(0, rankingIndex.size()));
     }
 
     @Override
     public RankingResponse getUserRanking(String userName) {
         log.debug("Getting ranking for user: {}", userName);
-        
-        List<QuizResult> rankedResults = getRankedResults();
-        
-        // Find all results for the user
-        List<QuizResult> userResults = rankedResults.stream()
-                .filter(r -> r.getUserName().equals(userName))
-                .collect(Collectors.toList());
-        
-        // Find the best result (highest rank/lowest rank number)
-        QuizResult bestResult = userResults.stream()
-                .min(Comparator.comparing(QuizResult::getRank))
-                .orElse(null);
-        
-        if (bestResult == null) {
-            return RankingResponse.builder()
-                    .userName(userName)
-                    .message("No quiz results found for this user")
-                    .rank(0)
-                    .totalParticipants(rankedResults.size())
-                    .build();
-        }
-        
-        return RankingResponse.builder()
-                .userName(userName)
-                .rank(bestResult.getRank())
-                .percentageScore(bestResult.getPercentageScore())
-                .score(bestResult.getScore())
-                .totalQuestions(bestResult.getTotalQuestions())
-                .correctAnswers(bestResult.getCorrectAnswers())
-                .bestCompletionTimeSeconds(bestResult.getTimeTakenSeconds())
-                .timeTakenSeconds(bestResult.getTimeTakenSeconds())
-                .totalAttempts(userResults.size())
-                .lastCompletedAt(bestResult.getCompletedAt())
-                .completedAt(bestResult.getCompletedAt())
-                .totalParticipants(rankedResults.size())
-                .build();
+        return readIndex(() -> userRanking(userName));
+    }
+
+    @Override
+    public LeaderboardView getLeaderboardView(int limit, String userName) {
+        log.debug("Getting leaderboard view of top {} for user: {}", limit, userName);
+        return readIndex(() -> LeaderboardView.builder()
+                .rankings(rankedRange(0, limit))
+                .totalParticipants(rankingIndex.size())
+                .userRanking(userName != null && !userName.isEmpty() ? userRanking(userName) : null)
+                .generatedAt(LocalDateTime.now())
+                .version(resultsVersion.get())
+                .build());
+    }
+
+    @Override
+    public List<QuizResult> getResultsAround(String userName, int radius) {
+        log.debug("Getting results within {} of user: {}", radius, userName);
+        return readIndex(() -> {
+            QuizResult bestResult = indexedByUser.getOrDefault(userName, List.of()).stream()
+                    .min(RANKING_ORDER)
+                    .orElse(null);
+            if (bestResult == null) {
+                return List.of();
+            }
+            int position = rankingIndex.indexOf(bestResult);
+            return rankedRange(position - radius, position + radius + 1);
+        });
+    }
+
+    @Override
+    public long getResultsVersion() {
+        return resultsVersion.get();
+    }
+
+    @Override
+    public int getResultCount() {
+        return readIndex(rankingIndex::size);
     }
 
     @Override
     public void saveQuizResult(QuizResult quizResult) {
         log.debug("Saving quiz result for user: {}", quizResult.getUserName());
-        quizResultRepository.save(quizResult);
+        QuizResult saved = quizResultRepository.save(quizResult);
+        
+        indexLock.writeLock().lock();
+        try {
+            if (indexLoaded) {
+                indexResult(saved);
+            }
+            resultsVersion.incrementAndGet();
+        } finally {
+            indexLock.writeLock().unlock();
+        }
     }
 
     @Override
     public void clearAllResults() throws IOException {
         log.debug("Clearing all quiz results");
         quizResultRepository.deleteAll();
+        
+        indexLock.writeLock().lock();
+        try {
+            rankingIndex.clear();
+            indexedById.clear();
+            indexedByUser.clear();
+            scoreHistogram.clear();
+            resultsVersion.incrementAndGet();
+        } finally {
+            indexLock.writeLock().unlock();
+        }
     }
     
     @Override
     public void deleteQuizResult(Long id) throws IOException {
         log.debug("Deleting quiz result with ID: {}", id);
         quizResultRepository.deleteById(id);
+        
+        indexLock.writeLock().lock();
+        try {
+            unindexResult(id);
+            resultsVersion.incrementAndGet();
+        } finally {
+            indexLock.writeLock().unlock();
+        }
     }
     
     @Override
@@ -258,19 +357,162 @@ public class JpaQuizRankingService implements QuizRankingService {
         return quizResultRepository.existsByiNumber(iNumber.trim());
     }
     
-    private List<QuizResult> getRankedResults() {
-        List<QuizResult> results = quizResultRepository.findAll(
-                Sort.by(Sort.Direction.DESC, "percentageScore")
-                    .and(Sort.by(Sort.Direction.ASC, "timeTakenSeconds"))
-        );
+    /**
+     * Rebuilds the ranking index when it no longer matches the database, which happens when results
+     * are written by another instance sharing the database or outside this service. Both the count
+     * and the highest ID are compared: IDs are never reused, so a delete followed by an insert
+     * leaves the count but moves the highest ID.
+     */
+    @Scheduled(fixedDelayString = "${quizmaster.ranking.index.verify-interval-ms:60000}")
+    public void verifyRankingIndex() {
+        if (!indexLoaded) {
+            return;
+        }
+        long stored = quizResultRepository.count();
+        long storedMaxId = quizResultRepository.findMaxId();
+        int indexed = readIndex(rankingIndex::size);
+        long indexedMaxId = readIndex(() -> indexedById.keySet().stream().mapToLong(Long::longValue).max().orElse(0));
+        if (stored != indexed || storedMaxId != indexedMaxId) {
+            log.info("Ranking index holds {} results up to ID {} but the database holds {} up to ID {}, rebuilding it",
+                    indexed, indexedMaxId, stored, storedMaxId);
+            indexLock.writeLock().lock();
+            try {
+                rebuildIndex();
+            } finally {
+                indexLock.writeLock().unlock();
+            }
+        }
+    }
+    
+    /**
+     * Runs a query against the ranking index under the read lock, loading the index from the
+     * database on first use
+     */
+    private <T> T readIndex(Supplier<T> query) {
+        if (!indexLoaded) {
+            indexLock.writeLock().lock();
+            try {
+                if (!indexLoaded) {
+                    rebuildIndex();
+                }
+            } finally {
+                indexLock.writeLock().unlock();
+            }
+        }
+        indexLock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+    
+    // Called with the write lock held
+    private void rebuildIndex() {
+        rankingIndex.clear();
+        indexedById.clear();
+        indexedByUser.clear();
+        scoreHistogram.clear();
+        List<QuizResult> results = quizResultRepository.findAll();
+        results.forEach(this::indexResult);
+        indexLoaded = true;
+        resultsVersion.incrementAndGet();
+        log.info("Loaded {} quiz results into the ranking index", rankingIndex.size());
+    }
+    
+    // Called with the write lock held; replaces any entry with the same ID
+    private void indexResult(QuizResult result) {
+        if (result.getId() == null) {
+            return;
+        }
+        unindexResult(result.getId());
+        // Hold a copy, so changes to the entity cannot move it within the index
+        QuizResult entry = withRank(result, 0);
+        rankingIndex.add(entry);
+        indexedById.put(entry.getId(), entry);
+        indexedByUser.computeIfAbsent(entry.getUserName(), userName -> new ArrayList<>(1)).add(entry);
+        scoreHistogram.add(entry.getPercentageScore(), entry.getTimeTakenSeconds());
+    }
+    
+    // Called with the write lock held
+    private void unindexResult(Long id) {
+        QuizResult entry = indexedById.remove(id);
+        if (entry == null) {
+            return;
+        }
+        rankingIndex.remove(entry);
+        scoreHistogram.remove(entry.getPercentageScore(), entry.getTimeTakenSeconds());
+        List<QuizResult> userResults = indexedByUser.get(entry.getUserName());
+        userResults.remove(entry);
+        if (userResults.isEmpty()) {
+            indexedByUser.remove(entry.getUserName());
+        }
+    }
+    
+    // Called with the read lock held
+    private RankingResponse userRanking(String userName) {
+        List<QuizResult> userResults = indexedByUser.getOrDefault(userName, List.of());
+        int totalParticipants = rankingIndex.size();
         
-        // Assign ranks
-        AtomicInteger rank = new AtomicInteger(1);
-        results.forEach(result -> result.setRank(rank.getAndIncrement()));
+        // Find the best result, the one ranked first
+        QuizResult bestResult = userResults.stream()
+                .min(RANKING_ORDER)
+                .orElse(null);
         
+        if (bestResult == null) {
+            return RankingResponse.builder()
+                    .userName(userName)
+                    .message("No quiz results found for this user")
+                    .rank(0)
+                    .totalParticipants(totalParticipants)
+                    .build();
+        }
+        
+        return RankingResponse.builder()
+                .userName(userName)
+                .rank(rankingIndex.indexOf(bestResult) + 1)
+                .percentageScore(bestResult.getPercentageScore())
+                .score(bestResult.getScore())
+                .totalQuestions(bestResult.getTotalQuestions())
+                .correctAnswers(bestResult.getCorrectAnswers())
+                .bestCompletionTimeSeconds(bestResult.getTimeTakenSeconds())
+                .timeTakenSeconds(bestResult.getTimeTakenSeconds())
+                .totalAttempts(userResults.size())
+                .lastCompletedAt(bestResult.getCompletedAt())
+                .completedAt(bestResult.getCompletedAt())
+                .totalParticipants(totalParticipants)
+                .percentile(scoreHistogram.percentile(bestResult.getPercentageScore(),
+                        bestResult.getTimeTakenSeconds()))
+                .build();
+    }
+    
+    // Called with the read lock held; returns copies carrying their rank
+    private List<QuizResult> rankedRange(int fromIndex, int toIndex) {
+        int first = Math.max(0, fromIndex);
+        List<QuizResult> entries = rankingIndex.range(first, toIndex);
+        List<QuizResult> results = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            results.add(withRank(entries.get(i), first + i + 1));
+        }
         return results;
     }
     
+    private static QuizResult withRank(QuizResult result, int rank) {
+        return QuizResult.builder()
+                .id(result.getId())
+                .sessionId(result.getSessionId())
+                .userName(result.getUserName())
+                .iNumber(result.getINumber())
+                .score(result.getScore())
+                .percentageScore(result.getPercentageScore())
+                .totalQuestions(result.getTotalQuestions())
+                .correctAnswers(result.getCorrectAnswers())
+                .timeTakenSeconds(result.getTimeTakenSeconds())
+                .completedAt(result.getCompletedAt())
+                .rank(rank)
+                .build();
+    }
+    
     /**
      * Exports the existing database content to a special db_results.xlsx file
      * before loading data from results.xlsx
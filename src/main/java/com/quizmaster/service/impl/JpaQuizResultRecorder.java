@@ -2,12 +2,13 @@ package com.quizmaster.service.impl;
 
 import com.quizmaster.model.QuizResult;
 import com.quizmaster.model.dto.EndQuizResponse;
-import com.quizmaster.repository.QuizResultJpaRepository;
+import com.quizmaster.service.QuizRankingService;
 import com.quizmaster.service.QuizResultExporter;
 import com.quizmaster.service.QuizResultRecorder;
 import com.quizmaster.service.impl.ExcelQuizResultExporterImpl.ExportTrigger;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
@@ -28,13 +29,13 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 @Slf4j
 public class JpaQuizResultRecorder implements QuizResultRecorder {
 
-    private final QuizResultJpaRepository quizResultRepository;
+    private final QuizRankingService quizRankingService;
     private final QuizResultExporter quizResultExporter;
 
     @Autowired
-    public JpaQuizResultRecorder(QuizResultJpaRepository quizResultRepository, 
+    public JpaQuizResultRecorder(@Qualifier("jpaQuizRankingService") QuizRankingService quizRankingService,
                                 QuizResultExporter quizResultExporter) {
-        this.quizResultRepository = quizResultRepository;
+        this.quizRankingService = quizRankingService;
         this.quizResultExporter = quizResultExporter;
     }
 
@@ -54,7 +55,8 @@ public class JpaQuizResultRecorder implements QuizResultRecorder {
                 .completedAt(LocalDateTime.now())
                 .build();
                 
-        quizResultRepository.save(quizResult);
+        // Saved through the ranking service so the result is ranked straight away
+        quizRankingService.saveQuizResult(quizResult);
         log.info("Quiz result successfully saved to database");
     }
     
@@ -0,0 +1,172 @@
+package com.quizmaster.service.impl;
+
+import com.quizmaster.exception.QuizException;
+import com.quizmaster.repository.QuestionRepository;
+import com.quizmaster.repository.impl.IndexedQuestionRepository;
+import com.quizmaster.service.QuestionBankRegistry;
+import com.quizmaster.util.ExcelQuestionLoader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Question bank registry configured through {@code questions.banks.<name>=<resource>}.
+ * Banks are parsed on first use and kept in an access-ordered LRU map bounded both by the
+ * number of resident banks and by their total question count. An evicted bank stays reachable
+ * only through the sessions that were started on it, so cold banks cost no heap once those end.
+ */
+@Service
+@Slf4j
+public class LruQuestionBankRegistry implements QuestionBankRegistry {
+
+    private final ExcelQuestionLoader questionLoader;
+    private final ResourceLoader resourceLoader;
+    private final Map<String, String> bankLocations;
+    private final Map<String, Object> loadLocks = new ConcurrentHashMap<>();
+
+    // Access-ordered, guarded by itself
+    private final LinkedHashMap<String, ResidentBank> residentBanks = new LinkedHashMap<>(16, 0.75f, true);
+    private int residentQuestions;
+
+    @Value("${questions.bank-cache.max-resident:4}")
+    private int maxResidentBanks = 4;
+
+    @Value("${questions.bank-cache.max-questions:20000}")
+    private int maxResidentQuestions = 20000;
+
+    @Autowired
+    public LruQuestionBankRegistry(ExcelQuestionLoader questionLoader, ResourceLoader resourceLoader,
+                                   Environment environment) {
+        this.questionLoader = questionLoader;
+        this.resourceLoader = resourceLoader;
+        this.bankLocations = Collections.unmodifiableMap(new TreeMap<>(Binder.get(environment)
+                .bind("questions.banks", Bindable.mapOf(String.class, String.class))
+                .orElse(Collections.emptyMap())));
+        if (!bankLocations.isEmpty()) {
+            log.info("Configured question banks: {}", bankLocations.keySet());
+        }
+    }
+
+    @Override
+    public QuestionRepository getBank(String name) {
+        String location = bankLocations.get(name);
+        if (location == null) {
+            throw new QuizException("Unknown question bank: " + name);
+        }
+
+        ResidentBank bank = residentBank(name);
+        if (bank != null && bank.isCurrent()) {
+            return bank.repository;
+        }
+
+        // Load each bank at most once at a time without blocking lookups of other banks
+        synchronized (loadLocks.computeIfAbsent(name, key -> new Object())) {
+            bank = residentBank(name);
+            if (bank != null && bank.isCurrent()) {
+                return bank.repository;
+            }
+            bank = load(name, location);
+            makeResident(name, bank);
+            return bank.repository;
+        }
+    }
+
+    @Override
+    public Set<String> getBankNames() {
+        return bankLocations.keySet();
+    }
+
+    @Override
+    public Set<String> getResidentBankNames() {
+        synchronized (residentBanks) {
+            return new LinkedHashSet<>(residentBanks.keySet());
+        }
+    }
+
+    private ResidentBank residentBank(String name) {
+        synchronized (residentBanks) {
+            return residentBanks.get(name);
+        }
+    }
+
+    private ResidentBank load(String name, String location) {
+        Resource resource = resourceLoader.getResource(location);
+        File file = null;
+        try {
+            if (resource.isFile()) {
+                file = resource.getFile();
+            }
+        } catch (IOException e) {
+            // Not a plain file, load it as a stream without change detection
+        }
+
+        // Take the file stamp before parsing so a write racing with the parse triggers another load
+        long lastModified = file != null ? file.lastModified() : 0L;
+        long length = file != null ? file.length() : 0L;
+        QuestionRepository repository = new IndexedQuestionRepository(questionLoader.loadQuestions(resource));
+
+        log.info("Loaded question bank '{}' with {} questions", name, repository.count());
+        return new ResidentBank(repository, file, lastModified, length);
+    }
+
+    private void makeResident(String name, ResidentBank bank) {
+        synchronized (residentBanks) {
+            ResidentBank previous = residentBanks.put(name, bank);
+            if (previous != null) {
+                residentQuestions -= previous.repository.count();
+            }
+            residentQuestions += bank.repository.count();
+
+            // Evict least recently used banks, but never the one just loaded
+            Iterator<Map.Entry<String, ResidentBank>> eldest = residentBanks.entrySet().iterator();
+            while ((residentBanks.size() > maxResidentBanks || residentQuestions > maxResidentQuestions)
+                    && residentBanks.size() > 1) {
+                Map.Entry<String, ResidentBank> entry = eldest.next();
+                if (entry.getKey().equals(name)) {
+                    continue;
+                }
+                residentQuestions -= entry.getValue().repository.count();
+                eldest.remove();
+                log.info("Evicted question bank '{}' from memory", entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * A loaded bank together with the file stamp it was parsed from
+     */
+    private static final class ResidentBank {
+        private final QuestionRepository repository;
+        private final File file;
+        private final long lastModified;
+        private final long length;
+
+        private ResidentBank(QuestionRepository repository, File file, long lastModified, long length) {
+            this.repository = repository;
+            this.file = file;
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+
+        private boolean isCurrent() {
+            return file == null || (file.lastModified() == lastModified && file.length() == length);
+        }
+    }
+}
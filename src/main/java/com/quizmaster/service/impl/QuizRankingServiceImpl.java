@@ -1,6 +1,7 @@
 package com.quizmaster.service.impl;
 
 import com.quizmaster.model.QuizResult;
+import com.quizmaster.model.dto.LeaderboardView;
 import com.quizmaster.model.dto.RankingResponse;
 import com.quizmaster.repository.impl.QuizResultRepository;
 import com.quizmaster.service.QuizRankingService;
@@ -9,9 +10,11 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,6 +22,7 @@ import java.util.stream.Collectors;
 public class QuizRankingServiceImpl implements QuizRankingService {
 
     private final QuizResultRepository quizResultRepository;
+    private final AtomicLong resultsVersion = new AtomicLong();
 
     @Autowired
     public QuizRankingServiceImpl(QuizResultRepository quizResultRepository) {
@@ -28,6 +32,7 @@ public class QuizRankingServiceImpl implements QuizRankingService {
     @Override
     public void saveQuizResult(QuizResult result) {
         quizResultRepository.saveResult(result);
+        resultsVersion.incrementAndGet();
     }
 
     @Override
@@ -44,7 +49,24 @@ public class QuizRankingServiceImpl implements QuizRankingService {
 
     @Override
     public RankingResponse getUserRanking(String userName) {
+        return userRanking(getRankedResults(), userName);
+    }
+
+    @Override
+    public LeaderboardView getLeaderboardView(int limit, String userName) {
+        // Read before the results, so the view is never tagged newer than its content
+        long version = resultsVersion.get();
         List<QuizResult> rankedResults = getRankedResults();
+        return LeaderboardView.builder()
+                .rankings(rankedResults.stream().limit(limit).collect(Collectors.toList()))
+                .totalParticipants(rankedResults.size())
+                .userRanking(userName != null && !userName.isEmpty() ? userRanking(rankedResults, userName) : null)
+                .generatedAt(LocalDateTime.now())
+                .version(version)
+                .build();
+    }
+
+    private RankingResponse userRanking(List<QuizResult> rankedResults, String userName) {
 
         // Find all results for the user
         List<QuizResult> userResults = rankedResults.stream()
@@ -78,9 +100,36 @@ public class QuizRankingServiceImpl implements QuizRankingService {
                 .build();
     }
 
+    @Override
+    public List<QuizResult> getResultsAround(String userName, int radius) {
+        List<QuizResult> rankedResults = getRankedResults();
+        int best = -1;
+        for (int i = 0; i < rankedResults.size(); i++) {
+            if (rankedResults.get(i).getUserName().equals(userName)) {
+                best = i;
+                break;
+            }
+        }
+        if (best < 0) {
+            return List.of();
+        }
+        return rankedResults.subList(Math.max(0, best - radius), Math.min(rankedResults.size(), best + radius + 1));
+    }
+
+    @Override
+    public long getResultsVersion() {
+        return resultsVersion.get();
+    }
+
+    @Override
+    public int getResultCount() {
+        return quizResultRepository.getAllResults().size();
+    }
+
     @Override
     public void clearAllResults() throws IOException {
         quizResultRepository.clearAllResults();
+        resultsVersion.incrementAndGet();
     }
     
     @Override
@@ -94,6 +143,7 @@ public class QuizRankingServiceImpl implements QuizRankingService {
         if (removed) {
             // Save the updated list back
             quizResultRepository.saveAllResults(results);
+            resultsVersion.incrementAndGet();
         }
     }
     
@@ -1,39 +1,157 @@
 package com.quizmaster.service.impl;
 
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
 import com.quizmaster.exception.QuizException;
-import com.quizmaster.model.Option;
+import com.quizmaster.exception.SessionCapacityException;
+import com.quizmaster.model.CompiledQuestion;
 import com.quizmaster.model.Question;
 import com.quizmaster.model.QuizSession;
 import com.quizmaster.model.dto.*;
+import com.quizmaster.repository.QuestionRepository;
+import com.quizmaster.repository.QuizSessionStore;
+import com.quizmaster.service.QuestionBankRegistry;
+import com.quizmaster.service.QuestionCatalog;
 import com.quizmaster.service.QuizRankingService;
 import com.quizmaster.service.QuizService;
-import com.quizmaster.util.ExcelQuestionLoader;
+import com.quizmaster.util.HashedTimingWheel;
+import com.quizmaster.util.SessionEventJournal;
+import com.quizmaster.util.SessionIds;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 @Service
+@Slf4j
 public class QuizServiceImpl implements QuizService {
     
-    private final ExcelQuestionLoader questionLoader;
-    private final Map<String, QuizSession> quizSessions = new ConcurrentHashMap<>();
+    private final QuestionCatalog questionCatalog;
+    private final QuestionBankRegistry questionBankRegistry;
+    private final QuizSessionStore sessionStore;
     
     private final int MAX_QUESTIONS_PER_SESSION = 5;
     private final int MAX_ATTEMPTS_PER_QUESTION = 3;
 
+    // One-second ticks over 512 buckets; longer TTLs simply wrap the wheel
+    private static final long SESSION_EXPIRY_TICK_MS = 1000;
+    private static final int SESSION_EXPIRY_WHEEL_SIZE = 512;
+    private static final long SESSION_CAPACITY_RETRY_AFTER_SECONDS = 30;
+    
+    private static final byte[] PREFETCH_SESSION_ID_FIELD = "{\"sessionId\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PREFETCH_END = "]}".getBytes(StandardCharsets.UTF_8);
+
+    // Sessions are split into shards by the index carried in their ID, each with its own expiry
+    // wheel and counters, so concurrent starts and evictions rarely meet on the same lock or counter
+    private final SessionShard[] sessionShards = new SessionShard[SessionIds.SHARDS];
+    private final LongAdder rejectedStarts = new LongAdder();
+
+    @Value("${quizmaster.session.idle-ttl-ms:1800000}")
+    private long sessionIdleTtlMs = 1800000;
+
+    @Value("${quizmaster.session.ended-ttl-ms:300000}")
+    private long sessionEndedTtlMs = 300000;
+
+    @Value("${quizmaster.session.max-sessions:10000}")
+    private int maxSessions = 10000;
+
+    @Value("${quizmaster.session.journal.enabled:false}")
+    private boolean sessionJournalEnabled = false;
+
+    @Value("${quizmaster.session.journal.directory:./data/sessions}")
+    private String sessionJournalDirectory = "./data/sessions";
+
+    @Value("${quizmaster.session.journal.snapshot-bytes:67108864}")
+    private long sessionJournalSnapshotBytes = 67108864;
+
+    // Null unless the journal is enabled, so the request paths skip it without cost
+    private volatile SessionEventJournal sessionJournal;
+    // Set by the first failed append and cleared once compaction has recovered the journal
+    private final AtomicBoolean sessionJournalDegraded = new AtomicBoolean();
+
     private final QuizRankingService quizRankingService;
 
+    // Feedback for each possible number of remaining attempts, built once instead of per answer
+    private final String[] attemptsRemainingMessages = new String[MAX_ATTEMPTS_PER_QUESTION + 1];
+
     @Autowired
-    public QuizServiceImpl(ExcelQuestionLoader questionLoader, 
+    public QuizServiceImpl(QuestionCatalog questionCatalog,
+                          QuestionBankRegistry questionBankRegistry,
+                          QuizSessionStore sessionStore,
                           @Qualifier("jpaQuizRankingService") QuizRankingService quizRankingService) {
-        this.questionLoader = questionLoader;
+        this.questionCatalog = questionCatalog;
+        this.questionBankRegistry = questionBankRegistry;
+        this.sessionStore = sessionStore;
         this.quizRankingService = quizRankingService;
-        // Other initialization...
+        for (int remaining = 0; remaining <= MAX_ATTEMPTS_PER_QUESTION; remaining++) {
+            attemptsRemainingMessages[remaining] = "Incorrect answer. Please try again. Attempts remaining: " + remaining;
+        }
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < sessionShards.length; i++) {
+            sessionShards[i] = new SessionShard(now);
+        }
+    }
+
+    /**
+     * Rebuilds the sessions that were live at the last shutdown or crash from the session journal
+     */
+    @PostConstruct
+    public void recoverSessions() {
+        if (!sessionJournalEnabled) {
+            return;
+        }
+        if (!sessionStore.holdsSessions()) {
+            log.warn("Quiz session journal is enabled but the session store keeps no sessions to journal");
+            return;
+        }
+        try {
+            long started = System.nanoTime();
+            Map<String, QuizSession> journaled = SessionEventJournal.replay(Paths.get(sessionJournalDirectory));
+            sessionJournal = new SessionEventJournal(Paths.get(sessionJournalDirectory));
+
+            long now = System.currentTimeMillis();
+            int restored = 0;
+            for (QuizSession session : journaled.values()) {
+                if (restoreSession(session, now)) {
+                    restored++;
+                }
+            }
+            log.info("Recovered {} of {} journaled quiz sessions in {} ms", restored, journaled.size(),
+                    (System.nanoTime() - started) / 1_000_000);
+
+            // Start from a snapshot of what was restored so the replayed segments can go
+            snapshotSessions();
+        } catch (IOException e) {
+            log.error("Failed to open the quiz session journal, sessions will not survive a restart", e);
+        }
+    }
+
+    @PreDestroy
+    public void closeSessionJournal() {
+        SessionEventJournal journal = sessionJournal;
+        if (journal != null) {
+            sessionJournal = null;
+            try {
+                journal.close();
+            } catch (IOException e) {
+                log.warn("Failed to close the quiz session journal", e);
+            }
+        }
     }
 
     @Override
@@ -43,32 +161,56 @@ public class QuizServiceImpl implements QuizService {
             throw new QuizException("A user with this Identification Number has already taken the quiz. Each ID can only participate once.");
         }
         
-        // Generate a unique session ID
-        String sessionId = UUID.randomUUID().toString();
+        // Draw the session's questions up front from the current snapshot of the selected bank
+        String questionBankName = request.getBank() != null && !request.getBank().trim().isEmpty()
+                ? request.getBank().trim() : null;
+        QuestionRepository questionBank = questionBankName != null
+                ? questionBankRegistry.getBank(questionBankName)
+                : questionCatalog.getQuestionRepository();
+        int[] questionSequence = drawQuestionSequence(questionBank.count(),
+                Math.min(MAX_QUESTIONS_PER_SESSION, questionBank.count()));
         
         // Create a new quiz session
+        long now = System.currentTimeMillis();
         QuizSession session = QuizSession.builder()
-                .sessionId(sessionId)
                 .userName(request.getUserName())
                 .iNumber(request.getINumber())
-                .questions(new ArrayList<>())
-                .currentQuestionId(null)
-                .currentAttempts(0)
-                .completedQuestions(new HashSet<>())
-                .correctAnswers(0)
-                .active(true)
-                .startTime(new Date())
+                .questionBankName(questionBankName)
+                .questionBank(questionBank)
+                .questionSequence(questionSequence)
+                .questionFingerprint(QuizSession.fingerprint(questionBank, questionSequence))
+                .state(QuizSession.initialState())
+                .startedAt(now)
+                .lastAccessedAt(now)
                 .build();
         
-        // Store the session
-        quizSessions.put(sessionId, session);
+        // Store the session in a shard with room, refusing new ones while the cap is reached
+        int shard = reserveSession();
+        if (shard < 0) {
+            rejectedStarts.increment();
+            throw new SessionCapacityException("Too many quizzes are in progress. Please try again shortly.",
+                    SESSION_CAPACITY_RETRY_AFTER_SECONDS);
+        }
+        String sessionId = SessionIds.newId(shard);
+        session.setSessionId(sessionId);
+        try {
+            sessionStore.save(session);
+        } catch (RuntimeException e) {
+            releaseSession(sessionId);
+            throw e;
+        }
+        if (sessionStore.holdsSessions()) {
+            sessionShards[shard].expiryWheel.schedule(sessionId, now + sessionIdleTtlMs);
+            journalSession(session);
+        }
         
         return StartQuizResponse.builder()
-                .sessionId(sessionId)
+                .sessionId(session.getSessionId())
                 .message("Quiz session started successfully")
                 .userName(request.getUserName())
                 .iNumber(request.getINumber())
                 .maxQuestions(MAX_QUESTIONS_PER_SESSION)
+                .bank(questionBankName)
                 .build();
     }
     
@@ -82,38 +224,39 @@ public class QuizServiceImpl implements QuizService {
         try {
             // Get the session
             QuizSession session = getValidSession(sessionId);
+            int[] questionSequence = session.getQuestionSequence();
             
-            // Check if the session has already completed the maximum number of questions
-            if (session.getCompletedQuestions().size() >= MAX_QUESTIONS_PER_SESSION) {
-                throw new QuizException("You have completed all questions for this quiz session");
-            }
-            
-            // If there's a current question and it's not completed, return it
-            if (session.getCurrentQuestionId() != null && 
-                !session.getCompletedQuestions().contains(session.getCurrentQuestionId())) {
-                Question currentQuestion = getQuestionById(session.getCurrentQuestionId());
-                return mapToQuestionResponse(currentQuestion, session);
-            }
-            
-            // Get a random question that hasn't been completed yet
-            List<Question> allQuestions = questionLoader.loadQuestions();
-            List<Question> availableQuestions = allQuestions.stream()
-                    .filter(q -> !session.getCompletedQuestions().contains(q.getId()))
-                    .collect(Collectors.toList());
-            
-            if (availableQuestions.isEmpty()) {
-                throw new QuizException("No more questions available");
+            // Decide from one state snapshot and retry if another request on the session changed it first
+            while (true) {
+                long state = session.getState();
+                if (!QuizSession.isActive(state)) {
+                    throw new QuizException("This quiz session has already ended");
+                }
+                
+                // Check if the session has already completed the maximum number of questions
+                if (QuizSession.completedCount(state) >= MAX_QUESTIONS_PER_SESSION) {
+                    throw new QuizException("You have completed all questions for this quiz session");
+                }
+                
+                // If there's a current question and it's not completed, return it
+                int currentSlot = QuizSession.currentSlot(state);
+                if (currentSlot >= 0) {
+                    Question currentQuestion = session.getQuestionBank().findByIndex(questionSequence[currentSlot]);
+                    return mapToQuestionResponse(currentQuestion, state, session.getSessionId());
+                }
+                
+                // Take the next question of the sequence drawn when the session started
+                int cursor = QuizSession.cursor(state);
+                if (cursor >= questionSequence.length) {
+                    throw new QuizException("No more questions available");
+                }
+                long advanced = QuizSession.advanced(state);
+                if (session.compareAndSetState(state, advanced)) {
+                    journalState(session, advanced);
+                    Question nextQuestion = session.getQuestionBank().findByIndex(questionSequence[cursor]);
+                    return mapToQuestionResponse(nextQuestion, advanced, session.getSessionId());
+                }
             }
-            
-            Random random = new Random();
-            Question randomQuestion = availableQuestions.get(random.nextInt(availableQuestions.size()));
-            
-            // Update the session
-            session.setCurrentQuestionId(randomQuestion.getId());
-            session.setCurrentAttempts(0);
-            quizSessions.put(sessionId, session);
-            
-            return mapToQuestionResponse(randomQuestion, session);
         } catch (QuizException e) {
             // Re-throw the original exception
             throw e;
@@ -127,6 +270,21 @@ public class QuizServiceImpl implements QuizService {
     
     @Override
     public ValidateAnswerResponse validateAnswer(ValidateAnswerRequest request) {
+        return validateAnswer(request, false);
+    }
+    
+    @Override
+    public ValidateAnswerResponse answerQuestion(ValidateAnswerRequest request) {
+        return validateAnswer(request, true);
+    }
+    
+    /**
+     * Checks an answer against the current question of the session
+     *
+     * @param advance whether to also serve the next question, in the same transition, once the
+     *                answered question is completed
+     */
+    private ValidateAnswerResponse validateAnswer(ValidateAnswerRequest request, boolean advance) {
         try {
             // Validate inputs
             if (request == null) {
@@ -147,83 +305,82 @@ public class QuizServiceImpl implements QuizService {
             
             QuizSession session = getValidSession(request.getSessionId());
             
-            // Check if the session has a current question
-            if (session.getCurrentQuestionId() == null) {
-                // If there's no current question, fetch a new one instead of throwing an error
-                getQuestion(request.getSessionId());
-                throw new QuizException("No active question found. A new question has been loaded.");
-            }
-            
-            // Check if the question ID matches the current question
-            if (!request.getQuestionId().equals(session.getCurrentQuestionId())) {
-                // Instead of error, try to handle this gracefully
-                // Get the current question to validate against
-                String currentQuestionId = session.getCurrentQuestionId();
-                throw new QuizException("This is not the current question for this session. Please reload to get the current question.");
-            }
-            
-            Question question = getQuestionById(request.getQuestionId());
-            
-            // Check if the question is already completed
-            if (session.getCompletedQuestions().contains(question.getId())) {
-                throw new QuizException("This question has already been completed");
+            // Compute the transition from one state snapshot and publish it with compare-and-set,
+            // so a double submit or a retry counts once and is judged against the state it raced with
+            CompiledQuestion question;
+            boolean isCorrect;
+            int attempts;
+            long updated;
+            int nextCursor;
+            while (true) {
+                long state = session.getState();
+                if (!QuizSession.isActive(state)) {
+                    throw new QuizException("This quiz session has already ended");
+                }
+                
+                // Check if the session has a current question
+                int currentSlot = QuizSession.currentSlot(state);
+                if (currentSlot < 0) {
+                    // A client-held session would get a new ID the client never sees, so it fetches itself
+                    if (!sessionStore.holdsSessions()) {
+                        throw new QuizException("No active question found. Please load the next question.");
+                    }
+                    // If there's no current question, fetch a new one instead of throwing an error
+                    getQuestion(request.getSessionId());
+                    throw new QuizException("No active question found. A new question has been loaded.");
+                }
+                
+                // Check if the question ID matches the current question
+                question = session.getQuestionBank().findCompiledByIndex(session.getQuestionSequence()[currentSlot]);
+                if (!request.getQuestionId().equals(question.getId())) {
+                    throw new QuizException("This is not the current question for this session. Please reload to get the current question.");
+                }
+                
+                // Check the answer; the question is completed when it is correct or out of attempts
+                isCorrect = question.isCorrect(request.getAnswerId());
+                attempts = QuizSession.attempts(state) + 1;
+                updated = isCorrect || attempts >= MAX_ATTEMPTS_PER_QUESTION
+                        ? QuizSession.completed(state, currentSlot, isCorrect)
+                        : QuizSession.withAttempts(state, attempts);
+                
+                // Serve the next question in the same step once this one is done, if any remain
+                nextCursor = -1;
+                if (advance && QuizSession.currentSlot(updated) < 0
+                        && QuizSession.completedCount(updated) < MAX_QUESTIONS_PER_SESSION
+                        && QuizSession.cursor(updated) < session.getQuestionSequence().length) {
+                    nextCursor = QuizSession.cursor(updated);
+                    updated = QuizSession.advanced(updated);
+                }
+                if (session.compareAndSetState(state, updated)) {
+                    break;
+                }
             }
-            
-            // Increment attempts
-            session.setCurrentAttempts(session.getCurrentAttempts() + 1);
-            
-            // Check if the answer is correct
-            boolean isCorrect = question.getOptions().stream()
-                    .filter(Option::isCorrect)
-                    .anyMatch(option -> option.getId().equals(request.getAnswerId()));
+            journalState(session, updated);
             
             ValidateAnswerResponse.ValidateAnswerResponseBuilder responseBuilder = ValidateAnswerResponse.builder()
+                    .sessionId(session.getSessionId())
                     .questionId(question.getId())
                     .correct(isCorrect)
-                    .attempts(session.getCurrentAttempts())
+                    .attempts(attempts)
                     .maxAttempts(MAX_ATTEMPTS_PER_QUESTION);
             
             if (isCorrect) {
-                // If correct, mark the question as completed and increment correct answers
-                session.getCompletedQuestions().add(question.getId());
-                session.setCorrectAnswers(session.getCorrectAnswers() + 1);
-                session.setCurrentQuestionId(null);
-                session.setCurrentAttempts(0);
-                
                 responseBuilder.message("Correct answer!");
-                responseBuilder.remainingQuestions(MAX_QUESTIONS_PER_SESSION - session.getCompletedQuestions().size());
+                responseBuilder.remainingQuestions(MAX_QUESTIONS_PER_SESSION - QuizSession.completedCount(updated));
+            } else if (attempts >= MAX_ATTEMPTS_PER_QUESTION) {
+                // Give the correct answer as feedback
+                responseBuilder.message(question.getAttemptsExhaustedMessage());
+                responseBuilder.correctAnswerId(question.getCorrectAnswerId());
+                responseBuilder.remainingQuestions(MAX_QUESTIONS_PER_SESSION - QuizSession.completedCount(updated));
             } else {
-                // If incorrect, check if max attempts reached
-                if (session.getCurrentAttempts() >= MAX_ATTEMPTS_PER_QUESTION) {
-                    // Mark the question as completed but don't increment correct answers
-                    session.getCompletedQuestions().add(question.getId());
-                    session.setCurrentQuestionId(null);
-                    session.setCurrentAttempts(0);
-                    
-                    // Get the correct answer for feedback
-                    String correctAnswerId = question.getOptions().stream()
-                            .filter(Option::isCorrect)
-                            .map(Option::getId)
-                            .findFirst()
-                            .orElse("");
-                    
-                    responseBuilder.message("Incorrect answer. You've used all attempts. The correct answer was: " + 
-                                            question.getOptions().stream()
-                                                    .filter(Option::isCorrect)
-                                                    .map(Option::getText)
-                                                    .findFirst()
-                                                    .orElse(""));
-                    responseBuilder.correctAnswerId(correctAnswerId);
-                    responseBuilder.remainingQuestions(MAX_QUESTIONS_PER_SESSION - session.getCompletedQuestions().size());
-                } else {
-                    responseBuilder.message("Incorrect answer. Please try again. Attempts remaining: " + 
-                                            (MAX_ATTEMPTS_PER_QUESTION - session.getCurrentAttempts()));
-                    responseBuilder.remainingAttempts(MAX_ATTEMPTS_PER_QUESTION - session.getCurrentAttempts());
-                }
+                int remainingAttempts = MAX_ATTEMPTS_PER_QUESTION - attempts;
+                responseBuilder.message(attemptsRemainingMessages[remainingAttempts]);
+                responseBuilder.remainingAttempts(remainingAttempts);
+            }
+            if (nextCursor >= 0) {
+                Question nextQuestion = session.getQuestionBank().findByIndex(session.getQuestionSequence()[nextCursor]);
+                responseBuilder.nextQuestion(mapToQuestionResponse(nextQuestion, updated, session.getSessionId()));
             }
-            
-            // Update the session
-            quizSessions.put(request.getSessionId(), session);
             
             return responseBuilder.build();
         } catch (QuizException e) {
@@ -237,18 +394,45 @@ public class QuizServiceImpl implements QuizService {
         }
     }
     
+    @Override
+    public byte[] prefetchQuestions(String sessionId) {
+        QuizSession session = getValidSession(sessionId);
+        long state = session.getState();
+        int[] questionSequence = session.getQuestionSequence();
+        int currentSlot = QuizSession.currentSlot(state);
+        
+        // Each question is serialized once per bank, so this only concatenates cached bytes
+        ByteArrayOutputStream json = new ByteArrayOutputStream(128 + 512 * questionSequence.length);
+        json.writeBytes(PREFETCH_SESSION_ID_FIELD);
+        json.writeBytes(JsonStringEncoder.getInstance().quoteAsUTF8(session.getSessionId()));
+        json.writeBytes(("\",\"maxAttempts\":" + MAX_ATTEMPTS_PER_QUESTION
+                + ",\"totalQuestions\":" + MAX_QUESTIONS_PER_SESSION
+                + ",\"completedQuestions\":" + QuizSession.completedCount(state)
+                + ",\"currentIndex\":" + (currentSlot >= 0 ? currentSlot : QuizSession.cursor(state))
+                + ",\"questions\":[").getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < questionSequence.length; i++) {
+            if (i > 0) {
+                json.write(',');
+            }
+            json.writeBytes(session.getQuestionBank().findCompiledByIndex(questionSequence[i]).getClientJson());
+        }
+        json.writeBytes(PREFETCH_END);
+        return json.toByteArray();
+    }
+    
     @Override
     public ScoreResponse getScore(String sessionId) {
         QuizSession session = getValidSession(sessionId);
+        long state = session.getState();
         
         return ScoreResponse.builder()
-                .sessionId(sessionId)
+                .sessionId(session.getSessionId())
                 .userName(session.getUserName())
                 .iNumber(session.getINumber())
-                .totalQuestions(session.getCompletedQuestions().size())
-                .correctAnswers(session.getCorrectAnswers())
-                .quizComplete(session.getCompletedQuestions().size() >= MAX_QUESTIONS_PER_SESSION)
-                .percentageScore(calculatePercentageScore(session))
+                .totalQuestions(QuizSession.completedCount(state))
+                .correctAnswers(QuizSession.correctAnswers(state))
+                .quizComplete(QuizSession.completedCount(state) >= MAX_QUESTIONS_PER_SESSION)
+                .percentageScore(calculatePercentageScore(state))
                 .build();
     }
 
@@ -272,18 +456,28 @@ public class QuizServiceImpl implements QuizService {
                     .build();
         }
 
-        // Mark the session as inactive
-        session.setActive(false);
-        session.setEndTime(new Date());
-        quizSessions.put(sessionId, session);
+        // Mark the session as inactive; only one of several concurrent end requests gets the results
+        long state;
+        do {
+            state = session.getState();
+            if (!QuizSession.isActive(state)) {
+                throw new QuizException("This quiz session has already ended");
+            }
+        } while (!session.compareAndSetState(state, QuizSession.ended(state)));
+        session.setEndedAt(System.currentTimeMillis());
+        if (sessionStore.holdsSessions()) {
+            journalEnd(session, QuizSession.ended(state));
+            // Ended sessions go sooner than idle ones; the idle entry finds it gone or reschedules
+            sessionShards[SessionIds.shardOf(sessionId)].expiryWheel.schedule(sessionId, expiryDeadline(session));
+        }
 
         return EndQuizResponse.builder()
                 .sessionId(sessionId)
                 .userName(session.getUserName())
                 .iNumber(session.getINumber())
-                .totalQuestions(session.getCompletedQuestions().size())
-                .correctAnswers(session.getCorrectAnswers())
-                .percentageScore(calculatePercentageScore(session))
+                .totalQuestions(QuizSession.completedCount(state))
+                .correctAnswers(QuizSession.correctAnswers(state))
+                .percentageScore(calculatePercentageScore(state))
                 .duration(calculateDuration(session))
                 .message("Quiz completed successfully")
                 .build();
@@ -294,50 +488,394 @@ public class QuizServiceImpl implements QuizService {
             throw new QuizException("Session ID cannot be empty");
         }
         
-        QuizSession session = quizSessions.get(sessionId);
+        QuizSession session = sessionStore.find(sessionId);
         if (session == null) {
             throw new QuizException("Invalid or expired session ID");
         }
         
+        // Sessions started on another instance come back without their question bank
+        if (session.getQuestionBank() == null && !attachQuestionBank(session)) {
+            throw new QuizException("Invalid or expired session ID");
+        }
+        
         // Check if session is active
         if (!session.isActive()) {
             throw new QuizException("This quiz session has already ended");
         }
         
+        session.setLastAccessedAt(System.currentTimeMillis());
         return session;
     }
     
-    private Question getQuestionById(String questionId) {
-        return questionLoader.loadQuestions().stream()
-                .filter(q -> q.getId().equals(questionId))
-                .findFirst()
-                .orElseThrow(() -> new QuizException("Question not found"));
+    /**
+     * Evicts sessions whose idle or post-end TTL has passed
+     */
+    @Scheduled(fixedDelay = SESSION_EXPIRY_TICK_MS)
+    public void expireSessions() {
+        int evicted = expireSessions(System.currentTimeMillis());
+        if (evicted > 0) {
+            log.debug("Evicted {} expired quiz sessions, {} still live", evicted, countLiveSessions());
+        }
     }
     
-    private QuestionResponse mapToQuestionResponse(Question question, QuizSession session) {
+    /**
+     * Advances the expiry wheel of every shard to the given time
+     *
+     * @param nowMillis the current time
+     * @return the number of sessions evicted
+     */
+    public int expireSessions(long nowMillis) {
+        int evicted = 0;
+        for (SessionShard shard : sessionShards) {
+            evicted += expireSessions(shard, nowMillis);
+        }
+        return evicted;
+    }
+    
+    private int expireSessions(SessionShard shard, long nowMillis) {
+        int[] evicted = new int[1];
+        shard.expiryWheel.advance(nowMillis, sessionId -> {
+            QuizSession session = sessionStore.find(sessionId);
+            if (session == null) {
+                // Already evicted through another entry
+                return;
+            }
+            long deadline = expiryDeadline(session);
+            if (deadline > nowMillis) {
+                // Touched or ended since this entry was scheduled
+                shard.expiryWheel.schedule(sessionId, deadline);
+                return;
+            }
+            if (sessionStore.remove(sessionId, session)) {
+                releaseSession(sessionId);
+                (session.isActive() ? shard.idleEvictions : shard.endedEvictions).increment();
+                evicted[0]++;
+                journalRemove(sessionId);
+            }
+        });
+        return evicted[0];
+    }
+    
+    /**
+     * Counts a new session against the cap in a shard with room, starting from a random shard.
+     * A shared store also gains and loses sessions through other instances, so its own count is
+     * checked instead.
+     *
+     * @return the shard, or -1 if the cap is reached
+     */
+    private int reserveSession() {
+        int first = ThreadLocalRandom.current().nextInt(sessionShards.length);
+        if (!sessionStore.holdsSessions()) {
+            return first;
+        }
+        if (sessionStore.isShared()) {
+            return sessionStore.size() < maxSessions ? first : -1;
+        }
+        for (int i = 0; i < sessionShards.length; i++) {
+            int shard = (first + i) & (sessionShards.length - 1);
+            if (reserveSession(shard)) {
+                return shard;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Counts a session against the cap in the given shard. Each shard takes an equal part of the
+     * cap, so the shards together never hold more than the cap.
+     *
+     * @return false if the shard is full
+     */
+    private boolean reserveSession(int shard) {
+        if (sessionStore.isShared()) {
+            return sessionStore.size() < maxSessions;
+        }
+        int capacity = maxSessions / sessionShards.length + (shard < maxSessions % sessionShards.length ? 1 : 0);
+        AtomicInteger live = sessionShards[shard].liveSessions;
+        if (live.incrementAndGet() > capacity) {
+            live.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+    
+    private void releaseSession(String sessionId) {
+        if (sessionStore.holdsSessions() && !sessionStore.isShared()) {
+            sessionShards[SessionIds.shardOf(sessionId)].liveSessions.decrementAndGet();
+        }
+    }
+    
+    private int countLiveSessions() {
+        if (sessionStore.isShared() || !sessionStore.holdsSessions()) {
+            return sessionStore.size();
+        }
+        int live = 0;
+        for (SessionShard shard : sessionShards) {
+            live += shard.liveSessions.get();
+        }
+        return live;
+    }
+    
+    private long expiryDeadline(QuizSession session) {
+        if (!session.isActive() && session.getEndedAt() > 0) {
+            return session.getEndedAt() + sessionEndedTtlMs;
+        }
+        return session.getLastAccessedAt() + sessionIdleTtlMs;
+    }
+    
+    /**
+     * Replaces the session journal with a snapshot once it has grown past the configured size,
+     * or straight away after a failed write so the sessions it lost are durable again
+     */
+    @Scheduled(fixedDelayString = "${quizmaster.session.journal.compact-interval-ms:60000}")
+    public void compactSessionJournal() {
+        SessionEventJournal journal = sessionJournal;
+        if (journal == null) {
+            return;
+        }
+        try {
+            if (sessionJournalDegraded.get()) {
+                snapshotSessions();
+                if (!journal.isFailed()) {
+                    sessionJournalDegraded.set(false);
+                    log.info("Quiz session journal recovered on a new segment");
+                }
+            } else if (journal.getSegmentBytes() >= sessionJournalSnapshotBytes) {
+                snapshotSessions();
+            }
+        } catch (IOException e) {
+            log.error("Failed to compact the quiz session journal", e);
+        }
+    }
+    
+    private void snapshotSessions() throws IOException {
+        SessionEventJournal journal = sessionJournal;
+        // Sessions are read after the rotation, so the new segment holds everything the snapshot misses
+        long segment = journal.rotate();
+        int written = journal.writeSnapshot(segment, sessionStore::forEach);
+        log.debug("Wrote a snapshot of {} quiz sessions to the session journal", written);
+    }
+    
+    /**
+     * Puts a journaled session back in the store against the current question bank
+     *
+     * @return false if the session has expired or no longer fits the bank
+     */
+    private boolean restoreSession(QuizSession session, long nowMillis) {
+        if (expiryDeadline(session) <= nowMillis || !attachQuestionBank(session)) {
+            return false;
+        }
+
+        int shard = SessionIds.shardOf(session.getSessionId());
+        if (!reserveSession(shard)) {
+            return false;
+        }
+        try {
+            sessionStore.save(session);
+        } catch (RuntimeException e) {
+            releaseSession(session.getSessionId());
+            log.warn("Dropping journaled quiz session {}: {}", session.getSessionId(), e.getMessage());
+            return false;
+        }
+        sessionShards[shard].expiryWheel.schedule(session.getSessionId(), expiryDeadline(session));
+        return true;
+    }
+    
+    /**
+     * Looks up the question bank of a session that was stored elsewhere by its name
+     *
+     * @return false if the bank is unavailable or no longer holds the session's questions
+     */
+    private boolean attachQuestionBank(QuizSession session) {
+        QuestionRepository questionBank;
+        try {
+            questionBank = session.getQuestionBankName() != null
+                    ? questionBankRegistry.getBank(session.getQuestionBankName())
+                    : questionCatalog.getQuestionRepository();
+        } catch (RuntimeException e) {
+            log.warn("Cannot resume quiz session {}: question bank {} is unavailable",
+                    session.getSessionId(), session.getQuestionBankName());
+            return false;
+        }
+        // Positions refer to the bank as it was when the session started; give up if it shrank
+        int[] questionSequence = session.getQuestionSequence();
+        for (int position : questionSequence) {
+            if (position >= questionBank.count()) {
+                return false;
+            }
+        }
+        // A delete and an add keep the size but move questions, so the positions must still hold the same IDs
+        long fingerprint = session.getQuestionFingerprint();
+        if (fingerprint != 0 && fingerprint != QuizSession.fingerprint(questionBank, questionSequence)) {
+            log.info("Cannot resume quiz session {}: its questions have moved in question bank {}",
+                    session.getSessionId(), session.getQuestionBankName());
+            return false;
+        }
+        session.setQuestionBank(questionBank);
+        return true;
+    }
+    
+    // A journal failure is logged rather than failing the request; the session only loses durability
+    private void journalSession(QuizSession session) {
+        SessionEventJournal journal = sessionJournal;
+        if (journal != null) {
+            try {
+                journal.appendSession(session);
+            } catch (IOException e) {
+                journalFailed("the start", session.getSessionId(), e);
+            }
+        }
+    }
+    
+    private void journalState(QuizSession session, long state) {
+        SessionEventJournal journal = sessionJournal;
+        if (journal != null) {
+            try {
+                journal.appendState(session.getSessionId(), state, session.getLastAccessedAt());
+            } catch (IOException e) {
+                journalFailed("progress", session.getSessionId(), e);
+            }
+        }
+    }
+    
+    private void journalEnd(QuizSession session, long state) {
+        SessionEventJournal journal = sessionJournal;
+        if (journal != null) {
+            try {
+                journal.appendEnd(session.getSessionId(), state, session.getEndedAt());
+            } catch (IOException e) {
+                journalFailed("the end", session.getSessionId(), e);
+            }
+        }
+    }
+    
+    private void journalRemove(String sessionId) {
+        SessionEventJournal journal = sessionJournal;
+        if (journal != null) {
+            try {
+                journal.appendRemove(sessionId);
+            } catch (IOException e) {
+                journalFailed("eviction", sessionId, e);
+            }
+        }
+    }
+    
+    // Logs the failure that degraded the journal; the appends refused after it only at debug
+    private void journalFailed(String event, String sessionId, IOException e) {
+        if (sessionJournalDegraded.compareAndSet(false, true)) {
+            log.warn("Failed to journal {} of quiz session {}, journaling is suspended until the next compaction",
+                    event, sessionId, e);
+        } else {
+            log.debug("Failed to journal {} of quiz session {}: {}", event, sessionId, e.getMessage());
+        }
+    }
+    
+    @Override
+    public SessionStatsResponse getSessionStats() {
+        List<SessionStatsResponse.ShardStats> shards = new ArrayList<>(sessionShards.length);
+        int scheduledExpiries = 0;
+        long idleEvictions = 0;
+        long endedEvictions = 0;
+        for (SessionShard shard : sessionShards) {
+            SessionStatsResponse.ShardStats stats = new SessionStatsResponse.ShardStats(shard.liveSessions.get(),
+                    shard.expiryWheel.size(), shard.idleEvictions.sum(), shard.endedEvictions.sum());
+            shards.add(stats);
+            scheduledExpiries += stats.getScheduledExpiries();
+            idleEvictions += stats.getIdleEvictions();
+            endedEvictions += stats.getEndedEvictions();
+        }
+        return SessionStatsResponse.builder()
+                .liveSessions(countLiveSessions())
+                .maxSessions(maxSessions)
+                .scheduledExpiries(scheduledExpiries)
+                .idleEvictions(idleEvictions)
+                .endedEvictions(endedEvictions)
+                .rejectedStarts(rejectedStarts.sum())
+                .journalDegraded(sessionJournalDegraded.get())
+                .shards(shards)
+                .build();
+    }
+    
+    /**
+     * Draws distinct question positions with a partial Fisher-Yates shuffle over the virtual array
+     * 0..bankSize-1. Only the displaced slots are tracked, so the cost depends on the number of
+     * questions drawn rather than on the size of the bank.
+     */
+    private static int[] drawQuestionSequence(int bankSize, int count) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int[] sequence = new int[count];
+        int[] swappedSlots = new int[count];
+        int[] swappedValues = new int[count];
+        int swapped = 0;
+
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(bankSize - i);
+            int valueAtJ = j;
+            int valueAtI = i;
+            int slotJ = -1;
+            for (int k = 0; k < swapped; k++) {
+                if (swappedSlots[k] == j) {
+                    valueAtJ = swappedValues[k];
+                    slotJ = k;
+                }
+                if (swappedSlots[k] == i) {
+                    valueAtI = swappedValues[k];
+                }
+            }
+
+            sequence[i] = valueAtJ;
+            // Slot i is never read again, so only slot j needs to remember the value moved into it
+            if (slotJ >= 0) {
+                swappedValues[slotJ] = valueAtI;
+            } else {
+                swappedSlots[swapped] = j;
+                swappedValues[swapped] = valueAtI;
+                swapped++;
+            }
+        }
+        return sequence;
+    }
+    
+    private QuestionResponse mapToQuestionResponse(Question question, long state, String sessionId) {
         return QuestionResponse.builder()
+                .sessionId(sessionId)
                 .questionId(question.getId())
                 .text(question.getText())
                 .options(question.getOptions().stream()
                         .map(option -> new QuestionResponse.OptionDto(option.getId(), option.getText()))
                         .collect(Collectors.toList()))
-                .attempts(session.getCurrentAttempts())
+                .attempts(QuizSession.attempts(state))
                 .maxAttempts(MAX_ATTEMPTS_PER_QUESTION)
-                .completedQuestions(session.getCompletedQuestions().size())
+                .completedQuestions(QuizSession.completedCount(state))
                 .totalQuestions(MAX_QUESTIONS_PER_SESSION)
                 .build();
     }
     
-    private double calculatePercentageScore(QuizSession session) {
-        if (session.getCompletedQuestions().isEmpty()) {
+    private double calculatePercentageScore(long state) {
+        int completed = QuizSession.completedCount(state);
+        if (completed == 0) {
             return 0.0;
         }
-        return (double) session.getCorrectAnswers() / session.getCompletedQuestions().size() * 100;
+        return (double) QuizSession.correctAnswers(state) / completed * 100;
     }
     
     private long calculateDuration(QuizSession session) {
-        Date endTime = session.getEndTime() != null ? session.getEndTime() : new Date();
-        return (endTime.getTime() - session.getStartTime().getTime()) / 1000; // Duration in seconds
+        long endedAt = session.getEndedAt() > 0 ? session.getEndedAt() : System.currentTimeMillis();
+        return (endedAt - session.getStartedAt()) / 1000; // Duration in seconds
+    }
+
+    /**
+     * Expiry and counters of the sessions whose ID carries one shard index
+     */
+    private static final class SessionShard {
+        private final HashedTimingWheel<String> expiryWheel;
+        private final AtomicInteger liveSessions = new AtomicInteger();
+        private final LongAdder idleEvictions = new LongAdder();
+        private final LongAdder endedEvictions = new LongAdder();
+
+        private SessionShard(long nowMillis) {
+            this.expiryWheel = new HashedTimingWheel<>(SESSION_EXPIRY_TICK_MS, SESSION_EXPIRY_WHEEL_SIZE, nowMillis);
+        }
     }
 
 // Add implementation for getSessionUserName
@@ -3,128 +3,281 @@ package com.quizmaster.util;
 import com.quizmaster.exception.QuizException;
 import com.quizmaster.model.Option;
 import com.quizmaster.model.Question;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import com.quizmaster.util.StreamingXlsxReader.SheetCell;
+import com.quizmaster.util.StreamingXlsxReader.SheetRow;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Component
+@Slf4j
 public class ExcelQuestionLoader {
-    
+
     @Value("${questions.excel-path:file:./questions.xlsx}")
     private Resource questionsExcelResource;
-    
+
+    @Value("${questions.snapshot.enabled:true}")
+    private boolean snapshotEnabled = true;
+
+    /**
+     * Gets the configured questions file, whether or not it exists yet
+     *
+     * @return the configured file, or null if the configured resource is not a file
+     */
+    public File getQuestionsFile() {
+        try {
+            return questionsExcelResource.getFile();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the external questions file if it exists
+     *
+     * @return the external file, or null if questions are served from the classpath
+     */
+    public File getExternalFile() {
+        File externalFile = getQuestionsFile();
+        return externalFile != null && externalFile.exists() ? externalFile : null;
+    }
+
     /**
      * Loads questions from the Excel file in the same directory as the JAR file
-     * If the file doesn't exist, will fall back to classpath resource
-     * 
+     * If the file doesn't exist, will fall back to classpath resource.
+     * An up-to-date binary snapshot of the external file is used instead of parsing it.
+     *
      * @return A list of questions with options
      */
     public List<Question> loadQuestions() {
         List<Question> questions = new ArrayList<>();
-        
-        try {
-            // Try to load from external file first
-            File externalFile = null;
-            Workbook workbook = null;
-            
+
+        // Try to load from external file first
+        File externalFile = getExternalFile();
+        if (externalFile != null) {
             try {
-                externalFile = questionsExcelResource.getFile();
-                if (externalFile.exists()) {
-                    // External file exists, use it
-                    workbook = WorkbookFactory.create(new FileInputStream(externalFile));
-                }
+                questions.addAll(loadExternalQuestions(externalFile));
             } catch (IOException e) {
-                // If external file can't be accessed, fall back to classpath
-                workbook = null;
+                // If external file can't be read, fall back to classpath
+                questions.clear();
+                externalFile = null;
             }
-            
-            // If external file doesn't exist or couldn't be loaded, try classpath resource
-            if (workbook == null) {
-                try (InputStream is = new ClassPathResource("questions.xlsx").getInputStream()) {
-                    workbook = new XSSFWorkbook(is);
-                }
+        }
+
+        // If external file doesn't exist or couldn't be loaded, try classpath resource
+        if (externalFile == null) {
+            try (InputStream is = new ClassPathResource("questions.xlsx").getInputStream()) {
+                readQuestions(is, questions::add);
+            } catch (IOException e) {
+                throw new QuizException("Error loading questions from Excel file", e);
             }
-            
-            if (workbook != null) {
-                Sheet sheet = workbook.getSheetAt(0);
-                
-                // Skip the header row
-                for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                    Row row = sheet.getRow(i);
-                    if (row == null) continue;
-                    
-                    String questionId = getCellStringValue(row, 0);
-                    String questionText = getCellStringValue(row, 1);
-                    
-                    if (questionText == null || questionText.isEmpty()) continue;
-                    
-                    // Create options based on our Excel format (option ID, text, correct flag for each option)
-                    List<Option> options = new ArrayList<>();
-                    
-                    // Process 4 options (3 columns each: ID, Text, Correct flag)
-                    for (int optionIdx = 0; optionIdx < 4; optionIdx++) {
-                        int baseCol = 2 + (optionIdx * 3); // Starting from column 2 (Option1_ID)
-                        
-                        String optionId = getCellStringValue(row, baseCol);
-                        String optionText = getCellStringValue(row, baseCol + 1);
-                        boolean isCorrect = isCellValueTrue(row, baseCol + 2);
-                        
-                        if (optionText != null && !optionText.isEmpty()) {
-                            options.add(Option.builder()
-                                    .id(optionId)
-                                    .text(optionText)
-                                    .correct(isCorrect)
-                                    .build());
-                        }
-                    }
-                    
-                    if (options.size() != 4) {
-                        throw new QuizException("Question must have exactly 4 options: " + questionText);
-                    }
-                    
-                    if (options.stream().noneMatch(Option::isCorrect)) {
-                        throw new QuizException("Question must have at least one correct answer: " + questionText);
-                    }
-                    
-                    questions.add(Question.builder()
-                            .id(questionId)
-                            .text(questionText)
-                            .options(options)
-                            .build());
-                }
-                
-                // Close the workbook
-                try {
-                    workbook.close();
-                } catch (IOException e) {
-                    // Ignore close errors
+        }
+
+        if (questions.isEmpty()) {
+            throw new QuizException("No questions found in the Excel file");
+        }
+
+        return questions;
+    }
+
+    /**
+     * Loads questions from a workbook resource, using its binary snapshot when it is a file
+     *
+     * @param resource The questions workbook
+     * @return A list of questions with options
+     */
+    public List<Question> loadQuestions(Resource resource) {
+        List<Question> questions = new ArrayList<>();
+        try {
+            if (resource.isFile()) {
+                questions.addAll(loadExternalQuestions(resource.getFile()));
+            } else {
+                try (InputStream is = resource.getInputStream()) {
+                    readQuestions(is, questions::add);
                 }
             }
         } catch (IOException e) {
-            throw new QuizException("Error loading questions from Excel file", e);
+            throw new QuizException("Error loading questions from Excel file: " + resource.getDescription(), e);
         }
-        
+
         if (questions.isEmpty()) {
-            throw new QuizException("No questions found in the Excel file");
+            throw new QuizException("No questions found in the Excel file: " + resource.getDescription());
         }
-        
+
         return questions;
     }
-    
-    private String getCellStringValue(Row row, int cellIndex) {
-        Cell cell = row.getCell(cellIndex);
+
+    /**
+     * Loads questions from a specific Excel file
+     *
+     * @param file The questions workbook
+     * @return A list of questions with options
+     */
+    public List<Question> loadQuestions(File file) {
+        List<Question> questions = new ArrayList<>();
+        try {
+            readQuestions(file, questions::add);
+        } catch (IOException e) {
+            throw new QuizException("Error loading questions from Excel file: " + file.getName(), e);
+        }
+
+        if (questions.isEmpty()) {
+            throw new QuizException("No questions found in the Excel file: " + file.getName());
+        }
+
+        return questions;
+    }
+
+    /**
+     * Writes the binary snapshot of questions that were just written to an Excel file
+     *
+     * @param file The questions workbook the questions were written to
+     * @param questions The questions as written
+     * @throws IOException If the workbook cannot be read or the snapshot cannot be written
+     */
+    public void writeSnapshot(File file, List<Question> questions) throws IOException {
+        if (!snapshotEnabled || questions.isEmpty()) {
+            return;
+        }
+        QuestionBankSnapshot.write(QuestionBankSnapshot.snapshotPathFor(file), questions,
+                file.length(), QuestionBankSnapshot.checksum(file.toPath()));
+    }
+
+    /**
+     * Checks that a question has the shape every loaded question must have
+     *
+     * @param question The question to check
+     * @throws QuizException If the question is not valid
+     */
+    public void validateQuestion(Question question) {
+        List<Option> options = question.getOptions();
+        if (options == null || options.size() != 4) {
+            throw new QuizException("Question must have exactly 4 options: " + question.getText());
+        }
+
+        for (Option option : options) {
+            if (option.getText() == null || option.getText().isEmpty()) {
+                throw new QuizException("Question must have exactly 4 options: " + question.getText());
+            }
+        }
+
+        if (options.stream().noneMatch(Option::isCorrect)) {
+            throw new QuizException("Question must have at least one correct answer: " + question.getText());
+        }
+    }
+
+    /**
+     * Streams the questions of an Excel file to a consumer one row at a time
+     *
+     * @param file The questions workbook
+     * @param consumer Receives each parsed question
+     * @throws IOException If the workbook cannot be read
+     */
+    public void readQuestions(File file, Consumer<Question> consumer) throws IOException {
+        StreamingXlsxReader.read(file, null, row -> handleRow(row, consumer));
+    }
+
+    /**
+     * Streams the questions of an Excel workbook to a consumer one row at a time
+     *
+     * @param in The questions workbook stream
+     * @param consumer Receives each parsed question
+     * @throws IOException If the workbook cannot be read
+     */
+    public void readQuestions(InputStream in, Consumer<Question> consumer) throws IOException {
+        StreamingXlsxReader.read(in, null, row -> handleRow(row, consumer));
+    }
+
+    private List<Question> loadExternalQuestions(File file) throws IOException {
+        List<Question> questions = new ArrayList<>();
+        if (!snapshotEnabled) {
+            readQuestions(file, questions::add);
+            return questions;
+        }
+
+        long length = file.length();
+        long checksum = QuestionBankSnapshot.checksum(file.toPath());
+        Path snapshotPath = QuestionBankSnapshot.snapshotPathFor(file);
+        try {
+            List<Question> snapshot = QuestionBankSnapshot.read(snapshotPath, length, checksum);
+            if (snapshot != null && !snapshot.isEmpty()) {
+                log.debug("Loaded {} questions from snapshot {}", snapshot.size(), snapshotPath);
+                return snapshot;
+            }
+        } catch (IOException e) {
+            log.warn("Could not read question snapshot {}, parsing the workbook instead", snapshotPath, e);
+        }
+
+        readQuestions(file, questions::add);
+        if (!questions.isEmpty()) {
+            try {
+                QuestionBankSnapshot.write(snapshotPath, questions, length, checksum);
+            } catch (IOException e) {
+                // Not fatal, e.g. a read-only directory: the next start simply parses the workbook again
+                log.warn("Could not write question snapshot {}", snapshotPath, e);
+            }
+        }
+        return questions;
+    }
+
+    private void handleRow(SheetRow row, Consumer<Question> consumer) {
+        // Skip the header row
+        if (row.getRowNum() == 0) return;
+
+        String questionId = getCellStringValue(row, 0);
+        String questionText = getCellStringValue(row, 1);
+
+        if (questionText == null || questionText.isEmpty()) return;
+
+        // Rows without an ID are addressed by their row number
+        if (questionId == null || questionId.isEmpty()) {
+            questionId = String.valueOf(row.getRowNum());
+        }
+
+        // Create options based on our Excel format (option ID, text, correct flag for each option)
+        List<Option> options = new ArrayList<>();
+
+        // Process 4 options (3 columns each: ID, Text, Correct flag)
+        for (int optionIdx = 0; optionIdx < 4; optionIdx++) {
+            int baseCol = 2 + (optionIdx * 3); // Starting from column 2 (Option1_ID)
+
+            String optionId = getCellStringValue(row, baseCol);
+            String optionText = getCellStringValue(row, baseCol + 1);
+            boolean isCorrect = isCellValueTrue(row, baseCol + 2);
+
+            if (optionText != null && !optionText.isEmpty()) {
+                options.add(Option.builder()
+                        .id(optionId)
+                        .text(optionText)
+                        .correct(isCorrect)
+                        .build());
+            }
+        }
+
+        Question question = Question.builder()
+                .id(questionId)
+                .text(questionText)
+                .options(options)
+                .build();
+        validateQuestion(question);
+
+        consumer.accept(question);
+    }
+
+    private String getCellStringValue(SheetRow row, int cellIndex) {
+        SheetCell cell = row.getCell(cellIndex);
         if (cell == null) return null;
-        
+
         switch (cell.getCellType()) {
             case STRING:
                 return cell.getStringCellValue();
@@ -136,11 +289,11 @@ public class ExcelQuestionLoader {
                 return null;
         }
     }
-    
-    private boolean isCellValueTrue(Row row, int cellIndex) {
-        Cell cell = row.getCell(cellIndex);
+
+    private boolean isCellValueTrue(SheetRow row, int cellIndex) {
+        SheetCell cell = row.getCell(cellIndex);
         if (cell == null) return false;
-        
+
         switch (cell.getCellType()) {
             case STRING:
                 String value = cell.getStringCellValue();
@@ -0,0 +1,106 @@
+package com.quizmaster.util;
+
+import com.quizmaster.model.Option;
+import com.quizmaster.model.Question;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * Writes a question bank to an Excel file in the format read by {@link ExcelQuestionLoader}
+ */
+@Component
+public class ExcelQuestionWriter {
+
+    // Column widths in 1/256ths of a character; autoSizeColumn measures every cell and dominates large saves
+    private static final int ID_COLUMN_WIDTH = 8 * 256;
+    private static final int QUESTION_COLUMN_WIDTH = 60 * 256;
+    private static final int OPTION_ID_COLUMN_WIDTH = 12 * 256;
+    private static final int OPTION_TEXT_COLUMN_WIDTH = 30 * 256;
+    private static final int OPTION_CORRECT_COLUMN_WIDTH = 16 * 256;
+
+    /**
+     * Writes the questions to an Excel file, replacing it atomically so readers never see a partial workbook
+     *
+     * @param file The questions workbook
+     * @param questions The questions to write
+     * @throws IOException If the workbook cannot be written
+     */
+    public void writeQuestions(File file, List<Question> questions) throws IOException {
+        Path target = file.toPath().toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Questions");
+
+            // Create header row
+            Row headerRow = sheet.createRow(0);
+            headerRow.createCell(0).setCellValue("QID");
+            headerRow.createCell(1).setCellValue("Question");
+
+            // Option headers (ID, Text, Correct for each option)
+            for (int i = 0; i < 4; i++) {
+                int baseCol = 2 + (i * 3);
+                headerRow.createCell(baseCol).setCellValue("Option" + (i+1) + "_ID");
+                headerRow.createCell(baseCol + 1).setCellValue("Option" + (i+1) + "_Text");
+                headerRow.createCell(baseCol + 2).setCellValue("Option" + (i+1) + "_Correct");
+            }
+
+            // Create data rows
+            int rowNum = 1;
+            for (Question question : questions) {
+                Row row = sheet.createRow(rowNum++);
+
+                // Question ID
+                row.createCell(0).setCellValue(question.getId());
+
+                // Question text
+                row.createCell(1).setCellValue(question.getText());
+
+                // Options
+                List<Option> options = question.getOptions();
+                for (int i = 0; i < options.size() && i < 4; i++) {
+                    Option option = options.get(i);
+                    int baseCol = 2 + (i * 3);
+
+                    // Option ID
+                    row.createCell(baseCol).setCellValue(option.getId());
+
+                    // Option text
+                    row.createCell(baseCol + 1).setCellValue(option.getText());
+
+                    // Option correct flag
+                    row.createCell(baseCol + 2).setCellValue(option.isCorrect());
+                }
+            }
+
+            // Fixed column widths
+            sheet.setColumnWidth(0, ID_COLUMN_WIDTH);
+            sheet.setColumnWidth(1, QUESTION_COLUMN_WIDTH);
+            for (int i = 0; i < 4; i++) {
+                int baseCol = 2 + (i * 3);
+                sheet.setColumnWidth(baseCol, OPTION_ID_COLUMN_WIDTH);
+                sheet.setColumnWidth(baseCol + 1, OPTION_TEXT_COLUMN_WIDTH);
+                sheet.setColumnWidth(baseCol + 2, OPTION_CORRECT_COLUMN_WIDTH);
+            }
+
+            // Write to a temporary file first, then swap it in
+            try (OutputStream fileOut = Files.newOutputStream(temp)) {
+                workbook.write(fileOut);
+            }
+        }
+
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,125 @@
+package com.quizmaster.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel holding deadlines for keys. Scheduling is O(1) and advancing only visits
+ * the buckets of the ticks that elapsed, so the cost of expiry does not grow with the number of
+ * keys that are not yet due. Deadlines are rounded up to the tick, so a key fires at most one tick late.
+ * <p>
+ * There is no cancel: callers look the key up again when it fires and reschedule it if its
+ * deadline moved, which keeps touches on the hot path free of any wheel operation.
+ *
+ * @param <K> the key type
+ */
+public final class HashedTimingWheel<K> {
+
+    private final long tickMillis;
+    private final long originMillis;
+    private final ArrayDeque<Timeout<K>>[] buckets;
+    private final int mask;
+
+    // Last tick whose bucket has been processed, guarded by this
+    private long processedTick;
+    private int size;
+
+    /**
+     * @param tickMillis the duration of one tick
+     * @param wheelSize the number of buckets, rounded up to a power of two
+     * @param nowMillis the current time, which becomes tick 0
+     */
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(long tickMillis, int wheelSize, long nowMillis) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick duration and wheel size must be positive");
+        }
+        int buckets = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.originMillis = nowMillis;
+        this.buckets = new ArrayDeque[buckets];
+        for (int i = 0; i < buckets; i++) {
+            this.buckets[i] = new ArrayDeque<>();
+        }
+        this.mask = buckets - 1;
+    }
+
+    /**
+     * Schedules a key to fire once its deadline has passed
+     *
+     * @param key the key
+     * @param deadlineMillis the deadline; a deadline in the past fires on the next advance
+     */
+    public synchronized void schedule(K key, long deadlineMillis) {
+        long tick = Math.max(ceilTick(deadlineMillis), processedTick + 1);
+        buckets[(int) (tick & mask)].addLast(new Timeout<>(key, tick));
+        size++;
+    }
+
+    /**
+     * Advances the wheel to the given time and hands every key that became due to the callback.
+     * The callback runs outside the wheel's lock and may reschedule the key.
+     *
+     * @param nowMillis the current time
+     * @param expired receives each due key
+     * @return the number of keys that fired
+     */
+    public int advance(long nowMillis, Consumer<K> expired) {
+        List<K> due = new ArrayList<>();
+        synchronized (this) {
+            long targetTick = floorTick(nowMillis);
+            if (targetTick <= processedTick) {
+                return 0;
+            }
+            // After a long pause every bucket is visited once rather than once per elapsed tick
+            long ticks = Math.min(targetTick - processedTick, buckets.length);
+            for (long t = 1; t <= ticks; t++) {
+                Iterator<Timeout<K>> timeouts = buckets[(int) ((processedTick + t) & mask)].iterator();
+                while (timeouts.hasNext()) {
+                    Timeout<K> timeout = timeouts.next();
+                    if (timeout.tick <= targetTick) {
+                        timeouts.remove();
+                        due.add(timeout.key);
+                    }
+                }
+            }
+            processedTick = targetTick;
+            size -= due.size();
+        }
+
+        for (K key : due) {
+            expired.accept(key);
+        }
+        return due.size();
+    }
+
+    /**
+     * Gets the number of scheduled deadlines, counting a key once per pending schedule
+     *
+     * @return the number of pending deadlines
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private long ceilTick(long millis) {
+        return Math.floorDiv(millis - originMillis + tickMillis - 1, tickMillis);
+    }
+
+    private long floorTick(long millis) {
+        return Math.floorDiv(millis - originMillis, tickMillis);
+    }
+
+    private static final class Timeout<K> {
+        private final K key;
+        private final long tick;
+
+        private Timeout(K key, long tick) {
+            this.key = key;
+            this.tick = tick;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.quizmaster.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sorted set that also answers positional queries. Every link of the skip list records how many
+ * elements it spans, so finding an element's position or the element at a position costs
+ * O(log n) expected, the same as an insert or a removal, and a range of k elements from any
+ * position costs O(log n + k).
+ * <p>
+ * Elements the comparator considers equal are the same element, so the comparator must be a total
+ * order over the elements held. Not thread-safe; callers guard it.
+ *
+ * @param <T> the element type
+ */
+public final class IndexableSkipList<T> {
+
+    private static final int MAX_LEVEL = 32;
+
+    private final Comparator<? super T> comparator;
+    private final Node<T> head = new Node<>(null, MAX_LEVEL);
+    private int level = 1;
+    private int size;
+
+    /**
+     * @param comparator the order of the elements
+     */
+    public IndexableSkipList(Comparator<? super T> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * Adds an element unless an equal one is held
+     *
+     * @return true if the element was added
+     */
+    @SuppressWarnings("unchecked")
+    public boolean add(T value) {
+        Node<T>[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+        Node<T> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.next[i] != null && comparator.compare(x.next[i].value, value) < 0) {
+                rank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        if (x.next[0] != null && comparator.compare(x.next[0].value, value) == 0) {
+            return false;
+        }
+
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) {
+            for (int i = level; i < nodeLevel; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                head.span[i] = size;
+            }
+            level = nodeLevel;
+        }
+        Node<T> node = new Node<>(value, nodeLevel);
+        for (int i = 0; i < nodeLevel; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = rank[0] - rank[i] + 1;
+        }
+        for (int i = nodeLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes the element equal to the given one
+     *
+     * @return true if an element was removed
+     */
+    @SuppressWarnings("unchecked")
+    public boolean remove(T value) {
+        Node<T>[] update = new Node[MAX_LEVEL];
+        Node<T> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && comparator.compare(x.next[i].value, value) < 0) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        Node<T> node = x.next[0];
+        if (node == null || comparator.compare(node.value, value) != 0) {
+            return false;
+        }
+
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == node) {
+                update[i].span[i] += node.span[i] - 1;
+                update[i].next[i] = node.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            head.span[level - 1] = 0;
+            level--;
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Gets the position of the element equal to the given one
+     *
+     * @return the zero-based position, or -1 if no such element is held
+     */
+    public int indexOf(T value) {
+        Node<T> x = head;
+        int rank = 0;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && comparator.compare(x.next[i].value, value) <= 0) {
+                rank += x.span[i];
+                x = x.next[i];
+            }
+            if (x != head && comparator.compare(x.value, value) == 0) {
+                return rank - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the element at a position
+     *
+     * @param index the zero-based position
+     * @return the element
+     * @throws IndexOutOfBoundsException if there is no element at the position
+     */
+    public T get(int index) {
+        return nodeAt(index).value;
+    }
+
+    /**
+     * Gets the elements between two positions, in order
+     *
+     * @param fromIndex the first position, inclusive
+     * @param toIndex the last position, exclusive; clipped to the size
+     * @return a new list of the elements
+     */
+    public List<T> range(int fromIndex, int toIndex) {
+        int from = Math.max(0, fromIndex);
+        int to = Math.min(size, toIndex);
+        List<T> values = new ArrayList<>(Math.max(0, to - from));
+        if (from >= to) {
+            return values;
+        }
+        for (Node<T> x = nodeAt(from); values.size() < to - from; x = x.next[0]) {
+            values.add(x.value);
+        }
+        return values;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        for (int i = 0; i < MAX_LEVEL; i++) {
+            head.next[i] = null;
+            head.span[i] = 0;
+        }
+        level = 1;
+        size = 0;
+    }
+
+    private Node<T> nodeAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        int target = index + 1;
+        int traversed = 0;
+        Node<T> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && traversed + x.span[i] <= target) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+            if (traversed == target) {
+                return x;
+            }
+        }
+        throw new IllegalStateException("Skip list spans are inconsistent");
+    }
+
+    // Promotes a node one level with probability 1/4, enough levels for billions of elements
+    private static int randomLevel() {
+        int nodeLevel = 1;
+        while (nodeLevel < MAX_LEVEL && (ThreadLocalRandom.current().nextInt() & 3) == 0) {
+            nodeLevel++;
+        }
+        return nodeLevel;
+    }
+
+    private static final class Node<T> {
+
+        final T value;
+        final Node<T>[] next;
+        // Number of positions moved by following next at the same level
+        final int[] span;
+
+        @SuppressWarnings("unchecked")
+        Node(T value, int level) {
+            this.value = value;
+            this.next = new Node[level];
+            this.span = new int[level];
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.quizmaster.util;
+
+import com.quizmaster.model.Option;
+import com.quizmaster.model.Question;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Compact binary form of a question bank, stored next to the source workbook.
+ * The snapshot holds a deduplicated string table, the option arrays, a bitmask of
+ * correct options per question and the CRC32C of the workbook it was compiled from,
+ * so startup can skip POI entirely while the workbook is unchanged.
+ *
+ * Layout (big-endian): magic, format version, source length, source checksum,
+ * string table, questions, then a CRC32C of everything before it.
+ */
+public final class QuestionBankSnapshot {
+
+    private static final int MAGIC = 0x51424E4B; // "QBNK"
+    private static final short FORMAT_VERSION = 1;
+    private static final String EXTENSION = ".qbin";
+    private static final int NULL_STRING = -1;
+
+    private QuestionBankSnapshot() {
+    }
+
+    /**
+     * Gets the snapshot path for a source workbook
+     *
+     * @param source the questions workbook
+     * @return the snapshot file next to it
+     */
+    public static Path snapshotPathFor(File source) {
+        return source.toPath().resolveSibling(source.getName() + EXTENSION);
+    }
+
+    /**
+     * Computes the CRC32C checksum of a file
+     *
+     * @param file the file to checksum
+     * @return the checksum value
+     * @throws IOException if the file cannot be read
+     */
+    public static long checksum(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Reads a snapshot if it was compiled from a workbook with the given checksum
+     *
+     * @param snapshot the snapshot file
+     * @param sourceLength the current length of the source workbook
+     * @param sourceChecksum the current checksum of the source workbook
+     * @return the questions, or null if the snapshot is missing, stale or corrupt
+     * @throws IOException if the snapshot exists but cannot be read
+     */
+    public static List<Question> read(Path snapshot, long sourceLength, long sourceChecksum) throws IOException {
+        if (!Files.isRegularFile(snapshot)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 26 || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return decode(buffer, sourceLength, sourceChecksum);
+        }
+    }
+
+    /**
+     * Writes a snapshot atomically, replacing any previous one
+     *
+     * @param snapshot the snapshot file
+     * @param questions the compiled questions
+     * @param sourceLength the length of the source workbook
+     * @param sourceChecksum the checksum of the source workbook
+     * @throws IOException if the snapshot cannot be written
+     */
+    public static void write(Path snapshot, List<Question> questions, long sourceLength, long sourceChecksum)
+            throws IOException {
+        byte[] body = encode(questions, sourceLength, sourceChecksum);
+        CRC32C crc = new CRC32C();
+        crc.update(body);
+
+        Path temp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp);
+             DataOutputStream data = new DataOutputStream(out)) {
+            data.write(body);
+            data.writeLong(crc.getValue());
+        }
+        Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static byte[] encode(List<Question> questions, long sourceLength, long sourceChecksum)
+            throws IOException {
+        List<String> strings = new ArrayList<>();
+        Map<String, Integer> stringIndex = new HashMap<>();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(questions.size() * 64 + 64);
+        DataOutputStream questionData = new DataOutputStream(bytes);
+        questionData.writeInt(questions.size());
+        for (Question question : questions) {
+            List<Option> options = question.getOptions();
+            if (options.size() > 8) {
+                throw new IOException("Snapshot supports at most 8 options per question: " + question.getId());
+            }
+            questionData.writeInt(intern(question.getId(), strings, stringIndex));
+            questionData.writeInt(intern(question.getText(), strings, stringIndex));
+            questionData.writeByte(options.size());
+
+            int correctMask = 0;
+            for (int i = 0; i < options.size(); i++) {
+                Option option = options.get(i);
+                questionData.writeInt(intern(option.getId(), strings, stringIndex));
+                questionData.writeInt(intern(option.getText(), strings, stringIndex));
+                if (option.isCorrect()) {
+                    correctMask |= 1 << i;
+                }
+            }
+            questionData.writeByte(correctMask);
+        }
+        questionData.flush();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.size() + strings.size() * 32 + 32);
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeShort(FORMAT_VERSION);
+        data.writeLong(sourceLength);
+        data.writeLong(sourceChecksum);
+        data.writeInt(strings.size());
+        for (String value : strings) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            data.writeInt(utf8.length);
+            data.write(utf8);
+        }
+        bytes.writeTo(data);
+        data.flush();
+        return out.toByteArray();
+    }
+
+    private static List<Question> decode(ByteBuffer buffer, long sourceLength, long sourceChecksum) {
+        try {
+            int bodyLength = buffer.limit() - Long.BYTES;
+            CRC32C crc = new CRC32C();
+            ByteBuffer body = buffer.duplicate();
+            body.limit(bodyLength);
+            crc.update(body);
+            if (crc.getValue() != buffer.getLong(bodyLength)) {
+                return null;
+            }
+
+            if (buffer.getInt() != MAGIC || buffer.getShort() != FORMAT_VERSION) {
+                return null;
+            }
+            if (buffer.getLong() != sourceLength || buffer.getLong() != sourceChecksum) {
+                return null;
+            }
+
+            String[] strings = new String[buffer.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] utf8 = new byte[buffer.getInt()];
+                buffer.get(utf8);
+                strings[i] = new String(utf8, StandardCharsets.UTF_8);
+            }
+
+            int questionCount = buffer.getInt();
+            List<Question> questions = new ArrayList<>(questionCount);
+            for (int q = 0; q < questionCount; q++) {
+                String id = string(strings, buffer.getInt());
+                String text = string(strings, buffer.getInt());
+                int optionCount = buffer.get();
+
+                int[] optionIds = new int[optionCount];
+                int[] optionTexts = new int[optionCount];
+                for (int i = 0; i < optionCount; i++) {
+                    optionIds[i] = buffer.getInt();
+                    optionTexts[i] = buffer.getInt();
+                }
+                int correctMask = buffer.get();
+
+                List<Option> options = new ArrayList<>(optionCount);
+                for (int i = 0; i < optionCount; i++) {
+                    options.add(Option.builder()
+                            .id(string(strings, optionIds[i]))
+                            .text(string(strings, optionTexts[i]))
+                            .correct((correctMask & (1 << i)) != 0)
+                            .build());
+                }
+                questions.add(Question.builder()
+                        .id(id)
+                        .text(text)
+                        .options(options)
+                        .build());
+            }
+            return questions;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            // Truncated or corrupt snapshot, fall back to the workbook
+            return null;
+        }
+    }
+
+    private static int intern(String value, List<String> strings, Map<String, Integer> stringIndex) {
+        if (value == null) {
+            return NULL_STRING;
+        }
+        Integer index = stringIndex.get(value);
+        if (index == null) {
+            index = strings.size();
+            strings.add(value);
+            stringIndex.put(value, index);
+        }
+        return index;
+    }
+
+    private static String string(String[] strings, int index) {
+        return index == NULL_STRING ? null : strings[index];
+    }
+}
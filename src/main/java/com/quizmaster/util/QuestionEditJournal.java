@@ -0,0 +1,258 @@
+package com.quizmaster.util;
+
+import com.quizmaster.model.Option;
+import com.quizmaster.model.Question;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of question edits that have not been written to the workbook yet.
+ * Each entry is a full upsert or a delete, so replaying an entry that already reached the
+ * workbook is harmless. Entries are fsynced before an edit is acknowledged.
+ *
+ * Entry layout (big-endian): payload length, payload, CRC32C of the payload.
+ * A torn or corrupt entry ends the replay.
+ */
+public final class QuestionEditJournal implements Closeable {
+
+    private static final String EXTENSION = ".journal";
+    private static final byte OP_UPSERT = 1;
+    private static final byte OP_DELETE = 2;
+
+    private final FileChannel channel;
+
+    /**
+     * Opens a journal for appending, creating it if needed
+     *
+     * @param path the journal file
+     * @throws IOException if the journal cannot be opened
+     */
+    public QuestionEditJournal(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+
+        // Cut off a torn tail left by a crash so new entries follow the last complete one
+        long validLength = Files.size(path) > 0 ? scan(ByteBuffer.wrap(Files.readAllBytes(path)), null) : 0;
+        if (validLength < channel.size()) {
+            channel.truncate(validLength);
+        }
+        this.channel.position(validLength);
+    }
+
+    /**
+     * Gets the journal path for a source workbook
+     *
+     * @param source the questions workbook
+     * @return the journal file next to it
+     */
+    public static Path journalPathFor(File source) {
+        return source.toPath().resolveSibling(source.getName() + EXTENSION);
+    }
+
+    /**
+     * Durably records that a question was added or replaced
+     *
+     * @param question the question as it now stands
+     * @throws IOException if the entry cannot be written
+     */
+    public synchronized void appendUpsert(Question question) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream data = new DataOutputStream(bytes);
+        data.writeByte(OP_UPSERT);
+        writeString(data, question.getId());
+        writeString(data, question.getText());
+        List<Option> options = question.getOptions();
+        data.writeInt(options.size());
+        for (Option option : options) {
+            writeString(data, option.getId());
+            writeString(data, option.getText());
+            data.writeBoolean(option.isCorrect());
+        }
+        append(bytes.toByteArray());
+    }
+
+    /**
+     * Durably records that a question was deleted
+     *
+     * @param questionId the ID of the deleted question
+     * @throws IOException if the entry cannot be written
+     */
+    public synchronized void appendDelete(String questionId) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        DataOutputStream data = new DataOutputStream(bytes);
+        data.writeByte(OP_DELETE);
+        writeString(data, questionId);
+        append(bytes.toByteArray());
+    }
+
+    /**
+     * Discards all entries once the workbook contains them
+     *
+     * @throws IOException if the journal cannot be truncated
+     */
+    public synchronized void truncate() throws IOException {
+        channel.truncate(0);
+        channel.position(0);
+        channel.force(true);
+    }
+
+    /**
+     * Applies the journal to a question list, in order
+     *
+     * @param path the journal file
+     * @param questions the questions as loaded from the workbook, updated in place
+     * @return the number of entries applied
+     * @throws IOException if the journal exists but cannot be read
+     */
+    public static int replay(Path path, List<Question> questions) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return 0;
+        }
+
+        int[] applied = {0};
+        scan(ByteBuffer.wrap(Files.readAllBytes(path)), payload -> {
+            apply(payload, questions);
+            applied[0]++;
+        });
+        return applied[0];
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private void append(byte[] payload) throws IOException {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+
+        ByteBuffer entry = ByteBuffer.allocate(Integer.BYTES + payload.length + Long.BYTES);
+        entry.putInt(payload.length);
+        entry.put(payload);
+        entry.putLong(crc.getValue());
+        entry.flip();
+        while (entry.hasRemaining()) {
+            channel.write(entry);
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Walks the complete, intact entries of a journal
+     *
+     * @return the length of the journal up to the end of the last intact entry
+     */
+    private static long scan(ByteBuffer buffer, Consumer<ByteBuffer> handler) {
+        long validLength = 0;
+        while (buffer.remaining() >= Integer.BYTES) {
+            int length = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining() - Long.BYTES) {
+                break;
+            }
+
+            ByteBuffer payload = buffer.slice();
+            payload.limit(length);
+            buffer.position(buffer.position() + length);
+            CRC32C crc = new CRC32C();
+            crc.update(payload.duplicate());
+            if (crc.getValue() != buffer.getLong()) {
+                break;
+            }
+
+            if (handler != null) {
+                try {
+                    handler.accept(payload);
+                } catch (BufferUnderflowException | IllegalArgumentException e) {
+                    break;
+                }
+            }
+            validLength = buffer.position();
+        }
+        return validLength;
+    }
+
+    private static void apply(ByteBuffer payload, List<Question> questions) {
+        byte op = payload.get();
+        String questionId = readString(payload);
+        int index = indexOf(questions, questionId);
+
+        if (op == OP_DELETE) {
+            if (index >= 0) {
+                questions.remove(index);
+            }
+            return;
+        }
+        if (op != OP_UPSERT) {
+            throw new IllegalArgumentException("Unknown journal operation: " + op);
+        }
+
+        String text = readString(payload);
+        int optionCount = payload.getInt();
+        List<Option> options = new ArrayList<>(Math.max(0, Math.min(optionCount, 32)));
+        for (int i = 0; i < optionCount; i++) {
+            options.add(Option.builder()
+                    .id(readString(payload))
+                    .text(readString(payload))
+                    .correct(payload.get() != 0)
+                    .build());
+        }
+
+        Question question = Question.builder()
+                .id(questionId)
+                .text(text)
+                .options(options)
+                .build();
+        if (index >= 0) {
+            questions.set(index, question);
+        } else {
+            questions.add(question);
+        }
+    }
+
+    private static int indexOf(List<Question> questions, String questionId) {
+        for (int i = 0; i < questions.size(); i++) {
+            String id = questions.get(i).getId();
+            if (id != null && id.equals(questionId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        if (value == null) {
+            data.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(utf8.length);
+        data.write(utf8);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] utf8 = new byte[length];
+        buffer.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
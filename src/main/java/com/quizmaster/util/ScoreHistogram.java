@@ -0,0 +1,204 @@
+package com.quizmaster.util;
+
+import java.util.Arrays;
+
+/**
+ * Counts results per score and completion time, for rank and percentile lookups that do not
+ * depend on the number of results. Results are ranked by score, highest first, then by time,
+ * fastest first; results with the same score and time share a rank.
+ * <p>
+ * Scores are bucketed to a hundredth of a percent and kept as levels, sorted highest first, each
+ * with one count per second up to the maximum time and one bucket for anything slower. Adding or
+ * removing a result is a couple of array increments. Prefix sums over the counts are brought up
+ * to date on the first lookup after a change, for the changed levels only, after which a lookup
+ * is a binary search over the levels and two array reads. A quiz has only a handful of distinct
+ * scores, so millions of results take a few counters per level and second.
+ * <p>
+ * Thread-safe.
+ */
+public final class ScoreHistogram {
+
+    private final int maxSeconds;
+
+    // Score levels, highest first, with the counts per second of each
+    private int[] levelKeys = new int[0];
+    private int[][] counts = new int[0][];
+    // Per level, the number of results faster than each second; valid unless the level is dirty
+    private int[][] fasterThan = new int[0][];
+    private boolean[] dirtyLevels = new boolean[0];
+    // Number of results in the levels above each level; valid unless levelsDirty
+    private long[] betterThanLevel = new long[0];
+    private int[] levelTotals = new int[0];
+    private boolean levelsDirty;
+    private long total;
+
+    /**
+     * @param maxSeconds the slowest time counted per second; slower results share one bucket
+     */
+    public ScoreHistogram(int maxSeconds) {
+        if (maxSeconds < 0) {
+            throw new IllegalArgumentException("Maximum time must not be negative");
+        }
+        this.maxSeconds = maxSeconds;
+    }
+
+    public synchronized void add(double percentageScore, int timeTakenSeconds) {
+        int level = level(percentageScore, true);
+        counts[level][bucket(timeTakenSeconds)]++;
+        levelTotals[level]++;
+        dirtyLevels[level] = true;
+        levelsDirty = true;
+        total++;
+    }
+
+    /**
+     * Removes a result counted before; does nothing if no such result is counted
+     */
+    public synchronized void remove(double percentageScore, int timeTakenSeconds) {
+        int level = level(percentageScore, false);
+        if (level < 0 || counts[level][bucket(timeTakenSeconds)] == 0) {
+            return;
+        }
+        counts[level][bucket(timeTakenSeconds)]--;
+        levelTotals[level]--;
+        dirtyLevels[level] = true;
+        levelsDirty = true;
+        total--;
+    }
+
+    public synchronized void clear() {
+        levelKeys = new int[0];
+        counts = new int[0][];
+        fasterThan = new int[0][];
+        dirtyLevels = new boolean[0];
+        betterThanLevel = new long[0];
+        levelTotals = new int[0];
+        levelsDirty = false;
+        total = 0;
+    }
+
+    public synchronized long total() {
+        return total;
+    }
+
+    /**
+     * Gets the number of results ranked strictly ahead of a score and time
+     */
+    public synchronized long countBetter(double percentageScore, int timeTakenSeconds) {
+        refreshPrefixSums();
+        int key = key(percentageScore);
+        int position = Arrays.binarySearch(levelKeys, -key);
+        if (position < 0) {
+            int insertion = -position - 1;
+            return insertion < levelKeys.length ? betterThanLevel[insertion] : total;
+        }
+        return betterThanLevel[position] + fasterThan[position][bucket(timeTakenSeconds)];
+    }
+
+    /**
+     * Gets the number of results with the same score and time
+     */
+    public synchronized long countEqual(double percentageScore, int timeTakenSeconds) {
+        int level = level(percentageScore, false);
+        return level < 0 ? 0 : counts[level][bucket(timeTakenSeconds)];
+    }
+
+    /**
+     * Gets the rank a result with a score and time has, or would have
+     *
+     * @return the rank, starting at 1
+     */
+    public synchronized long rankOf(double percentageScore, int timeTakenSeconds) {
+        return countBetter(percentageScore, timeTakenSeconds) + 1;
+    }
+
+    /**
+     * Gets the percentage of the other counted results that a counted result ranks strictly ahead of
+     *
+     * @return the percentile from 0 to 100; 100 if there are no other results
+     */
+    public synchronized double percentile(double percentageScore, int timeTakenSeconds) {
+        if (total <= 1) {
+            return 100.0;
+        }
+        long worse = total - countBetter(percentageScore, timeTakenSeconds)
+                - countEqual(percentageScore, timeTakenSeconds);
+        return Math.max(0, worse) * 100.0 / (total - 1);
+    }
+
+    private void refreshPrefixSums() {
+        for (int level = 0; level < levelKeys.length; level++) {
+            if (!dirtyLevels[level]) {
+                continue;
+            }
+            int[] levelCounts = counts[level];
+            int[] faster = fasterThan[level];
+            int sum = 0;
+            for (int second = 0; second < levelCounts.length; second++) {
+                faster[second] = sum;
+                sum += levelCounts[second];
+            }
+            dirtyLevels[level] = false;
+        }
+        if (levelsDirty) {
+            long sum = 0;
+            for (int level = 0; level < levelKeys.length; level++) {
+                betterThanLevel[level] = sum;
+                sum += levelTotals[level];
+            }
+            levelsDirty = false;
+        }
+    }
+
+    /**
+     * Finds the level of a score, adding it if asked to
+     *
+     * @return the level, or -1 if it does not exist and was not added
+     */
+    private int level(double percentageScore, boolean create) {
+        // Keys are stored negated so that the array sorts highest score first
+        int negatedKey = -key(percentageScore);
+        int position = Arrays.binarySearch(levelKeys, negatedKey);
+        if (position >= 0) {
+            return position;
+        }
+        if (!create) {
+            return -1;
+        }
+        int level = -position - 1;
+        levelKeys = insert(levelKeys, level, negatedKey);
+        counts = insert(counts, level, new int[maxSeconds + 2]);
+        fasterThan = insert(fasterThan, level, new int[maxSeconds + 2]);
+        // New levels are rare, so the positions of the dirty flags are not worth preserving
+        dirtyLevels = new boolean[levelKeys.length];
+        Arrays.fill(dirtyLevels, true);
+        betterThanLevel = Arrays.copyOf(betterThanLevel, betterThanLevel.length + 1);
+        levelTotals = insert(levelTotals, level, 0);
+        levelsDirty = true;
+        return level;
+    }
+
+    private int bucket(int timeTakenSeconds) {
+        return Math.min(Math.max(0, timeTakenSeconds), maxSeconds + 1);
+    }
+
+    private static int key(double percentageScore) {
+        return (int) Math.round(percentageScore * 100);
+    }
+
+    private static int[] insert(int[] array, int index, int value) {
+        int[] copy = new int[array.length + 1];
+        System.arraycopy(array, 0, copy, 0, index);
+        copy[index] = value;
+        System.arraycopy(array, index, copy, index + 1, array.length - index);
+        return copy;
+    }
+
+    private static int[][] insert(int[][] array, int index, int[] value) {
+        int[][] copy = new int[array.length + 1][];
+        System.arraycopy(array, 0, copy, 0, index);
+        copy[index] = value;
+        System.arraycopy(array, index, copy, index + 1, array.length - index);
+        return copy;
+    }
+}
@@ -0,0 +1,526 @@
+package com.quizmaster.util;
+
+import com.quizmaster.model.QuizSession;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of quiz session transitions, used to rebuild the live sessions after a restart.
+ * Every event carries absolute values rather than deltas, and replay keeps the furthest state seen
+ * for a session, so replaying an event whose effect is already in a snapshot is harmless.
+ * <p>
+ * Appends are batched: callers add their entry to a shared buffer and wait while a single flusher
+ * thread writes and fsyncs everything buffered so far, so concurrent transitions share one fsync.
+ * <p>
+ * The journal is a directory of numbered segments {@code sessions-N.log}. A snapshot
+ * {@code sessions-N.snapshot} holds every live session as of some point after segment N was started,
+ * so recovery loads the newest snapshot and replays segment N onwards. Entry layout as in
+ * {@link QuestionEditJournal}: payload length, payload, CRC32C of the payload.
+ * <p>
+ * A failed write or fsync fails the journal: appends throw until {@link #rotate} moves to a fresh
+ * segment, which the caller should follow with a snapshot to cover the entries that were lost.
+ */
+public final class SessionEventJournal implements Closeable {
+
+    private static final String PREFIX = "sessions-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+    private static final byte EVENT_SESSION = 1;
+    private static final byte EVENT_STATE = 2;
+    private static final byte EVENT_END = 3;
+    private static final byte EVENT_REMOVE = 4;
+
+    private final Path directory;
+    private final Thread flusher;
+
+    // Guarded by pendingLock
+    private final Object pendingLock = new Object();
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream(4096);
+    private long appendedSequence;
+    private long durableSequence;
+    private IOException failure;
+    private boolean closed;
+
+    // Guarded by channelLock
+    private final Object channelLock = new Object();
+    private FileChannel channel;
+    private long segment;
+
+    /**
+     * Opens the journal for appending after the last intact entry of the newest segment
+     *
+     * @param directory the journal directory, created if needed
+     * @throws IOException if the journal cannot be opened
+     */
+    public SessionEventJournal(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        TreeSet<Long> segments = listNumbers(directory, SEGMENT_SUFFIX);
+        TreeSet<Long> snapshots = listNumbers(directory, SNAPSHOT_SUFFIX);
+        long newest = Math.max(segments.isEmpty() ? 1 : segments.last(), snapshots.isEmpty() ? 1 : snapshots.last());
+        openSegment(newest);
+
+        this.flusher = new Thread(this::flushLoop, "session-journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Records a session in full, when it starts
+     */
+    public void appendSession(QuizSession session) throws IOException {
+        append(encodeSession(session));
+    }
+
+    /**
+     * Records the state word after a question was served or answered
+     */
+    public void appendState(String sessionId, long state, long accessedAt) throws IOException {
+        append(encodeTimestamped(EVENT_STATE, sessionId, state, accessedAt));
+    }
+
+    /**
+     * Records that a session ended
+     */
+    public void appendEnd(String sessionId, long state, long endedAt) throws IOException {
+        append(encodeTimestamped(EVENT_END, sessionId, state, endedAt));
+    }
+
+    /**
+     * Records that a session was evicted
+     */
+    public void appendRemove(String sessionId) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(48);
+        DataOutputStream data = new DataOutputStream(bytes);
+        data.writeByte(EVENT_REMOVE);
+        writeString(data, sessionId);
+        append(bytes.toByteArray());
+    }
+
+    /**
+     * Gets the size of the segment being appended to
+     *
+     * @return the segment size in bytes
+     * @throws IOException if the size cannot be read
+     */
+    public long getSegmentBytes() throws IOException {
+        synchronized (channelLock) {
+            return channel.size();
+        }
+    }
+
+    /**
+     * Checks whether a write failed since the last rotation, so appends are being refused
+     *
+     * @return true if the journal has failed
+     */
+    public boolean isFailed() {
+        synchronized (pendingLock) {
+            return failure != null;
+        }
+    }
+
+    /**
+     * Starts a new segment. Entries buffered but not yet written go to the new segment.
+     * A failed journal accepts appends again once the new segment is open.
+     *
+     * @return the number of the new segment, to pass to {@link #writeSnapshot}
+     * @throws IOException if the new segment cannot be created
+     */
+    public long rotate() throws IOException {
+        synchronized (channelLock) {
+            FileChannel previous = channel;
+            openSegment(segment + 1);
+            previous.close();
+            synchronized (pendingLock) {
+                failure = null;
+            }
+            return segment;
+        }
+    }
+
+    /**
+     * Writes a snapshot of the live sessions and deletes the segments and snapshots it supersedes.
+     * The sessions must be read after {@link #rotate} returned the segment number.
+     *
+     * @param segment the segment number returned by {@link #rotate}
+     * @param sessions walks the live sessions
+     * @return the number of sessions written
+     * @throws IOException if the snapshot cannot be written
+     */
+    public int writeSnapshot(long segment, Consumer<Consumer<QuizSession>> sessions) throws IOException {
+        Path target = directory.resolve(PREFIX + segment + SNAPSHOT_SUFFIX);
+        Path temp = directory.resolve(PREFIX + segment + SNAPSHOT_SUFFIX + ".tmp");
+
+        int[] written = {0};
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteArrayOutputStream batch = new ByteArrayOutputStream(1 << 16);
+            IOException[] error = {null};
+            sessions.accept(session -> {
+                if (error[0] != null) {
+                    return;
+                }
+                try {
+                    frame(batch, encodeSession(session));
+                    written[0]++;
+                    if (batch.size() >= 1 << 16) {
+                        writeFully(out, batch.toByteArray());
+                        batch.reset();
+                    }
+                } catch (IOException e) {
+                    error[0] = e;
+                }
+            });
+            if (error[0] != null) {
+                throw error[0];
+            }
+            writeFully(out, batch.toByteArray());
+            out.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        for (long older : listNumbers(directory, SEGMENT_SUFFIX).headSet(segment)) {
+            Files.deleteIfExists(directory.resolve(PREFIX + older + SEGMENT_SUFFIX));
+        }
+        for (long older : listNumbers(directory, SNAPSHOT_SUFFIX).headSet(segment)) {
+            Files.deleteIfExists(directory.resolve(PREFIX + older + SNAPSHOT_SUFFIX));
+        }
+        return written[0];
+    }
+
+    /**
+     * Rebuilds the live sessions from the newest snapshot and the segments after it.
+     * The sessions come back without their question bank, which the caller resolves by name.
+     *
+     * @param directory the journal directory
+     * @return the sessions by ID, in the order they were started
+     * @throws IOException if the journal exists but cannot be read
+     */
+    public static Map<String, QuizSession> replay(Path directory) throws IOException {
+        Map<String, QuizSession> sessions = new LinkedHashMap<>();
+        if (!Files.isDirectory(directory)) {
+            return sessions;
+        }
+
+        TreeSet<Long> snapshots = listNumbers(directory, SNAPSHOT_SUFFIX);
+        long first = 0;
+        if (!snapshots.isEmpty()) {
+            first = snapshots.last();
+            replayFile(directory.resolve(PREFIX + first + SNAPSHOT_SUFFIX), sessions);
+        }
+        for (long number : listNumbers(directory, SEGMENT_SUFFIX).tailSet(first)) {
+            replayFile(directory.resolve(PREFIX + number + SEGMENT_SUFFIX), sessions);
+        }
+        return sessions;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (pendingLock) {
+            closed = true;
+            pendingLock.notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (channelLock) {
+            channel.close();
+        }
+    }
+
+    private void openSegment(long number) throws IOException {
+        Path path = directory.resolve(PREFIX + number + SEGMENT_SUFFIX);
+        FileChannel opened = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+
+        // Cut off a torn tail left by a crash so new entries follow the last complete one
+        long validLength = opened.size() > 0
+                ? scan(opened.map(FileChannel.MapMode.READ_ONLY, 0, opened.size()), null) : 0;
+        if (validLength < opened.size()) {
+            opened.truncate(validLength);
+        }
+        opened.position(validLength);
+        channel = opened;
+        segment = number;
+    }
+
+    private void append(byte[] payload) throws IOException {
+        long sequence;
+        synchronized (pendingLock) {
+            if (failure != null) {
+                throw failure;
+            }
+            if (closed) {
+                throw new IOException("Session journal is closed");
+            }
+            frame(pending, payload);
+            sequence = ++appendedSequence;
+            pendingLock.notifyAll();
+
+            // Wait for the flusher to make this entry durable along with everything batched with it
+            while (durableSequence < sequence && failure == null) {
+                try {
+                    pendingLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for the session journal");
+                }
+            }
+            if (durableSequence < sequence) {
+                throw failure;
+            }
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            byte[] batch;
+            long batchSequence;
+            synchronized (pendingLock) {
+                while (pending.size() == 0 && !closed) {
+                    try {
+                        pendingLock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (pending.size() == 0) {
+                    return;
+                }
+                batch = pending.toByteArray();
+                pending.reset();
+                batchSequence = appendedSequence;
+            }
+
+            try {
+                synchronized (channelLock) {
+                    writeFully(channel, batch);
+                    channel.force(false);
+                }
+            } catch (IOException e) {
+                // Entries buffered behind the failed batch are refused too; the flusher waits for a rotation
+                synchronized (pendingLock) {
+                    failure = e;
+                    pending.reset();
+                    pendingLock.notifyAll();
+                }
+                continue;
+            }
+
+            synchronized (pendingLock) {
+                durableSequence = batchSequence;
+                pendingLock.notifyAll();
+            }
+        }
+    }
+
+    private static void frame(OutputStream out, byte[] payload) throws IOException {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(payload.length);
+        data.write(payload);
+        data.writeLong(crc.getValue());
+    }
+
+    private static void writeFully(FileChannel channel, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static byte[] encodeSession(QuizSession session) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(160);
+        DataOutputStream data = new DataOutputStream(bytes);
+        data.writeByte(EVENT_SESSION);
+        writeString(data, session.getSessionId());
+        writeString(data, session.getUserName());
+        writeString(data, session.getINumber());
+        writeString(data, session.getQuestionBankName());
+        int[] sequence = session.getQuestionSequence();
+        data.writeInt(sequence.length);
+        for (int position : sequence) {
+            data.writeInt(position);
+        }
+        data.writeLong(session.getState());
+        data.writeLong(session.getStartedAt());
+        data.writeLong(session.getEndedAt());
+        data.writeLong(session.getLastAccessedAt());
+        data.writeLong(session.getQuestionFingerprint());
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodeTimestamped(byte event, String sessionId, long state, long timestamp) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream data = new DataOutputStream(bytes);
+        data.writeByte(event);
+        writeString(data, sessionId);
+        data.writeLong(state);
+        data.writeLong(timestamp);
+        return bytes.toByteArray();
+    }
+
+    private static void replayFile(Path path, Map<String, QuizSession> sessions) throws IOException {
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (in.size() > 0) {
+                scan(in.map(FileChannel.MapMode.READ_ONLY, 0, in.size()), payload -> apply(payload, sessions));
+            }
+        }
+    }
+
+    private static void apply(ByteBuffer payload, Map<String, QuizSession> sessions) {
+        byte event = payload.get();
+        String sessionId = readString(payload);
+
+        if (event == EVENT_SESSION) {
+            String userName = readString(payload);
+            String iNumber = readString(payload);
+            String questionBankName = readString(payload);
+            int length = payload.getInt();
+            if (length < 0 || length > QuizSession.MAX_SLOTS) {
+                throw new IllegalArgumentException("Invalid question sequence length: " + length);
+            }
+            int[] sequence = new int[length];
+            for (int i = 0; i < length; i++) {
+                sequence[i] = payload.getInt();
+            }
+            QuizSession session = QuizSession.builder()
+                    .sessionId(sessionId)
+                    .userName(userName)
+                    .iNumber(iNumber)
+                    .questionBankName(questionBankName)
+                    .questionSequence(sequence)
+                    .state(payload.getLong())
+                    .startedAt(payload.getLong())
+                    .endedAt(payload.getLong())
+                    .lastAccessedAt(payload.getLong())
+                    .build();
+            // Entries written before the fingerprint was journaled end here
+            if (payload.remaining() >= Long.BYTES) {
+                session.setQuestionFingerprint(payload.getLong());
+            }
+            sessions.put(sessionId, session);
+            return;
+        }
+        if (event == EVENT_REMOVE) {
+            sessions.remove(sessionId);
+            return;
+        }
+        if (event != EVENT_STATE && event != EVENT_END) {
+            throw new IllegalArgumentException("Unknown session event: " + event);
+        }
+
+        long state = payload.getLong();
+        long timestamp = payload.getLong();
+        QuizSession session = sessions.get(sessionId);
+        if (session == null) {
+            // Evicted before the snapshot was taken
+            return;
+        }
+        // Racing transitions on one session may reach the journal out of order, so keep the furthest
+        if (QuizSession.progress(state) > QuizSession.progress(session.getState())) {
+            session.compareAndSetState(session.getState(), state);
+        }
+        if (event == EVENT_END) {
+            session.setEndedAt(timestamp);
+        } else if (timestamp > session.getLastAccessedAt()) {
+            session.setLastAccessedAt(timestamp);
+        }
+    }
+
+    /**
+     * Walks the complete, intact entries of a segment or snapshot
+     *
+     * @return the length up to the end of the last intact entry
+     */
+    private static long scan(ByteBuffer buffer, Consumer<ByteBuffer> handler) {
+        CRC32C crc = new CRC32C();
+        long validLength = 0;
+        while (buffer.remaining() >= Integer.BYTES) {
+            int length = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining() - Long.BYTES) {
+                break;
+            }
+
+            ByteBuffer payload = buffer.slice();
+            payload.limit(length);
+            buffer.position(buffer.position() + length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if (crc.getValue() != buffer.getLong()) {
+                break;
+            }
+
+            if (handler != null) {
+                try {
+                    handler.accept(payload);
+                } catch (BufferUnderflowException | IllegalArgumentException e) {
+                    break;
+                }
+            }
+            validLength = buffer.position();
+        }
+        return validLength;
+    }
+
+    private static TreeSet<Long> listNumbers(Path directory, String suffix) throws IOException {
+        TreeSet<Long> numbers = new TreeSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + suffix)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    numbers.add(Long.parseLong(name.substring(PREFIX.length(), name.length() - suffix.length())));
+                } catch (NumberFormatException e) {
+                    // Not one of ours
+                }
+            }
+        }
+        return numbers;
+    }
+
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        if (value == null) {
+            data.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(utf8.length);
+        data.write(utf8);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] utf8 = new byte[length];
+        buffer.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
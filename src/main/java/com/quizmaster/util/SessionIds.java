@@ -0,0 +1,73 @@
+package com.quizmaster.util;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Generates session IDs that carry the index of the shard holding the session, so a lookup finds
+ * its shard from the first two characters instead of hashing the whole ID.
+ * <p>
+ * An ID is the shard index as two hex digits followed by 128 random bits in base64url, 24
+ * characters in all. The bits come from a DRBG per thread, seeded once from the system, so
+ * threads starting sessions never wait on a shared generator the way {@code UUID.randomUUID()}
+ * does. IDs of any other form, such as the UUIDs of older journals, are spread by their hash.
+ */
+public final class SessionIds {
+
+    /** Number of session shards, a power of two of at most 256 */
+    public static final int SHARDS = 16;
+
+    /** Length of a generated ID */
+    public static final int LENGTH = 24;
+
+    private static final int RANDOM_BYTES = 16;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final ThreadLocal<SecureRandom> RANDOMS = ThreadLocal.withInitial(SessionIds::newRandom);
+
+    private SessionIds() {
+    }
+
+    /**
+     * Generates a new session ID for a shard
+     *
+     * @param shard the shard index, below {@link #SHARDS}
+     * @return the session ID
+     */
+    public static String newId(int shard) {
+        byte[] bytes = new byte[RANDOM_BYTES];
+        RANDOMS.get().nextBytes(bytes);
+        return new StringBuilder(LENGTH)
+                .append(HEX_DIGITS[(shard >>> 4) & 0xF])
+                .append(HEX_DIGITS[shard & 0xF])
+                .append(ENCODER.encodeToString(bytes))
+                .toString();
+    }
+
+    /**
+     * Gets the shard of a session ID
+     *
+     * @param sessionId the session ID
+     * @return the shard index, below {@link #SHARDS}
+     */
+    public static int shardOf(String sessionId) {
+        if (sessionId.length() == LENGTH) {
+            int high = Character.digit(sessionId.charAt(0), 16);
+            int low = Character.digit(sessionId.charAt(1), 16);
+            if (high >= 0 && low >= 0) {
+                return ((high << 4) | low) & (SHARDS - 1);
+            }
+        }
+        int hash = sessionId.hashCode();
+        return (hash ^ (hash >>> 16)) & (SHARDS - 1);
+    }
+
+    private static SecureRandom newRandom() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.quizmaster.util;
+
+import java.util.Arrays;
+
+/**
+ * Remembers the last step spent for each key, so a token for a step can be used once. Only a
+ * key and a step are kept per entry, in primitive open-addressing tables striped by key.
+ * <p>
+ * Entries are forgotten after at least the retention time: each stripe keeps a current and a
+ * previous generation and drops the previous one each time the retention time has passed, so an
+ * entry lives between one and two retention times. Tokens must expire within the retention time.
+ */
+public final class SpentStepSet {
+
+    private static final int STRIPES = 64;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final long retentionMillis;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    /**
+     * @param retentionMillis how long a spent step must at least be remembered
+     * @param nowMillis the current time, when the first generation starts
+     */
+    public SpentStepSet(long retentionMillis, long nowMillis) {
+        if (retentionMillis <= 0) {
+            throw new IllegalArgumentException("Retention must be positive");
+        }
+        this.retentionMillis = retentionMillis;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(nowMillis + retentionMillis);
+        }
+    }
+
+    /**
+     * Spends a step if no later or equal step has been spent for the key
+     *
+     * @param key the key, usually a random session key
+     * @param step the step being spent
+     * @param nowMillis the current time
+     * @return true if the step was spent by this call
+     */
+    public boolean spend(long key, int step, long nowMillis) {
+        long hash = mix(key);
+        Stripe stripe = stripes[(int) (hash >>> 58)];
+        synchronized (stripe) {
+            stripe.rotate(nowMillis, retentionMillis);
+            if (stripe.lastSpent(key, hash) >= step) {
+                return false;
+            }
+            stripe.current.put(key, hash, step);
+            return true;
+        }
+    }
+
+    /**
+     * Gets the last step spent for a key
+     *
+     * @return the step, or -1 if none is remembered
+     */
+    public int lastSpent(long key) {
+        long hash = mix(key);
+        Stripe stripe = stripes[(int) (hash >>> 58)];
+        synchronized (stripe) {
+            return stripe.lastSpent(key, hash);
+        }
+    }
+
+    /**
+     * Gets the number of keys remembered, counting a key in both generations twice
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.current.size + stripe.previous.size;
+            }
+        }
+        return size;
+    }
+
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    private static final class Stripe {
+
+        private Table current = new Table(INITIAL_CAPACITY);
+        private Table previous = new Table(INITIAL_CAPACITY);
+        private long rotateAt;
+
+        Stripe(long rotateAt) {
+            this.rotateAt = rotateAt;
+        }
+
+        void rotate(long nowMillis, long retentionMillis) {
+            if (nowMillis < rotateAt) {
+                return;
+            }
+            // After two retention times without a spend, both generations are stale
+            previous = nowMillis - rotateAt >= retentionMillis ? new Table(INITIAL_CAPACITY) : current;
+            current = new Table(INITIAL_CAPACITY);
+            rotateAt = nowMillis + retentionMillis;
+        }
+
+        int lastSpent(long key, long hash) {
+            int step = current.get(key, hash);
+            return step >= 0 ? step : previous.get(key, hash);
+        }
+    }
+
+    /**
+     * Open-addressing table of key to step with linear probing. Steps are never negative, so an
+     * empty slot is marked with -1.
+     */
+    private static final class Table {
+
+        private long[] keys;
+        private int[] steps;
+        private int size;
+
+        Table(int capacity) {
+            keys = new long[capacity];
+            steps = new int[capacity];
+            Arrays.fill(steps, -1);
+        }
+
+        int get(long key, long hash) {
+            int mask = keys.length - 1;
+            for (int slot = (int) hash & mask; steps[slot] >= 0; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return steps[slot];
+                }
+            }
+            return -1;
+        }
+
+        void put(long key, long hash, int step) {
+            int mask = keys.length - 1;
+            int slot = (int) hash & mask;
+            for (; steps[slot] >= 0; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    steps[slot] = step;
+                    return;
+                }
+            }
+            keys[slot] = key;
+            steps[slot] = step;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldSteps = steps;
+            keys = new long[oldKeys.length * 2];
+            steps = new int[oldSteps.length * 2];
+            Arrays.fill(steps, -1);
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldSteps[i] >= 0) {
+                    put(oldKeys[i], mix(oldKeys[i]), oldSteps[i]);
+                }
+            }
+        }
+    }
+}
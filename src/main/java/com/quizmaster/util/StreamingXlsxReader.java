@@ -0,0 +1,456 @@
+package com.quizmaster.util;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Streaming reader for XLSX sheets built on POI's event API.
+ * Rows are parsed with SAX and handed to a callback one at a time, so memory stays
+ * bounded by the widest row instead of the whole workbook. The row and cell objects
+ * passed to the handler are reused and must not be retained after the callback returns.
+ */
+public final class StreamingXlsxReader {
+
+    /**
+     * Callback receiving the rows of a sheet in document order
+     */
+    @FunctionalInterface
+    public interface RowHandler {
+        void handleRow(SheetRow row);
+    }
+
+    private StreamingXlsxReader() {
+    }
+
+    /**
+     * Reads a sheet of an XLSX file
+     *
+     * @param file the workbook file
+     * @param sheetName the sheet to read, or null for the first sheet
+     * @param handler the row callback
+     * @return true if the sheet was found, false otherwise
+     * @throws IOException if the file cannot be read or is not a valid XLSX workbook
+     */
+    public static boolean read(File file, String sheetName, RowHandler handler) throws IOException {
+        OPCPackage pkg;
+        try {
+            pkg = OPCPackage.open(file, PackageAccess.READ);
+        } catch (OpenXML4JException e) {
+            throw new IOException("Invalid XLSX file: " + file, e);
+        }
+        try {
+            return read(pkg, sheetName, handler);
+        } finally {
+            // revert() releases a read-only package without trying to save it
+            pkg.revert();
+        }
+    }
+
+    /**
+     * Reads a sheet of an XLSX workbook from a stream
+     *
+     * @param in the workbook stream
+     * @param sheetName the sheet to read, or null for the first sheet
+     * @param handler the row callback
+     * @return true if the sheet was found, false otherwise
+     * @throws IOException if the stream cannot be read or is not a valid XLSX workbook
+     */
+    public static boolean read(InputStream in, String sheetName, RowHandler handler) throws IOException {
+        OPCPackage pkg;
+        try {
+            pkg = OPCPackage.open(in);
+        } catch (OpenXML4JException e) {
+            throw new IOException("Invalid XLSX stream", e);
+        }
+        try {
+            return read(pkg, sheetName, handler);
+        } finally {
+            pkg.revert();
+        }
+    }
+
+    private static boolean read(OPCPackage pkg, String sheetName, RowHandler handler) throws IOException {
+        try {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    if (sheetName != null && !sheetName.equals(sheets.getSheetName())) {
+                        continue;
+                    }
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(new SheetHandler(sharedStrings, styles, handler));
+                    parser.parse(new InputSource(sheet));
+                    return true;
+                }
+            }
+            return false;
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Error parsing XLSX sheet", e);
+        }
+    }
+
+    /**
+     * A row of a sheet, exposing cells by zero-based column index
+     */
+    public static final class SheetRow {
+        private int rowNum;
+        private int generation;
+        private SheetCell[] cells = new SheetCell[16];
+
+        /**
+         * Gets the zero-based row index
+         *
+         * @return the row index
+         */
+        public int getRowNum() {
+            return rowNum;
+        }
+
+        /**
+         * Gets a cell of this row
+         *
+         * @param column the zero-based column index
+         * @return the cell, or null if the row has no cell at this column
+         */
+        public SheetCell getCell(int column) {
+            if (column < 0 || column >= cells.length) {
+                return null;
+            }
+            SheetCell cell = cells[column];
+            return cell != null && cell.generation == generation ? cell : null;
+        }
+
+        private void start(int rowNum) {
+            this.rowNum = rowNum;
+            this.generation++;
+        }
+
+        private SheetCell cellAt(int column) {
+            if (column >= cells.length) {
+                cells = Arrays.copyOf(cells, Math.max(column + 1, cells.length * 2));
+            }
+            SheetCell cell = cells[column];
+            if (cell == null) {
+                cell = new SheetCell();
+                cells[column] = cell;
+            }
+            cell.reset(generation);
+            return cell;
+        }
+    }
+
+    /**
+     * A cell value with the same type semantics as POI's usermodel cells
+     */
+    public static final class SheetCell {
+        private int generation;
+        private CellType cellType;
+        private CellType cachedFormulaResultType;
+        private String stringValue;
+        private double numericValue;
+        private boolean booleanValue;
+        private String formula;
+        private boolean dateFormatted;
+
+        public CellType getCellType() {
+            return cellType;
+        }
+
+        public CellType getCachedFormulaResultType() {
+            return cachedFormulaResultType;
+        }
+
+        /**
+         * Gets the string value, failing on non-string cells the same way POI's usermodel does
+         *
+         * @return the string value, or an empty string for blank cells
+         */
+        public String getStringCellValue() {
+            CellType type = valueType();
+            if (type == CellType.BLANK) {
+                return "";
+            }
+            if (type != CellType.STRING) {
+                throw typeMismatch(CellType.STRING, type);
+            }
+            return stringValue;
+        }
+
+        /**
+         * Gets the numeric value, failing on non-numeric cells the same way POI's usermodel does
+         *
+         * @return the numeric value, or 0 for blank cells
+         */
+        public double getNumericCellValue() {
+            CellType type = valueType();
+            if (type == CellType.BLANK) {
+                return 0;
+            }
+            if (type != CellType.NUMERIC) {
+                throw typeMismatch(CellType.NUMERIC, type);
+            }
+            return numericValue;
+        }
+
+        /**
+         * Gets the boolean value, failing on non-boolean cells the same way POI's usermodel does
+         *
+         * @return the boolean value, or false for blank cells
+         */
+        public boolean getBooleanCellValue() {
+            CellType type = valueType();
+            if (type == CellType.BLANK) {
+                return false;
+            }
+            if (type != CellType.BOOLEAN) {
+                throw typeMismatch(CellType.BOOLEAN, type);
+            }
+            return booleanValue;
+        }
+
+        public String getCellFormula() {
+            return formula;
+        }
+
+        /**
+         * Checks whether this is a numeric cell formatted as a date, like DateUtil.isCellDateFormatted
+         *
+         * @return true if the cell holds a date
+         */
+        public boolean isDateFormatted() {
+            return dateFormatted;
+        }
+
+        public LocalDateTime getLocalDateTimeCellValue() {
+            if (valueType() == CellType.BLANK) {
+                return null;
+            }
+            return DateUtil.getLocalDateTime(getNumericCellValue());
+        }
+
+        private CellType valueType() {
+            return cellType == CellType.FORMULA ? cachedFormulaResultType : cellType;
+        }
+
+        private static IllegalStateException typeMismatch(CellType expected, CellType actual) {
+            return new IllegalStateException("Cannot get a " + expected + " value from a " + actual + " cell");
+        }
+
+        private void reset(int generation) {
+            this.generation = generation;
+            this.cellType = CellType.BLANK;
+            this.cachedFormulaResultType = null;
+            this.stringValue = null;
+            this.numericValue = 0;
+            this.booleanValue = false;
+            this.formula = null;
+            this.dateFormatted = false;
+        }
+    }
+
+    /**
+     * SAX handler translating sheet XML into reusable row and cell objects
+     */
+    private static final class SheetHandler extends DefaultHandler {
+        private final ReadOnlySharedStringsTable sharedStrings;
+        private final StylesTable styles;
+        private final RowHandler handler;
+        private final SheetRow row = new SheetRow();
+        private final StringBuilder value = new StringBuilder();
+        private final StringBuilder inlineText = new StringBuilder();
+        private final StringBuilder formulaText = new StringBuilder();
+
+        private int nextRowNum;
+        private int nextColumn;
+        private SheetCell cell;
+        private String cellTypeAttr;
+        private String styleAttr;
+        private boolean hasValue;
+        private boolean hasFormula;
+        private boolean inValue;
+        private boolean inFormula;
+        private boolean inInlineText;
+        private boolean inPhonetic;
+
+        private SheetHandler(ReadOnlySharedStringsTable sharedStrings, StylesTable styles, RowHandler handler) {
+            this.sharedStrings = sharedStrings;
+            this.styles = styles;
+            this.handler = handler;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row":
+                    String r = attributes.getValue("r");
+                    row.start(r != null ? Integer.parseInt(r) - 1 : nextRowNum);
+                    nextRowNum = row.getRowNum() + 1;
+                    nextColumn = 0;
+                    break;
+                case "c":
+                    String ref = attributes.getValue("r");
+                    int column = ref != null ? columnIndex(ref) : nextColumn;
+                    nextColumn = column + 1;
+                    cell = row.cellAt(column);
+                    cellTypeAttr = attributes.getValue("t");
+                    styleAttr = attributes.getValue("s");
+                    hasValue = false;
+                    hasFormula = false;
+                    value.setLength(0);
+                    inlineText.setLength(0);
+                    formulaText.setLength(0);
+                    break;
+                case "v":
+                    inValue = true;
+                    hasValue = true;
+                    break;
+                case "f":
+                    inFormula = true;
+                    hasFormula = true;
+                    break;
+                case "rPh":
+                    inPhonetic = true;
+                    break;
+                case "t":
+                    // Text runs inside an inline string, skipping phonetic guides like XSSFRichTextString does
+                    inInlineText = cell != null && !inPhonetic;
+                    if (inInlineText) {
+                        hasValue = true;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue) {
+                value.append(ch, start, length);
+            } else if (inFormula) {
+                formulaText.append(ch, start, length);
+            } else if (inInlineText) {
+                inlineText.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v":
+                    inValue = false;
+                    break;
+                case "f":
+                    inFormula = false;
+                    break;
+                case "rPh":
+                    inPhonetic = false;
+                    break;
+                case "t":
+                    inInlineText = false;
+                    break;
+                case "c":
+                    completeCell();
+                    cell = null;
+                    break;
+                case "row":
+                    handler.handleRow(row);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void completeCell() {
+            CellType valueType = CellType.BLANK;
+            String type = cellTypeAttr != null ? cellTypeAttr : "n";
+
+            switch (type) {
+                case "s":
+                    if (hasValue) {
+                        int index = Integer.parseInt(value.toString().trim());
+                        cell.stringValue = sharedStrings.getItemAt(index).getString();
+                        valueType = CellType.STRING;
+                    }
+                    break;
+                case "inlineStr":
+                    cell.stringValue = inlineText.toString();
+                    valueType = CellType.STRING;
+                    break;
+                case "str":
+                case "d":
+                    cell.stringValue = value.toString();
+                    valueType = CellType.STRING;
+                    break;
+                case "b":
+                    cell.booleanValue = "1".equals(value.toString().trim());
+                    valueType = hasValue ? CellType.BOOLEAN : CellType.BLANK;
+                    break;
+                case "e":
+                    cell.stringValue = value.toString();
+                    valueType = CellType.ERROR;
+                    break;
+                default:
+                    if (hasValue && value.length() > 0) {
+                        cell.numericValue = Double.parseDouble(value.toString().trim());
+                        cell.dateFormatted = isDateFormat(styleAttr) && DateUtil.isValidExcelDate(cell.numericValue);
+                        valueType = CellType.NUMERIC;
+                    }
+                    break;
+            }
+
+            if (hasFormula) {
+                cell.formula = formulaText.toString();
+                cell.cachedFormulaResultType = valueType;
+                cell.cellType = CellType.FORMULA;
+            } else {
+                cell.cellType = valueType;
+            }
+        }
+
+        private boolean isDateFormat(String style) {
+            if (style == null || styles == null) {
+                return false;
+            }
+            XSSFCellStyle cellStyle = styles.getStyleAt(Integer.parseInt(style));
+            return cellStyle != null
+                    && DateUtil.isADateFormat(cellStyle.getDataFormat(), cellStyle.getDataFormatString());
+        }
+
+        private static int columnIndex(String ref) {
+            int column = 0;
+            for (int i = 0; i < ref.length(); i++) {
+                char c = ref.charAt(i);
+                if (c < 'A' || c > 'Z') {
+                    break;
+                }
+                column = column * 26 + (c - 'A' + 1);
+            }
+            return column - 1;
+        }
+    }
+}
@@ -10,6 +10,12 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -128,6 +134,91 @@ public class QuizControllerTest {
         verify(quizService, times(1)).validateAnswer(any(ValidateAnswerRequest.class));
     }
 
+    @Test
+    void testAnswerQuestion() throws Exception {
+        // Arrange
+        ValidateAnswerRequest request = ValidateAnswerRequest.builder()
+                .sessionId("test-session-id")
+                .questionId("q1")
+                .answerId("opt2")
+                .build();
+        
+        ValidateAnswerResponse response = ValidateAnswerResponse.builder()
+                .questionId("q1")
+                .correct(true)
+                .message("Correct answer!")
+                .attempts(1)
+                .maxAttempts(3)
+                .remainingQuestions(4)
+                .nextQuestion(QuestionResponse.builder()
+                        .questionId("q2")
+                        .text("Next question?")
+                        .completedQuestions(1)
+                        .build())
+                .build();
+        
+        when(quizService.answerQuestion(any(ValidateAnswerRequest.class))).thenReturn(response);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/quiz/answer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.correct").value(true))
+                .andExpect(jsonPath("$.nextQuestion.questionId").value("q2"))
+                .andExpect(jsonPath("$.nextQuestion.completedQuestions").value(1));
+        
+        verify(quizService, times(1)).answerQuestion(any(ValidateAnswerRequest.class));
+    }
+
+    @Test
+    void testPrefetchQuestionsIsCompressedWhenAccepted() throws Exception {
+        // Arrange
+        byte[] json = "{\"sessionId\":\"test-session-id\",\"questions\":[]}".getBytes(StandardCharsets.UTF_8);
+        when(quizService.prefetchQuestions("test-session-id")).thenReturn(json);
+
+        // Act & Assert
+        byte[] compressed = mockMvc.perform(get("/api/quiz/questions")
+                .param("sessionId", "test-session-id")
+                .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertArrayEquals(json, in.readAllBytes());
+        }
+
+        mockMvc.perform(get("/api/quiz/questions")
+                .param("sessionId", "test-session-id"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(jsonPath("$.sessionId").value("test-session-id"));
+    }
+
+    @Test
+    void testPrefetchQuestionsHonoursGzipQualityValues() throws Exception {
+        // Arrange
+        byte[] json = "{\"sessionId\":\"test-session-id\",\"questions\":[]}".getBytes(StandardCharsets.UTF_8);
+        when(quizService.prefetchQuestions("test-session-id")).thenReturn(json);
+
+        // Act & Assert
+        for (String refused : List.of("gzip;q=0", "deflate, gzip; q=0.0", "notgzip", "gzipped", "gzip;q=0, *",
+                "*;q=0", "identity", "gzip;q=high")) {
+            mockMvc.perform(get("/api/quiz/questions")
+                    .param("sessionId", "test-session-id")
+                    .header("Accept-Encoding", refused))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist("Content-Encoding"));
+        }
+        for (String accepted : List.of("GZIP", "deflate;q=1.0, gzip;q=0.5", "x-gzip", "*;q=0.1")) {
+            mockMvc.perform(get("/api/quiz/questions")
+                    .param("sessionId", "test-session-id")
+                    .header("Accept-Encoding", accepted))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Encoding", "gzip"));
+        }
+    }
+
     @Test
     void testGetScore() throws Exception {
         // Arrange
@@ -0,0 +1,50 @@
+package com.quizmaster.model;
+
+import com.quizmaster.model.dto.LeaderboardUpdate;
+import com.quizmaster.model.dto.LeaderboardView;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LeaderboardUpdateTest {
+
+    private static QuizResult result(long id, int rank, String userName, double percentageScore) {
+        return QuizResult.builder()
+                .id(id)
+                .rank(rank)
+                .userName(userName)
+                .percentageScore(percentageScore)
+                .timeTakenSeconds(60)
+                .build();
+    }
+
+    private static LeaderboardView view(long version, QuizResult... rankings) {
+        return LeaderboardView.builder()
+                .rankings(List.of(rankings))
+                .totalParticipants(rankings.length)
+                .version(version)
+                .build();
+    }
+
+    @Test
+    void testDiffHoldsOnlyChangedRows() {
+        LeaderboardView before = view(1, result(1, 1, "Ann", 100), result(2, 2, "Bob", 80), result(3, 3, "Cid", 60));
+        // Dee enters second, pushing Bob and Cid down
+        LeaderboardView after = view(2, result(1, 1, "Ann", 100), result(4, 2, "Dee", 90), result(2, 3, "Bob", 80));
+
+        LeaderboardUpdate snapshot = LeaderboardUpdate.snapshot(before);
+        assertEquals(3, snapshot.getRows().size());
+
+        LeaderboardUpdate diff = LeaderboardUpdate.diff(LeaderboardUpdate.rows(before), after);
+        assertEquals(2, diff.getVersion());
+        assertEquals(3, diff.getSize());
+        assertEquals(List.of(2, 3), diff.getRows().stream().map(LeaderboardUpdate.Row::getRank).toList());
+        assertEquals("Dee", diff.getRows().get(0).getUserName());
+
+        LeaderboardUpdate shrunk = LeaderboardUpdate.diff(LeaderboardUpdate.rows(after), view(3, result(1, 1, "Ann", 100)));
+        assertEquals(1, shrunk.getSize());
+        assertTrue(shrunk.getRows().isEmpty());
+    }
+}
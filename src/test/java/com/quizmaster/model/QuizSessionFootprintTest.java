@@ -0,0 +1,108 @@
+package com.quizmaster.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compares the heap taken by a session in the compact layout with the previous layout, which kept
+ * completed question IDs in a HashSet and timestamps as Dates. Strings and the drawn sequence are
+ * shared by both layouts, so the difference is the session state alone.
+ * Run with {@code mvn test -Dtest=QuizSessionFootprintTest -Dbenchmarks=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+public class QuizSessionFootprintTest {
+
+    private static final int SESSIONS = 100_000;
+    private static final String[] QUESTION_IDS = {"1", "2", "3", "4", "5"};
+
+    @Test
+    void testBytesPerSession() {
+        java.lang.management.ThreadMXBean platformBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(platformBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) platformBean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+        int[] sequence = {0, 1, 2, 3, 4};
+
+        // Warm up both paths so class loading and JIT allocations are not counted
+        buildLegacySessions(new LegacyQuizSession[1000], sequence);
+        buildCompactSessions(new QuizSession[1000], sequence);
+
+        LegacyQuizSession[] legacySessions = new LegacyQuizSession[SESSIONS];
+        long before = threads.getThreadAllocatedBytes(threadId);
+        buildLegacySessions(legacySessions, sequence);
+        long legacyBytes = (threads.getThreadAllocatedBytes(threadId) - before) / SESSIONS;
+
+        QuizSession[] compactSessions = new QuizSession[SESSIONS];
+        before = threads.getThreadAllocatedBytes(threadId);
+        buildCompactSessions(compactSessions, sequence);
+        long compactBytes = (threads.getThreadAllocatedBytes(threadId) - before) / SESSIONS;
+
+        System.out.printf("Bytes per finished session: previous layout %d, compact layout %d%n",
+                legacyBytes, compactBytes);
+        assertTrue(compactBytes < legacyBytes);
+    }
+
+    private static void buildLegacySessions(LegacyQuizSession[] sessions, int[] sequence) {
+        for (int i = 0; i < sessions.length; i++) {
+            LegacyQuizSession session = new LegacyQuizSession();
+            session.questionSequence = sequence;
+            session.completedQuestions = new HashSet<>();
+            for (String questionId : QUESTION_IDS) {
+                session.completedQuestions.add(questionId);
+            }
+            session.currentQuestionId = QUESTION_IDS[4];
+            session.correctAnswers = 3;
+            session.startTime = new Date(i);
+            session.endTime = new Date(i + 60_000L);
+            sessions[i] = session;
+        }
+    }
+
+    private static void buildCompactSessions(QuizSession[] sessions, int[] sequence) {
+        for (int i = 0; i < sessions.length; i++) {
+            QuizSession session = new QuizSession();
+            session.setQuestionSequence(sequence);
+            long state = QuizSession.initialState();
+            for (int slot = 0; slot < sequence.length; slot++) {
+                state = QuizSession.completed(QuizSession.advanced(state), slot, slot < 3);
+            }
+            session.compareAndSetState(session.getState(), QuizSession.ended(state));
+            session.setStartedAt(i);
+            session.setEndedAt(i + 60_000L);
+            session.setLastAccessedAt(i + 60_000L);
+            sessions[i] = session;
+        }
+    }
+
+    /**
+     * Session fields as they were before the compact layout, without the shared references
+     */
+    @SuppressWarnings("unused")
+    private static final class LegacyQuizSession {
+        private String sessionId;
+        private String userName;
+        private String iNumber;
+        private String questionBankName;
+        private Object questionBank;
+        private int[] questionSequence;
+        private int questionCursor;
+        private String currentQuestionId;
+        private int currentAttempts;
+        private Set<String> completedQuestions;
+        private int correctAnswers;
+        private boolean active;
+        private Date startTime;
+        private Date endTime;
+        private volatile long lastAccessedAt;
+    }
+}
@@ -0,0 +1,135 @@
+package com.quizmaster.repository;
+
+import com.quizmaster.model.QuizSession;
+import com.quizmaster.model.StoredQuizSession;
+import com.quizmaster.repository.impl.DatabaseQuizSessionStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs two stores, as two instances would, against one H2 database. Every repository call commits
+ * on its own, as in production, so the conditional updates race on real rows.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class DatabaseQuizSessionStoreJpaTest {
+
+    /**
+     * Only the JPA slice; the application class scans every component
+     */
+    @Configuration
+    @EntityScan(basePackageClasses = StoredQuizSession.class)
+    @EnableJpaRepositories(basePackageClasses = QuizSessionJpaRepository.class)
+    static class JpaSliceConfig {
+    }
+
+    private static final long LEASE_MS = 1000;
+
+    @Autowired
+    private QuizSessionJpaRepository repository;
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+
+    private DatabaseQuizSessionStore newStore() {
+        DatabaseQuizSessionStore store = new DatabaseQuizSessionStore(repository, 100);
+        ReflectionTestUtils.setField(store, "nearCacheLeaseMs", LEASE_MS);
+        return store;
+    }
+
+    private static QuizSession session(String sessionId) {
+        long now = System.currentTimeMillis();
+        return QuizSession.builder()
+                .sessionId(sessionId)
+                .userName("TestUser")
+                .iNumber("I123456")
+                .questionBankName("team-a")
+                .questionSequence(new int[]{7, 3, 0})
+                .questionFingerprint(0x5EEDL)
+                .state(QuizSession.initialState())
+                .startedAt(now)
+                .lastAccessedAt(now)
+                .build();
+    }
+
+    @Test
+    void testConflictingTransitionIsRejectedByTheDatabase() {
+        DatabaseQuizSessionStore first = newStore();
+        DatabaseQuizSessionStore second = newStore();
+        first.save(session("s1"));
+        QuizSession onFirst = first.find("s1");
+        QuizSession onSecond = second.find("s1");
+        assertArrayEquals(new int[]{7, 3, 0}, onSecond.getQuestionSequence());
+        assertEquals(0x5EEDL, onSecond.getQuestionFingerprint());
+
+        long served = QuizSession.advanced(QuizSession.initialState());
+        assertTrue(onFirst.compareAndSetState(QuizSession.initialState(), served));
+
+        // The same transition computed from the old state matches no row and picks up the winner
+        assertFalse(onSecond.compareAndSetState(QuizSession.initialState(), served));
+        assertEquals(served, onSecond.getState());
+        assertEquals(served, repository.findState("s1"));
+
+        long answered = QuizSession.completed(served, 0, true);
+        assertTrue(onSecond.compareAndSetState(served, answered));
+        assertFalse(onFirst.compareAndSetState(served, QuizSession.completed(served, 0, false)));
+        assertEquals(answered, onFirst.getState());
+        assertEquals(answered, repository.findState("s1"));
+    }
+
+    @Test
+    void testNearCacheIsStaleForAtMostItsLease() {
+        DatabaseQuizSessionStore first = newStore();
+        DatabaseQuizSessionStore second = newStore();
+        first.save(session("s1"));
+        long now = System.currentTimeMillis();
+        QuizSession onSecond = second.find("s1", now);
+
+        long served = QuizSession.advanced(QuizSession.initialState());
+        assertTrue(first.find("s1", now).compareAndSetState(QuizSession.initialState(), served));
+
+        // Served from the near-cache without looking at the database
+        assertSame(onSecond, second.find("s1", now + LEASE_MS - 1));
+        assertEquals(QuizSession.initialState(), onSecond.getState());
+
+        // The lease has run out, so the lookup sees the row moved and reloads it
+        assertEquals(served, second.find("s1", now + LEASE_MS).getState());
+    }
+
+    @Test
+    void testSessionRemovedOnAnotherInstanceIsGoneAfterTheLease() {
+        DatabaseQuizSessionStore first = newStore();
+        DatabaseQuizSessionStore second = newStore();
+        first.save(session("s1"));
+        first.save(session("s2"));
+        long now = System.currentTimeMillis();
+        QuizSession onSecond = second.find("s1", now);
+        assertNotNull(second.find("s2", now));
+
+        assertTrue(first.remove("s1", first.find("s1", now)));
+        assertTrue(first.remove("s2", first.find("s2", now)));
+        assertFalse(repository.existsById("s1"));
+
+        // A cached copy cannot be moved on once its row is gone
+        long served = QuizSession.advanced(QuizSession.initialState());
+        assertFalse(onSecond.compareAndSetState(QuizSession.initialState(), served));
+        assertFalse(onSecond.isActive());
+        assertNull(second.find("s1", now));
+
+        // Nor does a copy that was only read outlive the lease
+        assertNotNull(second.find("s2", now + LEASE_MS - 1));
+        assertNull(second.find("s2", now + LEASE_MS));
+    }
+}
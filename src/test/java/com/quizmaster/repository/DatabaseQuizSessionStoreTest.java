@@ -0,0 +1,243 @@
+package com.quizmaster.repository;
+
+import com.quizmaster.model.QuizSession;
+import com.quizmaster.model.StoredQuizSession;
+import com.quizmaster.repository.impl.DatabaseQuizSessionStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs two stores over one table, as two instances would, with the table kept in a map.
+ * The stores check the database on every lookup unless a test gives them a near-cache lease.
+ */
+public class DatabaseQuizSessionStoreTest {
+
+    private final Map<String, StoredQuizSession> table = new ConcurrentHashMap<>();
+    private final AtomicInteger stateReads = new AtomicInteger();
+    private QuizSessionJpaRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(QuizSessionJpaRepository.class);
+        when(repository.save(any(StoredQuizSession.class))).thenAnswer(invocation -> {
+            StoredQuizSession row = invocation.getArgument(0);
+            table.put(row.getSessionId(), copy(row));
+            return row;
+        });
+        when(repository.findById(anyString())).thenAnswer(invocation -> {
+            StoredQuizSession row = table.get(invocation.<String>getArgument(0));
+            return row != null ? Optional.of(copy(row)) : Optional.empty();
+        });
+        when(repository.findState(anyString())).thenAnswer(invocation -> {
+            stateReads.incrementAndGet();
+            StoredQuizSession row = table.get(invocation.<String>getArgument(0));
+            return row != null ? row.getState() : null;
+        });
+        when(repository.compareAndSetState(anyString(), anyLong(), anyLong(), anyLong())).thenAnswer(invocation -> {
+            StoredQuizSession row = table.get(invocation.<String>getArgument(0));
+            if (row == null || row.getState() != invocation.<Long>getArgument(1)) {
+                return 0;
+            }
+            row.setState(invocation.<Long>getArgument(2));
+            row.setLastAccessedAt(invocation.<Long>getArgument(3));
+            return 1;
+        });
+        when(repository.updateEndedAt(anyString(), anyLong())).thenAnswer(invocation -> {
+            StoredQuizSession row = table.get(invocation.<String>getArgument(0));
+            if (row == null) {
+                return 0;
+            }
+            row.setEndedAt(invocation.<Long>getArgument(1));
+            return 1;
+        });
+        when(repository.deleteIfUnchanged(anyString(), anyLong(), anyLong())).thenAnswer(invocation -> {
+            StoredQuizSession row = table.get(invocation.<String>getArgument(0));
+            if (row == null || row.getState() != invocation.<Long>getArgument(1)
+                    || row.getLastAccessedAt() > invocation.<Long>getArgument(2)) {
+                return 0;
+            }
+            table.remove(row.getSessionId());
+            return 1;
+        });
+    }
+
+    private DatabaseQuizSessionStore newStore() {
+        return newStore(0);
+    }
+
+    private DatabaseQuizSessionStore newStore(long nearCacheLeaseMs) {
+        DatabaseQuizSessionStore store = new DatabaseQuizSessionStore(repository, 100);
+        ReflectionTestUtils.setField(store, "nearCacheLeaseMs", nearCacheLeaseMs);
+        return store;
+    }
+
+    private static StoredQuizSession copy(StoredQuizSession row) {
+        return StoredQuizSession.builder()
+                .sessionId(row.getSessionId())
+                .userName(row.getUserName())
+                .iNumber(row.getINumber())
+                .questionBankName(row.getQuestionBankName())
+                .questionSequence(row.getQuestionSequence())
+                .questionFingerprint(row.getQuestionFingerprint())
+                .state(row.getState())
+                .startedAt(row.getStartedAt())
+                .endedAt(row.getEndedAt())
+                .lastAccessedAt(row.getLastAccessedAt())
+                .build();
+    }
+
+    private QuizSession session(String sessionId) {
+        return QuizSession.builder()
+                .sessionId(sessionId)
+                .userName("TestUser")
+                .iNumber("I123456")
+                .questionBankName("team-a")
+                .questionSequence(new int[]{7, 3, 0})
+                .questionFingerprint(0x5EEDL)
+                .state(QuizSession.initialState())
+                .startedAt(1000L)
+                .lastAccessedAt(1000L)
+                .build();
+    }
+
+    @Test
+    void testSessionStartedOnOneInstanceIsFoundOnAnother() {
+        DatabaseQuizSessionStore first = newStore();
+        DatabaseQuizSessionStore second = newStore();
+
+        first.save(session("s1"));
+        QuizSession found = second.find("s1");
+
+        assertNotNull(found);
+        assertEquals("TestUser", found.getUserName());
+        assertEquals("I123456", found.getINumber());
+        assertEquals("team-a", found.getQuestionBankName());
+        assertArrayEquals(new int[]{7, 3, 0}, found.getQuestionSequence());
+        assertEquals(0x5EEDL, found.getQuestionFingerprint());
+        assertEquals(QuizSession.initialState(), found.getState());
+        // The bank is attached by the caller
+        assertNull(found.getQuestionBank());
+        assertNull(second.find("missing"));
+    }
+
+    @Test
+    void testStaleCachedSessionLosesCompareAndSetAndCatchesUp() {
+        DatabaseQuizSessionStore first = newStore();
+        DatabaseQuizSessionStore second = newStore();
+        first.save(session("s1"));
+        QuizSession onFirst = first.find("s1");
+        QuizSession onSecond = second.find("s1");
+
+        long served = QuizSession.advanced(QuizSession.initialState());
+        assertTrue(onFirst.compareAndSetState(QuizSession.initialState(), served));
+
+        // The second instance still holds the old state and must not overwrite the transition
+        assertFalse(onSecond.compareAndSetState(QuizSession.initialState(), served));
+        assertEquals(served, onSecond.getState());
+
+        long answered = QuizSession.completed(served, 0, true);
+        assertTrue(onSecond.compareAndSetState(served, answered));
+        assertEquals(answered, table.get("s1").getState());
+    }
+
+    @Test
+    void testLookupSeesTransitionsMadeOnAnotherInstance() {
+        DatabaseQuizSessionStore first = newStore();
+        DatabaseQuizSessionStore second = newStore();
+        first.save(session("s1"));
+        QuizSession onSecond = second.find("s1");
+
+        long served = QuizSession.advanced(QuizSession.initialState());
+        assertTrue(onSecond.compareAndSetState(QuizSession.initialState(), served));
+        assertEquals(served, first.find("s1").getState());
+
+        long answered = QuizSession.completed(served, 0, false);
+        assertTrue(first.find("s1").compareAndSetState(served, answered));
+        assertEquals(answered, second.find("s1").getState());
+    }
+
+    @Test
+    void testRemoveFailsAfterAnotherInstanceMovedTheSession() {
+        DatabaseQuizSessionStore first = newStore();
+        DatabaseQuizSessionStore second = newStore();
+        first.save(session("s1"));
+        QuizSession onFirst = first.find("s1");
+        QuizSession onSecond = second.find("s1");
+
+        assertTrue(onSecond.compareAndSetState(QuizSession.initialState(), QuizSession.advanced(QuizSession.initialState())));
+
+        assertFalse(first.remove("s1", onFirst));
+        assertTrue(table.containsKey("s1"));
+    }
+
+    @Test
+    void testRemovedSessionIsGoneOnEveryInstance() {
+        DatabaseQuizSessionStore first = newStore();
+        DatabaseQuizSessionStore second = newStore();
+        first.save(session("s1"));
+        assertNotNull(second.find("s1"));
+
+        assertTrue(first.remove("s1", first.find("s1")));
+
+        assertNull(second.find("s1"));
+        assertNull(first.find("s1"));
+    }
+
+    @Test
+    void testEndIsWrittenThrough() {
+        DatabaseQuizSessionStore first = newStore();
+        DatabaseQuizSessionStore second = newStore();
+        first.save(session("s1"));
+
+        QuizSession onFirst = first.find("s1");
+        assertTrue(onFirst.compareAndSetState(onFirst.getState(), QuizSession.ended(onFirst.getState())));
+        onFirst.setEndedAt(5000L);
+
+        QuizSession onSecond = second.find("s1");
+        assertFalse(onSecond.isActive());
+        assertEquals(5000L, onSecond.getEndedAt());
+    }
+
+    @Test
+    void testCachedSessionIsServedWithoutReadsDuringItsLease() {
+        DatabaseQuizSessionStore first = newStore(1000);
+        DatabaseQuizSessionStore second = newStore(1000);
+        first.save(session("s1"));
+        long now = System.currentTimeMillis();
+        QuizSession onSecond = second.find("s1", now);
+        QuizSession onFirst = first.find("s1", now);
+        stateReads.set(0);
+
+        long served = QuizSession.advanced(QuizSession.initialState());
+        assertTrue(onFirst.compareAndSetState(QuizSession.initialState(), served));
+
+        // Within the lease the second instance answers from its cache and misses the transition
+        assertSame(onSecond, second.find("s1", now + 999));
+        assertEquals(QuizSession.initialState(), onSecond.getState());
+        assertEquals(0, stateReads.get());
+
+        // Acting on the stale state fails and catches up without waiting for the lease
+        assertFalse(onSecond.compareAndSetState(QuizSession.initialState(), served));
+        assertEquals(served, onSecond.getState());
+        assertEquals(1, stateReads.get());
+
+        // Once the lease has run out the next lookup checks the state column again
+        long answered = QuizSession.completed(served, 0, true);
+        assertTrue(onFirst.compareAndSetState(served, answered));
+        assertEquals(answered, second.find("s1", System.currentTimeMillis() + 1000).getState());
+        assertEquals(2, stateReads.get());
+    }
+}
@@ -0,0 +1,76 @@
+package com.quizmaster.repository;
+
+import com.quizmaster.model.Option;
+import com.quizmaster.model.Question;
+import com.quizmaster.repository.impl.IndexedQuestionRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndexedQuestionRepositoryTest {
+
+    private static Question question(String id, String text) {
+        return Question.builder()
+                .id(id)
+                .text(text)
+                .options(List.of(
+                        Option.builder().id("opt1").text("Option 1").correct(true).build(),
+                        Option.builder().id("opt2").text("Option 2").correct(false).build()))
+                .build();
+    }
+
+    @Test
+    void testFindByIdAndIndex() {
+        IndexedQuestionRepository repository = new IndexedQuestionRepository(List.of(
+                question("q1", "First?"), question("q2", "Second?"), question("q3", "Third?")));
+
+        assertEquals(3, repository.count());
+        assertEquals("Second?", repository.findById("q2").getText());
+        assertEquals(1, repository.indexOf("q2"));
+        assertSame(repository.findById("q2"), repository.findByIndex(1));
+        assertEquals("q2", repository.findCompiledById("q2").getId());
+        assertTrue(repository.findCompiledByIndex(1).isCorrect("opt1"));
+    }
+
+    @Test
+    void testMissingIdIsNotFound() {
+        IndexedQuestionRepository repository = new IndexedQuestionRepository(List.of(question("q1", "First?")));
+
+        assertNull(repository.findById("q9"));
+        assertNull(repository.findCompiledById("q9"));
+        assertEquals(-1, repository.indexOf("q9"));
+        assertNull(repository.findById(null));
+        assertEquals(-1, repository.indexOf(null));
+    }
+
+    @Test
+    void testFirstOfDuplicateIdsWins() {
+        IndexedQuestionRepository repository = new IndexedQuestionRepository(List.of(
+                question("q1", "First?"), question("dup", "Earlier?"), question("dup", "Later?")));
+
+        assertEquals("Earlier?", repository.findById("dup").getText());
+        assertEquals(1, repository.indexOf("dup"));
+        assertEquals("Earlier?", repository.findCompiledById("dup").getQuestion().getText());
+        // Both stay in the bank and are reachable by position
+        assertEquals(3, repository.count());
+        assertEquals("Later?", repository.findByIndex(2).getText());
+    }
+
+    @Test
+    void testFindAllCannotBeModified() {
+        List<Question> source = new ArrayList<>(List.of(question("q1", "First?"), question("q2", "Second?")));
+        IndexedQuestionRepository repository = new IndexedQuestionRepository(source);
+
+        List<Question> all = repository.findAll();
+        assertThrows(UnsupportedOperationException.class, () -> all.add(question("q3", "Third?")));
+        assertThrows(UnsupportedOperationException.class, () -> all.remove(0));
+
+        // Later changes to the list it was built from do not reach it either
+        source.clear();
+        assertEquals(List.of("q1", "q2"), List.of(all.get(0).getId(), all.get(1).getId()));
+        assertEquals("First?", repository.findById("q1").getText());
+    }
+}
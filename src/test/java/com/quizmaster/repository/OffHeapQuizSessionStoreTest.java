@@ -0,0 +1,122 @@
+package com.quizmaster.repository;
+
+import com.quizmaster.exception.QuizException;
+import com.quizmaster.model.Option;
+import com.quizmaster.model.Question;
+import com.quizmaster.model.QuizSession;
+import com.quizmaster.repository.impl.IndexedQuestionRepository;
+import com.quizmaster.repository.impl.OffHeapQuizSessionStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapQuizSessionStoreTest {
+
+    private OffHeapQuizSessionStore store;
+    private QuestionRepository questionBank;
+
+    @BeforeEach
+    void setUp() {
+        // Small slabs so the tests cross slab boundaries
+        store = new OffHeapQuizSessionStore(16);
+        questionBank = new IndexedQuestionRepository(List.of(Question.builder()
+                .id("q1")
+                .text("Sample question?")
+                .options(List.of(Option.builder().id("opt1").text("Option 1").correct(true).build()))
+                .build()));
+    }
+
+    @Test
+    void testSaveAndFind() {
+        store.save(session("session-1", "Zoë Tester", "I123456"));
+
+        QuizSession found = store.find("session-1");
+
+        assertNotNull(found);
+        assertEquals("session-1", found.getSessionId());
+        assertEquals("Zoë Tester", found.getUserName());
+        assertEquals("I123456", found.getINumber());
+        assertEquals("team", found.getQuestionBankName());
+        assertSame(questionBank, found.getQuestionBank());
+        assertArrayEquals(new int[]{0, 0, 0}, found.getQuestionSequence());
+        assertEquals(1000L, found.getStartedAt());
+        assertTrue(found.isActive());
+        assertNull(store.find("session-2"));
+    }
+
+    @Test
+    void testStateIsSwappedInPlace() {
+        store.save(session("session-1", "Tester", null));
+        QuizSession first = store.find("session-1");
+        QuizSession second = store.find("session-1");
+
+        long state = first.getState();
+        assertTrue(first.compareAndSetState(state, QuizSession.advanced(state)));
+        assertFalse(second.compareAndSetState(state, QuizSession.advanced(state)));
+
+        assertEquals(1, store.find("session-1").getQuestionCursor());
+        assertNull(store.find("session-1").getINumber());
+    }
+
+    @Test
+    void testRemovedRecordIsNotVisibleThroughStaleViews() {
+        store.save(session("session-1", "Tester", "I1"));
+        QuizSession stale = store.find("session-1");
+        long state = stale.getState();
+
+        assertTrue(store.remove("session-1", stale));
+        assertFalse(store.remove("session-1", stale));
+        assertNull(store.find("session-1"));
+
+        // The record is reused for the next session under a new generation
+        store.save(session("session-2", "Other", "I2"));
+        assertFalse(stale.compareAndSetState(state, QuizSession.advanced(state)));
+        assertFalse(stale.isActive());
+        assertThrows(QuizException.class, stale::getUserName);
+        assertEquals("Other", store.find("session-2").getUserName());
+        assertEquals(0, store.find("session-2").getQuestionCursor());
+    }
+
+    @Test
+    void testManySessionsAcrossSlabs() {
+        for (int i = 0; i < 1000; i++) {
+            store.save(session("session-" + i, "User " + i, "I" + i));
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            assertTrue(store.remove("session-" + i, store.find("session-" + i)));
+        }
+
+        assertEquals(500, store.size());
+        for (int i = 0; i < 1000; i++) {
+            QuizSession found = store.find("session-" + i);
+            if (i % 2 == 0) {
+                assertNull(found);
+            } else {
+                assertEquals("User " + i, found.getUserName());
+            }
+        }
+    }
+
+    @Test
+    void testRejectsNamesThatDoNotFitTheRecord() {
+        assertThrows(QuizException.class, () -> store.save(session("session-1", "x".repeat(200), "I1")));
+        assertEquals(0, store.size());
+    }
+
+    private QuizSession session(String sessionId, String userName, String iNumber) {
+        return QuizSession.builder()
+                .sessionId(sessionId)
+                .userName(userName)
+                .iNumber(iNumber)
+                .questionBankName("team")
+                .questionBank(questionBank)
+                .questionSequence(new int[]{0, 0, 0})
+                .state(QuizSession.initialState())
+                .startedAt(1000L)
+                .lastAccessedAt(1000L)
+                .build();
+    }
+}
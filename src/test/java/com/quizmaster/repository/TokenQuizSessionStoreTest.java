@@ -0,0 +1,166 @@
+package com.quizmaster.repository;
+
+import com.quizmaster.exception.QuizException;
+import com.quizmaster.model.QuizSession;
+import com.quizmaster.repository.impl.TokenQuizSessionStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenQuizSessionStoreTest {
+
+    private static final String SECRET = "test-secret";
+
+    private final TokenQuizSessionStore store = new TokenQuizSessionStore(SECRET, 1800000);
+
+    private QuizSession session() {
+        long now = System.currentTimeMillis();
+        return QuizSession.builder()
+                .sessionId("unused")
+                .userName("Ünal")
+                .iNumber("I123456")
+                .questionBankName(null)
+                .questionSequence(new int[]{7, 3, 0})
+                .questionFingerprint(0x5EEDL)
+                .state(QuizSession.initialState())
+                .startedAt(now)
+                .lastAccessedAt(now)
+                .build();
+    }
+
+    @Test
+    void testTokenCarriesTheSession() {
+        QuizSession started = session();
+        store.save(started);
+
+        QuizSession found = store.find(started.getSessionId());
+
+        assertNotNull(found);
+        assertEquals("Ünal", found.getUserName());
+        assertEquals("I123456", found.getINumber());
+        assertNull(found.getQuestionBankName());
+        assertArrayEquals(new int[]{7, 3, 0}, found.getQuestionSequence());
+        assertEquals(0x5EEDL, found.getQuestionFingerprint());
+        assertEquals(QuizSession.initialState(), found.getState());
+        assertEquals(started.getStartedAt(), found.getStartedAt());
+        assertNull(found.getQuestionBank());
+    }
+
+    @Test
+    void testForgedOrForeignTokensAreRejected() {
+        QuizSession started = session();
+        store.save(started);
+        String token = started.getSessionId();
+
+        char[] tampered = token.toCharArray();
+        tampered[20] = tampered[20] == 'A' ? 'B' : 'A';
+        assertNull(store.find(new String(tampered)));
+        assertNull(store.find("not a token"));
+        assertNull(store.find(""));
+        assertNull(new TokenQuizSessionStore("other-secret", 1800000).find(token));
+    }
+
+    @Test
+    void testExpiredTokenIsRejected() {
+        QuizSession started = session();
+        started.setLastAccessedAt(System.currentTimeMillis() - 60_000);
+        TokenQuizSessionStore shortLived = new TokenQuizSessionStore(SECRET, 30_000);
+        shortLived.save(started);
+
+        assertNull(shortLived.find(started.getSessionId()));
+    }
+
+    @Test
+    void testEachTokenIsSpentOnce() {
+        QuizSession started = session();
+        store.save(started);
+        String first = started.getSessionId();
+
+        QuizSession session = store.find(first);
+        long served = QuizSession.advanced(QuizSession.initialState());
+        assertTrue(session.compareAndSetState(QuizSession.initialState(), served));
+        String second = session.getSessionId();
+        assertNotEquals(first, second);
+
+        // The spent token can no longer be used, the new one carries the transition
+        assertThrows(QuizException.class, () -> store.find(first));
+        assertEquals(served, store.find(second).getState());
+
+        // A view found before the transition cannot replay it either
+        QuizSession stale = store.find(second);
+        long answered = QuizSession.completed(served, 0, true);
+        assertTrue(store.find(second).compareAndSetState(served, answered));
+        assertThrows(QuizException.class, () -> stale.compareAndSetState(served, QuizSession.completed(served, 0, true)));
+    }
+
+    @Test
+    void testConcurrentUsesOfOneTokenSpendItOnce() throws Exception {
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < 100; round++) {
+                QuizSession started = session();
+                store.save(started);
+                String token = started.getSessionId();
+                long served = QuizSession.advanced(QuizSession.initialState());
+
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Boolean>> futures = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        try {
+                            return store.find(token).compareAndSetState(QuizSession.initialState(), served);
+                        } catch (QuizException e) {
+                            return false;
+                        }
+                    }));
+                }
+                start.countDown();
+
+                int accepted = 0;
+                for (Future<Boolean> future : futures) {
+                    if (future.get()) {
+                        accepted++;
+                    }
+                }
+                assertEquals(1, accepted);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSpentTokenCannotBeReplayedOnAnotherInstance() {
+        QuizSession started = session();
+        store.save(started);
+        String first = started.getSessionId();
+        long served = QuizSession.advanced(QuizSession.initialState());
+        QuizSession session = store.find(first);
+        assertTrue(session.compareAndSetState(QuizSession.initialState(), served));
+        String second = session.getSessionId();
+
+        // Another instance, or this one after a restart, has not seen the spent steps
+        TokenQuizSessionStore other = new TokenQuizSessionStore(SECRET, 1800000);
+        assertNull(other.find(first));
+        assertNull(other.find(second));
+        assertThrows(QuizException.class, () -> store.find(first));
+        assertEquals(served, store.find(second).getState());
+    }
+
+    @Test
+    void testOverlongFieldIsRefused() {
+        QuizSession started = session();
+        started.setUserName("x".repeat(100));
+
+        assertThrows(QuizException.class, () -> store.save(started));
+    }
+}
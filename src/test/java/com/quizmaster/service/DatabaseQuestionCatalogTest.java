@@ -0,0 +1,187 @@
+package com.quizmaster.service;
+
+import com.quizmaster.exception.QuizException;
+import com.quizmaster.model.Option;
+import com.quizmaster.model.Question;
+import com.quizmaster.model.StoredQuestion;
+import com.quizmaster.repository.StoredQuestionJpaRepository;
+import com.quizmaster.repository.impl.JpaQuestionStore;
+import com.quizmaster.repository.impl.JpaQuestionStore.VersionedQuestions;
+import com.quizmaster.service.impl.DatabaseQuestionCatalog;
+import com.quizmaster.util.ExcelQuestionLoader;
+import com.quizmaster.util.ExcelQuestionWriter;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class DatabaseQuestionCatalogTest {
+
+    /**
+     * Only the JPA slice; the application class scans every component
+     */
+    @Configuration
+    @EntityScan(basePackageClasses = StoredQuestion.class)
+    @EnableJpaRepositories(basePackageClasses = StoredQuestionJpaRepository.class)
+    @Import(JpaQuestionStore.class)
+    static class JpaSliceConfig {
+    }
+
+    @Autowired
+    private JpaQuestionStore questionStore;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private ExcelQuestionLoader questionLoader;
+
+    @BeforeEach
+    void setUp() {
+        questionLoader = mock(ExcelQuestionLoader.class);
+        when(questionLoader.loadQuestions()).thenReturn(bank(40));
+    }
+
+    private static Question question(String id, String text) {
+        List<Option> options = new ArrayList<>();
+        for (int option = 0; option < 4; option++) {
+            options.add(Option.builder()
+                    .id("o" + (option + 1))
+                    .text(text + " option " + (option + 1))
+                    .correct(option == 2)
+                    .build());
+        }
+        return Question.builder().id(id).text(text).options(options).build();
+    }
+
+    private static List<Question> bank(int size) {
+        List<Question> questions = new ArrayList<>();
+        for (int i = 1; i <= size; i++) {
+            questions.add(question(String.valueOf(i), "Question " + i));
+        }
+        return questions;
+    }
+
+    private static List<String> ids(List<Question> questions) {
+        return questions.stream().map(Question::getId).collect(Collectors.toList());
+    }
+
+    private DatabaseQuestionCatalog newNode() {
+        DatabaseQuestionCatalog node = new DatabaseQuestionCatalog(questionStore, questionLoader,
+                mock(ExcelQuestionWriter.class));
+        node.init();
+        return node;
+    }
+
+    @Test
+    void testEmptyDatabaseIsSeededOnce() {
+        assertEquals(-1, questionStore.getVersion());
+
+        DatabaseQuestionCatalog first = newNode();
+        assertEquals(1, first.getVersion());
+        assertEquals(ids(bank(40)), ids(first.getQuestions()));
+
+        // The second node finds the bank in place and only loads it
+        DatabaseQuestionCatalog second = newNode();
+        assertEquals(1, second.getVersion());
+        assertEquals(40, second.getQuestionRepository().count());
+        verify(questionLoader, times(1)).loadQuestions();
+    }
+
+    @Test
+    void testBankIsLoadedWithoutAQueryPerQuestion() {
+        questionStore.replaceAll(bank(40));
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        VersionedQuestions loaded = questionStore.loadAll();
+
+        // One statement for the version and one for the questions joined with their options, not one per question
+        assertTrue(statistics.getPrepareStatementCount() <= 2,
+                statistics.getPrepareStatementCount() + " statements to load 40 questions");
+        assertEquals(1, loaded.getVersion());
+        assertEquals(ids(bank(40)), ids(loaded.getQuestions()));
+        Question last = loaded.getQuestions().get(39);
+        assertEquals(List.of("o1", "o2", "o3", "o4"),
+                last.getOptions().stream().map(Option::getId).collect(Collectors.toList()));
+        assertTrue(last.getOptions().get(2).isCorrect());
+        assertEquals("Question 40 option 4", last.getOptions().get(3).getText());
+    }
+
+    @Test
+    void testEveryWriteBumpsTheVersion() {
+        assertEquals(1, questionStore.replaceAll(bank(3)));
+        assertEquals(2, questionStore.insert(question("4", "Question 4")));
+        assertEquals(3, questionStore.update(question("2", "Question 2, edited")));
+        assertEquals(4, questionStore.delete("1"));
+
+        // Writes to missing questions change nothing
+        assertEquals(-1, questionStore.update(question("9", "Missing")));
+        assertEquals(-1, questionStore.delete("9"));
+        assertEquals(4, questionStore.getVersion());
+
+        entityManager.flush();
+        entityManager.clear();
+        VersionedQuestions loaded = questionStore.loadAll();
+        assertEquals(4, loaded.getVersion());
+        // Updated questions keep their position, inserted ones go last
+        assertEquals(List.of("2", "3", "4"), ids(loaded.getQuestions()));
+        assertEquals("Question 2, edited", loaded.getQuestions().get(0).getText());
+
+        // Replacing the bank is one more version, not one per question
+        assertEquals(5, questionStore.replaceAll(bank(10)));
+        assertEquals(10, questionStore.findAllIds().size());
+    }
+
+    @Test
+    void testEditsOnOneNodeRefreshTheOthers() {
+        DatabaseQuestionCatalog first = newNode();
+        DatabaseQuestionCatalog second = newNode();
+        assertFalse(second.reloadIfChanged());
+
+        Question added = first.addQuestion(question(null, "Question 41"));
+        assertEquals("41", added.getId());
+        assertEquals(2, first.getVersion());
+        // The other node serves its snapshot until it polls the version
+        assertEquals(1, second.getVersion());
+        assertNull(second.getQuestionRepository().findById("41"));
+
+        assertTrue(second.reloadIfChanged());
+        assertEquals(2, second.getVersion());
+        assertEquals("Question 41", second.getQuestionRepository().findById("41").getText());
+        assertFalse(second.reloadIfChanged());
+
+        second.updateQuestion(question("7", "Question 7, edited"));
+        assertTrue(second.deleteQuestion("1"));
+        assertFalse(second.deleteQuestion("99"));
+        assertThrows(QuizException.class, () -> second.updateQuestion(question("99", "Missing")));
+
+        assertTrue(first.reloadIfChanged());
+        assertEquals(4, first.getVersion());
+        assertEquals("Question 7, edited", first.getQuestionRepository().findById("7").getText());
+        assertNull(first.getQuestionRepository().findById("1"));
+        assertEquals(40, first.getQuestionRepository().count());
+        // The next ID accounts for questions added on any node
+        assertEquals("42", first.addQuestion(question(null, "Question 42")).getId());
+    }
+}
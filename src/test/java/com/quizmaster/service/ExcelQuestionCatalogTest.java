@@ -0,0 +1,256 @@
+package com.quizmaster.service;
+
+import com.quizmaster.exception.QuizException;
+import com.quizmaster.model.Option;
+import com.quizmaster.model.Question;
+import com.quizmaster.model.dto.QuestionResponse;
+import com.quizmaster.model.dto.StartQuizRequest;
+import com.quizmaster.repository.impl.InMemoryQuizSessionStore;
+import com.quizmaster.service.impl.ExcelQuestionCatalog;
+import com.quizmaster.service.impl.QuizServiceImpl;
+import com.quizmaster.util.ExcelQuestionLoader;
+import com.quizmaster.util.ExcelQuestionWriter;
+import com.quizmaster.util.QuestionEditJournal;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ExcelQuestionCatalogTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File questionsFile;
+    private ExcelQuestionCatalog catalog;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        questionsFile = tempDir.resolve("questions.xlsx").toFile();
+        // Question 7 has an ID; the two rows after it have none and are addressed by row number
+        writeWorkbook(questionsFile, new String[][]{
+                {"7", "Capital of France?"},
+                {null, "Largest planet?"},
+                {null, "Boiling point of water?"}});
+        catalog = newCatalog();
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalog.shutdown();
+    }
+
+    private ExcelQuestionCatalog newCatalog() {
+        ExcelQuestionLoader loader = new ExcelQuestionLoader();
+        ReflectionTestUtils.setField(loader, "questionsExcelResource", new FileSystemResource(questionsFile));
+        ExcelQuestionCatalog created = new ExcelQuestionCatalog(loader, new ExcelQuestionWriter());
+        ReflectionTestUtils.setField(created, "reloadEnabled", false);
+        created.init();
+        return created;
+    }
+
+    private static void writeWorkbook(File file, String[][] rows) throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Questions");
+            sheet.createRow(0).createCell(1).setCellValue("Question");
+            for (int i = 0; i < rows.length; i++) {
+                Row row = sheet.createRow(i + 1);
+                if (rows[i][0] != null) {
+                    row.createCell(0).setCellValue(rows[i][0]);
+                }
+                row.createCell(1).setCellValue(rows[i][1]);
+                for (int option = 0; option < 4; option++) {
+                    int baseCol = 2 + option * 3;
+                    row.createCell(baseCol).setCellValue("o" + (option + 1));
+                    row.createCell(baseCol + 1).setCellValue(rows[i][1] + " option " + (option + 1));
+                    row.createCell(baseCol + 2).setCellValue(option == 0);
+                }
+            }
+            try (OutputStream out = Files.newOutputStream(file.toPath())) {
+                workbook.write(out);
+            }
+        }
+    }
+
+    private static Question question(String id, String text) {
+        List<Option> options = new ArrayList<>();
+        for (int option = 0; option < 4; option++) {
+            options.add(Option.builder()
+                    .id("o" + (option + 1))
+                    .text(text + " option " + (option + 1))
+                    .correct(option == 0)
+                    .build());
+        }
+        return Question.builder().id(id).text(text).options(options).build();
+    }
+
+    private static List<String> ids(List<Question> questions) {
+        return questions.stream().map(Question::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    void testRowsWithoutIdAreAddressedByRowNumber() throws IOException {
+        assertEquals(List.of("7", "2", "3"), ids(catalog.getQuestions()));
+        assertEquals("Largest planet?", catalog.getQuestionRepository().findById("2").getText());
+
+        catalog.updateQuestion(question("2", "Largest planet in the solar system?"));
+        // Row-number IDs take part in numbering, so the next ID follows the highest of all
+        assertEquals("8", catalog.addQuestion(question(null, "Smallest prime?")).getId());
+        assertTrue(catalog.deleteQuestion("7"));
+        assertFalse(catalog.deleteQuestion("1"));
+        assertThrows(QuizException.class, () -> catalog.updateQuestion(question("1", "Header row?")));
+
+        // Once written back, the IDs stay the same although the rows moved up
+        catalog.flush();
+        catalog.shutdown();
+        catalog = newCatalog();
+
+        assertEquals(List.of("2", "3", "8"), ids(catalog.getQuestions()));
+        assertEquals("Largest planet in the solar system?", catalog.getQuestionRepository().findById("2").getText());
+        assertEquals("Boiling point of water?", catalog.getQuestionRepository().findById("3").getText());
+    }
+
+    @Test
+    void testEditsPublishSnapshotsSeenByNewQuizzes() throws IOException {
+        QuizRankingService rankingService = mock(QuizRankingService.class);
+        QuizServiceImpl quizService = new QuizServiceImpl(catalog, mock(QuestionBankRegistry.class),
+                new InMemoryQuizSessionStore(), rankingService);
+        long version = catalog.getVersion();
+
+        String before = quizService.startQuiz(StartQuizRequest.builder().userName("Ann").build()).getSessionId();
+
+        // Leave one question so every quiz draws it
+        assertTrue(catalog.deleteQuestion("7"));
+        assertTrue(catalog.deleteQuestion("3"));
+        catalog.updateQuestion(question("2", "Largest planet in the solar system?"));
+        assertEquals(version + 3, catalog.getVersion());
+
+        String after = quizService.startQuiz(StartQuizRequest.builder().userName("Bob").build()).getSessionId();
+        QuestionResponse served = quizService.getQuestion(after);
+        assertEquals("2", served.getQuestionId());
+        assertEquals("Largest planet in the solar system?", served.getText());
+
+        // A quiz in progress keeps the snapshot it started with
+        QuestionResponse earlier = quizService.getQuestion(before);
+        assertTrue(List.of("7", "2", "3").contains(earlier.getQuestionId()));
+        if ("2".equals(earlier.getQuestionId())) {
+            assertEquals("Largest planet?", earlier.getText());
+        }
+
+        // The last question cannot be deleted, and the failed edit publishes nothing
+        assertThrows(QuizException.class, () -> catalog.deleteQuestion("2"));
+        assertEquals(version + 3, catalog.getVersion());
+    }
+
+    @Test
+    void testPendingEditsAreReplayedAfterACrash() throws IOException {
+        catalog.updateQuestion(question("2", "Largest planet in the solar system?"));
+        catalog.addQuestion(question(null, "Smallest prime?"));
+        assertTrue(catalog.deleteQuestion("3"));
+        Path journal = QuestionEditJournal.journalPathFor(questionsFile);
+        assertTrue(Files.size(journal) > 0);
+
+        // Crash before the write-behind flush: the workbook still has the old questions
+        ExcelQuestionCatalog crashed = catalog;
+        catalog = newCatalog();
+        assertEquals(List.of("7", "2", "3"), ids(new ExcelQuestionLoader().loadQuestions(questionsFile)));
+
+        assertEquals(List.of("7", "2", "8"), ids(catalog.getQuestions()));
+        assertEquals("Largest planet in the solar system?", catalog.getQuestionRepository().findById("2").getText());
+
+        // Replayed edits count as pending, so the flush waits for the debounce delay
+        ReflectionTestUtils.setField(catalog, "flushDebounceMs", 60000L);
+        ReflectionTestUtils.setField(catalog, "flushMaxDelayMs", 60000L);
+        catalog.flushIfDue();
+        assertTrue(Files.size(journal) > 0);
+        assertFalse(catalog.reloadIfChanged());
+
+        ReflectionTestUtils.setField(catalog, "flushDebounceMs", 0L);
+        catalog.flushIfDue();
+        assertEquals(0, Files.size(journal));
+        assertEquals(List.of("7", "2", "8"), ids(new ExcelQuestionLoader().loadQuestions(questionsFile)));
+        // Releases the crashed catalog's journal; its flush writes the same questions
+        crashed.shutdown();
+    }
+
+    @Test
+    void testFlushWritesTheWorkbookAndTruncatesTheJournal() throws IOException {
+        Path journal = QuestionEditJournal.journalPathFor(questionsFile);
+        catalog.addQuestion(question(null, "Smallest prime?"));
+        long version = catalog.getVersion();
+
+        catalog.flush();
+        assertEquals(0, Files.size(journal));
+        assertEquals(List.of("7", "2", "3", "8"), ids(new ExcelQuestionLoader().loadQuestions(questionsFile)));
+        // The catalog recognizes the file it wrote itself and does not reload it
+        assertFalse(catalog.reloadIfChanged());
+        assertEquals(version, catalog.getVersion());
+
+        // Edits after the flush go to the emptied journal and survive a crash on their own
+        assertTrue(catalog.deleteQuestion("7"));
+        assertTrue(Files.size(journal) > 0);
+        ExcelQuestionCatalog crashed = catalog;
+        catalog = newCatalog();
+        assertEquals(List.of("2", "3", "8"), ids(catalog.getQuestions()));
+        // Releases the crashed catalog's journal; its flush writes the same questions
+        crashed.shutdown();
+    }
+
+    @Test
+    void testPollingReloadsAWorkbookChangedOutsideTheApplication() throws IOException {
+        ReflectionTestUtils.setField(catalog, "reloadEnabled", true);
+        QuizServiceImpl quizService = new QuizServiceImpl(catalog, mock(QuestionBankRegistry.class),
+                new InMemoryQuizSessionStore(), mock(QuizRankingService.class));
+        long version = catalog.getVersion();
+
+        // Nothing changed yet
+        catalog.pollForChanges();
+        assertEquals(version, catalog.getVersion());
+
+        writeWorkbook(questionsFile, new String[][]{{"9", "Speed of light?"}});
+        assertTrue(questionsFile.setLastModified(questionsFile.lastModified() + 2000));
+        catalog.pollForChanges();
+
+        assertEquals(version + 1, catalog.getVersion());
+        assertEquals(List.of("9"), ids(catalog.getQuestions()));
+        String sessionId = quizService.startQuiz(StartQuizRequest.builder().userName("Ann").build()).getSessionId();
+        QuestionResponse served = quizService.getQuestion(sessionId);
+        assertEquals("9", served.getQuestionId());
+        assertEquals("Speed of light?", served.getText());
+    }
+
+    @Test
+    void testPollingSkipsReloadWhileEditsArePending() throws IOException {
+        ReflectionTestUtils.setField(catalog, "reloadEnabled", true);
+        ReflectionTestUtils.setField(catalog, "flushDebounceMs", 60000L);
+        ReflectionTestUtils.setField(catalog, "flushMaxDelayMs", 60000L);
+        catalog.updateQuestion(question("2", "Largest planet in the solar system?"));
+        long version = catalog.getVersion();
+
+        writeWorkbook(questionsFile, new String[][]{{"9", "Speed of light?"}});
+        assertTrue(questionsFile.setLastModified(questionsFile.lastModified() + 2000));
+        catalog.pollForChanges();
+
+        // The edit has not reached the workbook, so reloading would lose it
+        assertEquals(version, catalog.getVersion());
+        assertEquals(List.of("7", "2", "3"), ids(catalog.getQuestions()));
+        assertEquals("Largest planet in the solar system?", catalog.getQuestionRepository().findById("2").getText());
+    }
+}
@@ -0,0 +1,215 @@
+package com.quizmaster.service;
+
+import com.quizmaster.model.QuizResult;
+import com.quizmaster.model.dto.LeaderboardView;
+import com.quizmaster.model.dto.RankingResponse;
+import com.quizmaster.repository.QuizResultJpaRepository;
+import com.quizmaster.service.impl.JpaQuizRankingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class JpaQuizRankingServiceTest {
+
+    private QuizResultJpaRepository quizResultRepository;
+    private JpaQuizRankingService rankingService;
+    private long nextId;
+
+    @BeforeEach
+    void setUp() {
+        quizResultRepository = mock(QuizResultJpaRepository.class);
+        rankingService = new JpaQuizRankingService(quizResultRepository, mock(QuizResultExporter.class));
+        when(quizResultRepository.save(any(QuizResult.class))).thenAnswer(invocation -> {
+            QuizResult result = invocation.getArgument(0);
+            result.setId(++nextId);
+            return result;
+        });
+        List<QuizResult> stored = new ArrayList<>(List.of(
+                result(1L, "Ann", 80.0, 120),
+                result(2L, "Bob", 90.0, 200),
+                result(3L, "Cid", 80.0, 100),
+                result(4L, "Ann", 60.0, 50)));
+        when(quizResultRepository.findAll()).thenReturn(stored);
+        nextId = 4;
+    }
+
+    private static QuizResult result(Long id, String userName, double percentageScore, int timeTakenSeconds) {
+        return QuizResult.builder()
+                .id(id)
+                .userName(userName)
+                .percentageScore(percentageScore)
+                .timeTakenSeconds(timeTakenSeconds)
+                .build();
+    }
+
+    private static List<String> names(List<QuizResult> results) {
+        return results.stream().map(QuizResult::getUserName).collect(Collectors.toList());
+    }
+
+    @Test
+    void testRankingsComeFromTheIndex() {
+        List<QuizResult> top = rankingService.getTopResults(3);
+
+        assertEquals(List.of("Bob", "Cid", "Ann"), names(top));
+        assertEquals(List.of(1, 2, 3), top.stream().map(QuizResult::getRank).collect(Collectors.toList()));
+        assertEquals(4, rankingService.getResultCount());
+
+        RankingResponse ann = rankingService.getUserRanking("Ann");
+        assertEquals(3, ann.getRank());
+        assertEquals(2, ann.getTotalAttempts());
+        assertEquals(4, ann.getTotalParticipants());
+        assertEquals(100.0 / 3, ann.getPercentile(), 1e-9);
+        assertEquals(0, rankingService.getUserRanking("Nobody").getRank());
+
+        assertEquals(List.of("Cid", "Ann", "Ann"), names(rankingService.getResultsAround("Ann", 1)));
+        assertTrue(rankingService.getResultsAround("Nobody", 1).isEmpty());
+
+        // Loaded once, then answered without the database
+        verify(quizResultRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testLeaderboardViewIsOneSnapshot() {
+        LeaderboardView view = rankingService.getLeaderboardView(2, "Cid");
+
+        assertEquals(List.of("Bob", "Cid"), names(view.getRankings()));
+        assertEquals(4, view.getTotalParticipants());
+        assertEquals(2, view.getUserRanking().getRank());
+        assertNull(rankingService.getLeaderboardView(2, null).getUserRanking());
+        verify(quizResultRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testSavesAndDeletesUpdateTheIndex() throws Exception {
+        rankingService.getTopResults(1);
+        long loaded = rankingService.getResultsVersion();
+
+        rankingService.saveQuizResult(result(null, "Dee", 85.0, 90));
+        assertEquals(loaded + 1, rankingService.getResultsVersion());
+        assertEquals(List.of("Bob", "Dee", "Cid"), names(rankingService.getTopResults(3)));
+        assertEquals(2, rankingService.getUserRanking("Dee").getRank());
+
+        rankingService.deleteQuizResult(2L);
+        assertEquals(1, rankingService.getUserRanking("Dee").getRank());
+        assertEquals(0, rankingService.getUserRanking("Bob").getRank());
+        assertEquals(4, rankingService.getResultCount());
+
+        rankingService.clearAllResults();
+        assertEquals(loaded + 3, rankingService.getResultsVersion());
+        assertTrue(rankingService.getAllResults().isEmpty());
+        verify(quizResultRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testIndexIsRebuiltWhenTheDatabaseDiffers() {
+        rankingService.getTopResults(1);
+        when(quizResultRepository.count()).thenReturn(4L);
+        when(quizResultRepository.findMaxId()).thenReturn(4L);
+        rankingService.verifyRankingIndex();
+        verify(quizResultRepository, times(1)).findAll();
+
+        // Another instance saved a result
+        when(quizResultRepository.findAll()).thenReturn(List.of(
+                result(1L, "Ann", 80.0, 120),
+                result(5L, "Eve", 100.0, 300)));
+        when(quizResultRepository.count()).thenReturn(2L);
+        when(quizResultRepository.findMaxId()).thenReturn(5L);
+        rankingService.verifyRankingIndex();
+
+        assertEquals(List.of("Eve", "Ann"), names(rankingService.getAllResults()));
+    }
+
+    @Test
+    void testIndexIsRebuiltWhenADeleteAndAnInsertKeepTheCount() {
+        rankingService.getTopResults(1);
+        when(quizResultRepository.count()).thenReturn(4L);
+        when(quizResultRepository.findMaxId()).thenReturn(4L);
+        rankingService.verifyRankingIndex();
+        long version = rankingService.getResultsVersion();
+
+        // Another instance deleted Bob's result and saved Eve's
+        when(quizResultRepository.findAll()).thenReturn(List.of(
+                result(1L, "Ann", 80.0, 120),
+                result(3L, "Cid", 80.0, 100),
+                result(4L, "Ann", 60.0, 50),
+                result(5L, "Eve", 100.0, 300)));
+        when(quizResultRepository.findMaxId()).thenReturn(5L);
+        rankingService.verifyRankingIndex();
+
+        assertEquals(List.of("Eve", "Cid", "Ann", "Ann"), names(rankingService.getAllResults()));
+        assertEquals(0, rankingService.getUserRanking("Bob").getRank());
+        // Cached leaderboards are revalidated against the new version
+        assertTrue(rankingService.getResultsVersion() > version);
+        verify(quizResultRepository, times(2)).findAll();
+    }
+
+    @Test
+    void testStartupImportStreamsExcelRowsInBatches() {
+        QuizResultExporter exporter = mock(QuizResultExporter.class);
+        int rows = JpaQuizRankingService.IMPORT_BATCH_SIZE * 2 + 1;
+        doAnswer(invocation -> {
+            Consumer<QuizResult> consumer = invocation.getArgument(0);
+            for (int i = 0; i < rows; i++) {
+                QuizResult row = result(null, "User " + i, 50.0, 60);
+                row.setINumber("I" + i);
+                consumer.accept(row);
+            }
+            return null;
+        }).when(exporter).importResults(any(Consumer.class));
+        // Only the first row is already in the database
+        when(quizResultRepository.count()).thenReturn(1L);
+        when(quizResultRepository.findINumbersIn(anyCollection())).thenReturn(List.of("I0"));
+        List<Integer> batchSizes = new ArrayList<>();
+        when(quizResultRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<QuizResult> batch = invocation.getArgument(0);
+            batchSizes.add(batch.size());
+            return batch;
+        });
+        JpaQuizRankingService service = new JpaQuizRankingService(quizResultRepository, exporter);
+        ReflectionTestUtils.setField(service, "importFromExcelOnStartup", true);
+
+        service.importResultsOnStartup();
+
+        // The first batch of lookups finds a new I-Number, so the database is replaced batch by batch
+        verify(quizResultRepository).deleteAll();
+        verify(quizResultRepository, times(1)).findINumbersIn(anyCollection());
+        int batch = JpaQuizRankingService.IMPORT_BATCH_SIZE;
+        assertEquals(List.of(batch, batch, 1), batchSizes);
+    }
+
+    @Test
+    void testStartupImportKeepsTheDatabaseWhenExcelMatches() {
+        QuizResultExporter exporter = mock(QuizResultExporter.class);
+        doAnswer(invocation -> {
+            Consumer<QuizResult> consumer = invocation.getArgument(0);
+            for (String iNumber : List.of("I1", "I2", "I3", "I4")) {
+                QuizResult row = result(null, iNumber, 50.0, 60);
+                row.setINumber(iNumber);
+                consumer.accept(row);
+            }
+            return null;
+        }).when(exporter).importResults(any(Consumer.class));
+        when(quizResultRepository.count()).thenReturn(4L);
+        when(quizResultRepository.findINumbersIn(anyCollection())).thenAnswer(invocation -> new ArrayList<>(invocation.getArgument(0)));
+        List<Integer> batchSizes = new ArrayList<>();
+        when(quizResultRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            batchSizes.add(((List<?>) invocation.getArgument(0)).size());
+            return invocation.getArgument(0);
+        });
+        JpaQuizRankingService service = new JpaQuizRankingService(quizResultRepository, exporter);
+        ReflectionTestUtils.setField(service, "importFromExcelOnStartup", true);
+
+        service.importResultsOnStartup();
+
+        verify(quizResultRepository, never()).deleteAll();
+        assertTrue(batchSizes.isEmpty());
+    }
+}
@@ -0,0 +1,282 @@
+package com.quizmaster.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quizmaster.model.QuizResult;
+import com.quizmaster.model.dto.LeaderboardView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class LeaderboardBroadcasterTest {
+
+    private static final long SEND_TIMEOUT_MS = 5000;
+
+    private final List<QuizResult> rankings = new ArrayList<>();
+    private final AtomicLong version = new AtomicLong(1);
+    private final AtomicInteger viewsTaken = new AtomicInteger();
+    private final List<CountDownLatch> stalls = new ArrayList<>();
+    private QuizRankingService rankingService;
+    private LeaderboardBroadcaster broadcaster;
+    // Makes the next subscriber's sends wait for this latch, like a client that stopped reading
+    private CountDownLatch nextStall;
+
+    @BeforeEach
+    void setUp() {
+        rankingService = mock(QuizRankingService.class);
+        when(rankingService.getResultsVersion()).thenAnswer(invocation -> version.get());
+        when(rankingService.getLeaderboardView(anyInt(), any())).thenAnswer(invocation -> {
+            viewsTaken.incrementAndGet();
+            return LeaderboardView.builder()
+                    .rankings(new ArrayList<>(rankings))
+                    .totalParticipants(rankings.size())
+                    .version(version.get())
+                    .build();
+        });
+        rankings.add(result(1L, "Ann", 80.0, 1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        stalls.forEach(CountDownLatch::countDown);
+        if (broadcaster != null) {
+            broadcaster.shutdown();
+        }
+    }
+
+    private static QuizResult result(Long id, String userName, double percentageScore, int rank) {
+        return QuizResult.builder()
+                .id(id)
+                .userName(userName)
+                .percentageScore(percentageScore)
+                .timeTakenSeconds(60)
+                .rank(rank)
+                .build();
+    }
+
+    private LeaderboardBroadcaster newBroadcaster(int bufferSize, int maxSubscribers, int senderThreads) {
+        broadcaster = new LeaderboardBroadcaster(rankingService, new ObjectMapper(), 3, bufferSize, maxSubscribers,
+                senderThreads, SEND_TIMEOUT_MS) {
+            @Override
+            SseEmitter createEmitter() {
+                RecordingEmitter emitter = new RecordingEmitter(nextStall);
+                nextStall = null;
+                return emitter;
+            }
+        };
+        return broadcaster;
+    }
+
+    private RecordingEmitter subscribe() {
+        return (RecordingEmitter) broadcaster.subscribe();
+    }
+
+    private RecordingEmitter subscribeStalled() throws InterruptedException {
+        nextStall = new CountDownLatch(1);
+        stalls.add(nextStall);
+        RecordingEmitter emitter = subscribe();
+        assertTrue(emitter.sendStarted.await(5, TimeUnit.SECONDS));
+        return emitter;
+    }
+
+    // Another result saved since the last broadcast
+    private void saveResult(long id, String userName) {
+        rankings.add(0, result(id, userName, 90.0 + id, 1));
+        for (int i = 1; i < rankings.size(); i++) {
+            rankings.get(i).setRank(i + 1);
+        }
+        version.incrementAndGet();
+    }
+
+    @Test
+    void testSubscriberGetsTheSnapshotBeforeAnyDiff() throws InterruptedException {
+        newBroadcaster(16, 10, 2);
+        RecordingEmitter first = subscribe();
+        String snapshot = first.next();
+        assertTrue(snapshot.startsWith("event:snapshot\n"), snapshot);
+        assertTrue(snapshot.contains("\"userName\":\"Ann\""), snapshot);
+
+        saveResult(2L, "Bob");
+        broadcaster.broadcastChanges();
+        String diff = first.next();
+        assertTrue(diff.startsWith("event:diff\n"), diff);
+        assertTrue(diff.contains("\"version\":2"), diff);
+        assertTrue(diff.contains("\"userName\":\"Bob\""), diff);
+
+        // A later subscriber starts from the current snapshot and is not sent the diff it already holds
+        RecordingEmitter second = subscribe();
+        String current = second.next();
+        assertTrue(current.startsWith("event:snapshot\n"), current);
+        assertTrue(current.contains("\"version\":2"), current);
+        assertTrue(current.contains("\"userName\":\"Bob\"") && current.contains("\"userName\":\"Ann\""), current);
+        broadcaster.broadcastChanges();
+        assertNull(second.events.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testBurstOfChangesBecomesOneDiff() throws InterruptedException {
+        newBroadcaster(16, 10, 2);
+        RecordingEmitter emitter = subscribe();
+        emitter.next();
+
+        saveResult(2L, "Bob");
+        saveResult(3L, "Cid");
+        saveResult(4L, "Dee");
+        broadcaster.broadcastChanges();
+        broadcaster.broadcastChanges();
+
+        String diff = emitter.next();
+        assertTrue(diff.contains("\"version\":4"), diff);
+        assertTrue(diff.contains("\"userName\":\"Dee\""), diff);
+        assertNull(emitter.events.poll(200, TimeUnit.MILLISECONDS));
+        // One view for the snapshot and one for the diff, whatever happened in between
+        assertEquals(2, viewsTaken.get());
+    }
+
+    @Test
+    void testSubscriberThatFallsBehindIsDropped() throws InterruptedException {
+        newBroadcaster(2, 10, 2);
+        RecordingEmitter stalled = subscribeStalled();
+        RecordingEmitter healthy = subscribe();
+        healthy.next();
+
+        // The stalled subscriber is stuck on its snapshot; two diffs fill its buffer, the third drops it
+        for (long id = 2; id <= 4; id++) {
+            saveResult(id, "User " + id);
+            broadcaster.broadcastChanges();
+            assertTrue(healthy.next().contains("\"version\":" + id));
+        }
+        assertEquals(1, broadcaster.getDroppedSubscriberCount());
+        assertEquals(1, broadcaster.getSubscriberCount());
+
+        // Once the send returns, the queued diffs are discarded and the stream is closed
+        stalls.forEach(CountDownLatch::countDown);
+        assertTrue(stalled.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, stalled.events.size());
+        assertTrue(stalled.events.peek().startsWith("event:snapshot\n"));
+    }
+
+    @Test
+    void testSubscriberLimitIsEnforced() {
+        newBroadcaster(16, 2, 2);
+
+        assertNotNull(broadcaster.subscribe());
+        assertNotNull(broadcaster.subscribe());
+        assertNull(broadcaster.subscribe());
+        assertEquals(2, broadcaster.getSubscriberCount());
+    }
+
+    @Test
+    void testSubscriberLimitHoldsUnderConcurrentSubscribes() throws Exception {
+        newBroadcaster(16, 5, 2);
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<SseEmitter>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return broadcaster.subscribe();
+                }));
+            }
+            start.countDown();
+            int accepted = 0;
+            for (Future<SseEmitter> future : futures) {
+                if (future.get(5, TimeUnit.SECONDS) != null) {
+                    accepted++;
+                }
+            }
+
+            assertEquals(5, accepted);
+            assertEquals(5, broadcaster.getSubscriberCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testStalledSendIsDroppedAndItsSenderReplaced() throws InterruptedException {
+        newBroadcaster(16, 10, 1);
+        RecordingEmitter stalled = subscribeStalled();
+
+        // The only sender is stuck, so the next subscriber waits for its snapshot
+        RecordingEmitter healthy = subscribe();
+        assertNull(healthy.events.poll(200, TimeUnit.MILLISECONDS));
+        broadcaster.dropStalledSubscribers(System.currentTimeMillis() + SEND_TIMEOUT_MS - 1000);
+        assertEquals(0, broadcaster.getDroppedSubscriberCount());
+
+        broadcaster.dropStalledSubscribers(System.currentTimeMillis() + SEND_TIMEOUT_MS);
+        assertEquals(1, broadcaster.getDroppedSubscriberCount());
+        assertTrue(healthy.next().startsWith("event:snapshot\n"));
+        saveResult(2L, "Bob");
+        broadcaster.broadcastChanges();
+        assertTrue(healthy.next().startsWith("event:diff\n"));
+
+        // When the stuck send returns, the stream is closed and the extra thread goes away
+        stalls.forEach(CountDownLatch::countDown);
+        assertTrue(stalled.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(0, ReflectionTestUtils.getField(broadcaster, "replacementSenders"));
+        assertEquals(1, broadcaster.getSubscriberCount());
+    }
+
+    /**
+     * Records the events sent, optionally blocking each send until released
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        final CountDownLatch sendStarted = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+        private final CountDownLatch stall;
+
+        RecordingEmitter(CountDownLatch stall) {
+            this.stall = stall;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sendStarted.countDown();
+            if (stall != null) {
+                try {
+                    stall.await();
+                } catch (InterruptedException e) {
+                    throw new IOException("Interrupted", e);
+                }
+            }
+            events.add(builder.build().stream()
+                    .map(part -> part.getData().toString())
+                    .collect(Collectors.joining()));
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+            super.complete();
+        }
+
+        String next() throws InterruptedException {
+            String event = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event, "No event sent");
+            return event;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.quizmaster.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quizmaster.model.QuizResult;
+import com.quizmaster.model.dto.LeaderboardView;
+import com.quizmaster.service.LeaderboardCache.CachedLeaderboard;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class LeaderboardCacheTest {
+
+    private final AtomicLong version = new AtomicLong(1);
+    private final AtomicInteger lookups = new AtomicInteger();
+    private LeaderboardCache leaderboardCache;
+
+    @BeforeEach
+    void setUp() {
+        QuizRankingService quizRankingService = mock(QuizRankingService.class);
+        when(quizRankingService.getResultsVersion()).thenAnswer(invocation -> version.get());
+        when(quizRankingService.getLeaderboardView(anyInt(), any())).thenAnswer(invocation -> {
+            lookups.incrementAndGet();
+            return LeaderboardView.builder()
+                    .rankings(List.of(QuizResult.builder().id(1L).userName("User" + version.get()).rank(1).build()))
+                    .totalParticipants(1)
+                    .version(version.get())
+                    .build();
+        });
+        leaderboardCache = new LeaderboardCache(quizRankingService, new ObjectMapper());
+    }
+
+    @Test
+    void testLeaderboardIsReusedUntilTheVersionChanges() {
+        CachedLeaderboard first = leaderboardCache.getLeaderboard(10, null);
+        CachedLeaderboard second = leaderboardCache.getLeaderboard(10, null);
+
+        assertSame(first, second);
+        assertEquals(1, lookups.get());
+        assertEquals(leaderboardCache.currentETag(), first.getETag());
+        assertTrue(new String(first.getBody(), StandardCharsets.UTF_8).contains("\"User1\""));
+
+        version.incrementAndGet();
+        assertNotEquals(first.getETag(), leaderboardCache.currentETag());
+        CachedLeaderboard third = leaderboardCache.getLeaderboard(10, null);
+
+        assertEquals(2, lookups.get());
+        assertEquals(leaderboardCache.currentETag(), third.getETag());
+        assertTrue(new String(third.getBody(), StandardCharsets.UTF_8).contains("\"User2\""));
+    }
+}
@@ -0,0 +1,153 @@
+package com.quizmaster.service;
+
+import com.quizmaster.exception.QuizException;
+import com.quizmaster.repository.QuestionRepository;
+import com.quizmaster.service.impl.LruQuestionBankRegistry;
+import com.quizmaster.util.ExcelQuestionLoader;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LruQuestionBankRegistryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final MockEnvironment environment = new MockEnvironment();
+
+    // Writes a bank of the given number of questions and configures it under its name
+    private File bank(String name, int questions) throws IOException {
+        File file = tempDir.resolve(name + ".xlsx").toFile();
+        writeWorkbook(file, name, questions);
+        environment.setProperty("questions.banks." + name, file.toURI().toString());
+        return file;
+    }
+
+    private LruQuestionBankRegistry newRegistry(int maxResidentBanks, int maxResidentQuestions) {
+        LruQuestionBankRegistry registry = new LruQuestionBankRegistry(new ExcelQuestionLoader(),
+                new DefaultResourceLoader(), environment);
+        ReflectionTestUtils.setField(registry, "maxResidentBanks", maxResidentBanks);
+        ReflectionTestUtils.setField(registry, "maxResidentQuestions", maxResidentQuestions);
+        return registry;
+    }
+
+    private static void writeWorkbook(File file, String name, int questions) throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Questions");
+            sheet.createRow(0).createCell(1).setCellValue("Question");
+            for (int i = 0; i < questions; i++) {
+                Row row = sheet.createRow(i + 1);
+                row.createCell(0).setCellValue(name + "-" + i);
+                row.createCell(1).setCellValue("Question " + i + " of " + name + "?");
+                for (int option = 0; option < 4; option++) {
+                    int baseCol = 2 + option * 3;
+                    row.createCell(baseCol).setCellValue("o" + (option + 1));
+                    row.createCell(baseCol + 1).setCellValue("Option " + (option + 1));
+                    row.createCell(baseCol + 2).setCellValue(option == 0);
+                }
+            }
+            try (OutputStream out = Files.newOutputStream(file.toPath())) {
+                workbook.write(out);
+            }
+        }
+    }
+
+    private static List<String> resident(LruQuestionBankRegistry registry) {
+        return List.copyOf(registry.getResidentBankNames());
+    }
+
+    @Test
+    void testLeastRecentlyUsedBankIsEvicted() throws IOException {
+        bank("a", 1);
+        bank("b", 1);
+        bank("c", 1);
+        LruQuestionBankRegistry registry = newRegistry(2, 100);
+
+        QuestionRepository a = registry.getBank("a");
+        registry.getBank("b");
+        // Using a again leaves b as the least recently used
+        assertSame(a, registry.getBank("a"));
+        registry.getBank("c");
+
+        assertEquals(List.of("a", "c"), resident(registry));
+        assertEquals(List.of("a", "b", "c"), List.copyOf(registry.getBankNames()));
+        // An evicted bank is parsed again on its next use
+        assertEquals("b-0", registry.getBank("b").findAll().get(0).getId());
+        assertEquals(List.of("c", "b"), resident(registry));
+    }
+
+    @Test
+    void testQuestionLimitEvictsBanks() throws IOException {
+        bank("a", 3);
+        bank("b", 2);
+        bank("c", 3);
+        LruQuestionBankRegistry registry = newRegistry(10, 5);
+
+        registry.getBank("a");
+        registry.getBank("b");
+        assertEquals(List.of("a", "b"), resident(registry));
+
+        // Eight questions would be resident, so banks are evicted oldest first until five or fewer remain
+        registry.getBank("c");
+        assertEquals(List.of("b", "c"), resident(registry));
+    }
+
+    @Test
+    void testJustLoadedBankIsNeverEvicted() throws IOException {
+        bank("small", 1);
+        bank("large", 4);
+        LruQuestionBankRegistry registry = newRegistry(10, 2);
+
+        registry.getBank("small");
+        QuestionRepository large = registry.getBank("large");
+
+        // Over the question limit on its own, but the bank being served stays resident
+        assertEquals(List.of("large"), resident(registry));
+        assertEquals(4, large.count());
+        assertSame(large, registry.getBank("large"));
+    }
+
+    @Test
+    void testChangedFileIsReloaded() throws IOException {
+        File file = bank("a", 2);
+        LruQuestionBankRegistry registry = newRegistry(4, 100);
+        QuestionRepository loaded = registry.getBank("a");
+        assertSame(loaded, registry.getBank("a"));
+
+        // A different length is picked up although the modification time was kept
+        long lastModified = file.lastModified();
+        writeWorkbook(file, "a", 3);
+        assertTrue(file.setLastModified(lastModified));
+        QuestionRepository longer = registry.getBank("a");
+        assertEquals(3, longer.count());
+
+        // So is a new modification time on its own
+        assertTrue(file.setLastModified(lastModified + 2000));
+        QuestionRepository touched = registry.getBank("a");
+        assertNotSame(longer, touched);
+        assertSame(touched, registry.getBank("a"));
+        assertEquals(List.of("a"), resident(registry));
+    }
+
+    @Test
+    void testUnknownBankIsRejected() {
+        LruQuestionBankRegistry registry = newRegistry(4, 100);
+
+        QuizException exception = assertThrows(QuizException.class, () -> registry.getBank("missing"));
+        assertEquals("Unknown question bank: missing", exception.getMessage());
+    }
+}
@@ -0,0 +1,36 @@
+package com.quizmaster.service;
+
+import com.quizmaster.model.Question;
+import com.quizmaster.repository.impl.IndexedQuestionRepository;
+import com.quizmaster.service.impl.QuestionEditorServiceImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class QuestionEditorServiceTest {
+
+    @Test
+    void testQuestionsAreReturnedAsCopies() {
+        List<Question> bank = QuizServiceFixtures.questionBank(2);
+        QuestionCatalog questionCatalog = mock(QuestionCatalog.class);
+        when(questionCatalog.getQuestions()).thenReturn(bank);
+        when(questionCatalog.getQuestionRepository()).thenReturn(new IndexedQuestionRepository(bank));
+        QuestionEditorServiceImpl editorService = new QuestionEditorServiceImpl(questionCatalog);
+
+        Question fetched = editorService.getQuestionById("q1");
+        fetched.setText("Changed?");
+        fetched.getOptions().get(1).setCorrect(false);
+        editorService.getAllQuestions().get(0).setText("Also changed?");
+
+        // The catalog's instances are untouched
+        assertEquals("Question 1?", bank.get(1).getText());
+        assertTrue(bank.get(1).getOptions().get(1).isCorrect());
+        assertEquals("Question 0?", bank.get(0).getText());
+        assertEquals("Question 1?", editorService.getQuestionById("q1").getText());
+        assertNull(editorService.getQuestionById("q9"));
+    }
+}
@@ -0,0 +1,147 @@
+package com.quizmaster.service;
+
+import com.quizmaster.model.Option;
+import com.quizmaster.model.Question;
+import com.quizmaster.model.dto.StartQuizRequest;
+import com.quizmaster.model.dto.ValidateAnswerRequest;
+import com.quizmaster.model.dto.ValidateAnswerResponse;
+import com.quizmaster.repository.QuestionRepository;
+import com.quizmaster.repository.impl.InMemoryQuizSessionStore;
+import com.quizmaster.repository.impl.IndexedQuestionRepository;
+import com.quizmaster.service.impl.QuizServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures heap allocation on the answer-validation path with the per-thread allocation counter.
+ * The catalog is a plain implementation rather than a mock, since mock invocations allocate.
+ */
+public class QuizServiceAllocationTest {
+
+    private static final int SESSIONS = 200;
+
+    private QuizServiceImpl quizService;
+
+    @BeforeEach
+    void setUp() {
+        Question question = Question.builder()
+                .id("q1")
+                .text("Sample question?")
+                .options(Arrays.asList(
+                        Option.builder().id("opt1").text("Option 1").correct(false).build(),
+                        Option.builder().id("opt2").text("Option 2").correct(true).build(),
+                        Option.builder().id("opt3").text("Option 3").correct(false).build(),
+                        Option.builder().id("opt4").text("Option 4").correct(false).build()))
+                .build();
+        QuestionRepository repository = new IndexedQuestionRepository(List.of(question));
+
+        QuestionCatalog questionCatalog = new QuestionCatalog() {
+            @Override
+            public List<Question> getQuestions() {
+                return repository.findAll();
+            }
+
+            @Override
+            public QuestionRepository getQuestionRepository() {
+                return repository;
+            }
+
+            @Override
+            public long getVersion() {
+                return 1;
+            }
+
+            @Override
+            public boolean reloadIfChanged() {
+                return false;
+            }
+
+            @Override
+            public Question addQuestion(Question question) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Question updateQuestion(Question question) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public boolean deleteQuestion(String id) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void save() {
+                throw new UnsupportedOperationException();
+            }
+        };
+
+        quizService = new QuizServiceImpl(questionCatalog, mock(QuestionBankRegistry.class),
+                new InMemoryQuizSessionStore(), mock(QuizRankingService.class));
+    }
+
+    @Test
+    void testValidateAnswerAllocatesOnlyTheResponse() {
+        java.lang.management.ThreadMXBean platformBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(platformBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) platformBean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        // Every session gets one wrong answer, so each call takes the same path
+        ValidateAnswerRequest[] requests = new ValidateAnswerRequest[SESSIONS];
+        for (int i = 0; i < SESSIONS; i++) {
+            StartQuizRequest startRequest = StartQuizRequest.builder()
+                    .userName("user" + i)
+                    .iNumber("I" + i)
+                    .build();
+            String sessionId = quizService.startQuiz(startRequest).getSessionId();
+            String questionId = quizService.getQuestion(sessionId).getQuestionId();
+            requests[i] = ValidateAnswerRequest.builder()
+                    .sessionId(sessionId)
+                    .questionId(questionId)
+                    .answerId("opt1")
+                    .build();
+        }
+        ValidateAnswerResponse[] responses = new ValidateAnswerResponse[SESSIONS];
+        String message = "Incorrect answer. Please try again. Attempts remaining: 2";
+        long threadId = Thread.currentThread().getId();
+
+        // Baseline: building the same response directly
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < SESSIONS; i++) {
+            responses[i] = ValidateAnswerResponse.builder()
+                    .questionId("q1")
+                    .correct(false)
+                    .attempts(1)
+                    .maxAttempts(3)
+                    .message(message)
+                    .remainingAttempts(2)
+                    .build();
+        }
+        long responseBytes = threads.getThreadAllocatedBytes(threadId) - before;
+
+        before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < SESSIONS; i++) {
+            responses[i] = quizService.validateAnswer(requests[i]);
+        }
+        long validateBytes = threads.getThreadAllocatedBytes(threadId) - before;
+
+        for (ValidateAnswerResponse response : responses) {
+            assertFalse(response.isCorrect());
+            assertEquals(message, response.getMessage());
+        }
+        assertTrue(validateBytes <= responseBytes,
+                "validateAnswer allocated " + validateBytes + " bytes for " + SESSIONS
+                        + " calls, building the responses alone takes " + responseBytes);
+    }
+}
@@ -0,0 +1,151 @@
+package com.quizmaster.service;
+
+import com.quizmaster.exception.QuizException;
+import com.quizmaster.model.dto.EndQuizResponse;
+import com.quizmaster.model.dto.ScoreResponse;
+import com.quizmaster.model.dto.StartQuizRequest;
+import com.quizmaster.model.dto.ValidateAnswerRequest;
+import com.quizmaster.model.dto.ValidateAnswerResponse;
+import com.quizmaster.repository.impl.InMemoryQuizSessionStore;
+import com.quizmaster.service.impl.QuizServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fires the same request at one session from many threads at once and checks that the session
+ * ends up exactly as if the requests had run one after another.
+ */
+public class QuizServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 200;
+
+    private QuizServiceImpl quizService;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        quizService = QuizServiceFixtures.newService(QuizServiceFixtures.questionBank(10),
+                new InMemoryQuizSessionStore());
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testConcurrentCorrectAnswersCountOnce() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            String sessionId = startSession();
+            ValidateAnswerRequest request = answer(sessionId, "opt2");
+
+            List<ValidateAnswerResponse> responses = submitConcurrently(() -> quizService.validateAnswer(request));
+
+            assertEquals(1, responses.size());
+            assertTrue(responses.get(0).isCorrect());
+            ScoreResponse score = quizService.getScore(sessionId);
+            assertEquals(1, score.getTotalQuestions());
+            assertEquals(1, score.getCorrectAnswers());
+        }
+    }
+
+    @Test
+    void testConcurrentWrongAnswersUseEachAttemptOnce() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            String sessionId = startSession();
+            ValidateAnswerRequest request = answer(sessionId, "opt1");
+
+            List<ValidateAnswerResponse> responses = submitConcurrently(() -> quizService.validateAnswer(request));
+
+            // Exactly the three attempts are consumed, each by one request
+            assertEquals(3, responses.size());
+            boolean[] seenAttempts = new boolean[4];
+            for (ValidateAnswerResponse response : responses) {
+                assertFalse(response.isCorrect());
+                assertFalse(seenAttempts[response.getAttempts()]);
+                seenAttempts[response.getAttempts()] = true;
+            }
+            ScoreResponse score = quizService.getScore(sessionId);
+            assertEquals(1, score.getTotalQuestions());
+            assertEquals(0, score.getCorrectAnswers());
+        }
+    }
+
+    @Test
+    void testConcurrentEndReturnsResultsOnce() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            String sessionId = startSession();
+            quizService.validateAnswer(answer(sessionId, "opt2"));
+
+            List<EndQuizResponse> responses = submitConcurrently(() -> quizService.endQuiz(sessionId));
+
+            // Requests that arrive after the end get the generic response rather than the results
+            List<EndQuizResponse> results = new ArrayList<>();
+            for (EndQuizResponse response : responses) {
+                if ("Quiz completed successfully".equals(response.getMessage())) {
+                    results.add(response);
+                }
+            }
+            assertEquals(1, results.size());
+            assertEquals(1, results.get(0).getCorrectAnswers());
+        }
+    }
+
+    private String startSession() {
+        String sessionId = quizService.startQuiz(StartQuizRequest.builder()
+                .userName("TestUser")
+                .build()).getSessionId();
+        quizService.getQuestion(sessionId);
+        return sessionId;
+    }
+
+    private ValidateAnswerRequest answer(String sessionId, String answerId) {
+        return ValidateAnswerRequest.builder()
+                .sessionId(sessionId)
+                .questionId(quizService.getQuestion(sessionId).getQuestionId())
+                .answerId(answerId)
+                .build();
+    }
+
+    /**
+     * Runs the call on every thread at once and collects the results of the calls that were accepted
+     */
+    private <T> List<T> submitConcurrently(Callable<T> call) throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                ready.countDown();
+                start.await();
+                return call.call();
+            }));
+        }
+        ready.await();
+        start.countDown();
+
+        List<T> accepted = new ArrayList<>();
+        for (Future<T> future : futures) {
+            try {
+                accepted.add(future.get());
+            } catch (ExecutionException e) {
+                assertInstanceOf(QuizException.class, e.getCause());
+            }
+        }
+        return accepted;
+    }
+}
@@ -0,0 +1,70 @@
+package com.quizmaster.service;
+
+import com.quizmaster.model.Option;
+import com.quizmaster.model.Question;
+import com.quizmaster.repository.QuizSessionStore;
+import com.quizmaster.repository.impl.IndexedQuestionRepository;
+import com.quizmaster.service.impl.QuizServiceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Question banks and quiz services shared by the tests that play whole quizzes
+ */
+final class QuizServiceFixtures {
+
+    private QuizServiceFixtures() {
+    }
+
+    /**
+     * Question "q" + number with options opt1 to opt4, of which opt2 is correct
+     */
+    static Question question(int number) {
+        return Question.builder()
+                .id("q" + number)
+                .text("Question " + number + "?")
+                .options(Arrays.asList(
+                        Option.builder().id("opt1").text("Option 1").correct(false).build(),
+                        Option.builder().id("opt2").text("Option 2").correct(true).build(),
+                        Option.builder().id("opt3").text("Option 3").correct(false).build(),
+                        Option.builder().id("opt4").text("Option 4").correct(false).build()))
+                .build();
+    }
+
+    /**
+     * Questions q0 to q{size - 1}, as built by {@link #question}
+     */
+    static List<Question> questionBank(int size) {
+        List<Question> bank = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            bank.add(question(i));
+        }
+        return bank;
+    }
+
+    /**
+     * A quiz service over a bank of 20 questions
+     */
+    static QuizServiceImpl newService(QuizSessionStore store) {
+        return newService(questionBank(20), store);
+    }
+
+    /**
+     * A quiz service over the given bank, with no named banks and no session cap. Ended sessions are
+     * only evicted by the scheduler, so a capped service would fill up during long runs.
+     */
+    static QuizServiceImpl newService(List<Question> bank, QuizSessionStore store) {
+        QuestionCatalog questionCatalog = mock(QuestionCatalog.class);
+        when(questionCatalog.getQuestionRepository()).thenReturn(new IndexedQuestionRepository(bank));
+        QuizServiceImpl service = new QuizServiceImpl(questionCatalog, mock(QuestionBankRegistry.class),
+                store, mock(QuizRankingService.class));
+        ReflectionTestUtils.setField(service, "maxSessions", Integer.MAX_VALUE);
+        return service;
+    }
+}
@@ -1,20 +1,32 @@
 package com.quizmaster.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.quizmaster.exception.QuizException;
+import com.quizmaster.exception.SessionCapacityException;
 import com.quizmaster.model.Option;
 import com.quizmaster.model.Question;
+import com.quizmaster.model.QuizSession;
 import com.quizmaster.model.dto.*;
+import com.quizmaster.repository.QuizSessionStore;
+import com.quizmaster.repository.impl.InMemoryQuizSessionStore;
+import com.quizmaster.repository.impl.IndexedQuestionRepository;
 import com.quizmaster.service.impl.QuizServiceImpl;
-import com.quizmaster.util.ExcelQuestionLoader;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -23,7 +35,7 @@ import static org.mockito.Mockito.*;
 public class QuizServiceTest {
 
     @Mock
-    private ExcelQuestionLoader questionLoader;
+    private QuestionCatalog questionCatalog;
 
     @InjectMocks
     private QuizServiceImpl quizService;
@@ -34,6 +46,12 @@ public class QuizServiceTest {
     @Mock
     private QuizRankingService quizRankingService;
 
+    @Mock
+    private QuestionBankRegistry questionBankRegistry;
+
+    @Spy
+    private QuizSessionStore sessionStore = new InMemoryQuizSessionStore();
+
 
     @BeforeEach
     void setUp() {
@@ -51,8 +69,9 @@ public class QuizServiceTest {
 
         mockQuestions = List.of(sampleQuestion);
 
-        // Mock the question loader
-        lenient().when(questionLoader.loadQuestions()).thenReturn(mockQuestions);
+        // Mock the question catalog
+        lenient().when(questionCatalog.getQuestions()).thenReturn(mockQuestions);
+        lenient().when(questionCatalog.getQuestionRepository()).thenReturn(new IndexedQuestionRepository(mockQuestions));
     }
 
     @Test
@@ -147,6 +166,87 @@ public class QuizServiceTest {
         assertEquals(2, validateResponse.getRemainingAttempts());
     }
 
+    @Test
+    void testAnswerQuestionServesNextQuestionInTheSameStep() {
+        // Arrange
+        List<Question> bank = QuizServiceFixtures.questionBank(3);
+        when(questionCatalog.getQuestionRepository()).thenReturn(new IndexedQuestionRepository(bank));
+        StartQuizResponse startResponse = quizService.startQuiz(StartQuizRequest.builder()
+                .userName("TestUser")
+                .build());
+        String sessionId = startResponse.getSessionId();
+        QuestionResponse first = quizService.getQuestion(sessionId);
+
+        // Act
+        ValidateAnswerResponse wrong = quizService.answerQuestion(ValidateAnswerRequest.builder()
+                .sessionId(sessionId)
+                .questionId(first.getQuestionId())
+                .answerId("opt1")
+                .build());
+        ValidateAnswerResponse correct = quizService.answerQuestion(ValidateAnswerRequest.builder()
+                .sessionId(sessionId)
+                .questionId(first.getQuestionId())
+                .answerId("opt2")
+                .build());
+
+        // Assert
+        assertNull(wrong.getNextQuestion());
+        assertTrue(correct.isCorrect());
+        QuestionResponse next = correct.getNextQuestion();
+        assertNotNull(next);
+        assertNotEquals(first.getQuestionId(), next.getQuestionId());
+        assertEquals(0, next.getAttempts());
+        assertEquals(1, next.getCompletedQuestions());
+        // The next question is already current, so fetching it does not move on again
+        assertEquals(next.getQuestionId(), quizService.getQuestion(sessionId).getQuestionId());
+        assertEquals(1, quizService.getScore(sessionId).getCorrectAnswers());
+    }
+
+    @Test
+    void testAnswerQuestionOnLastQuestionServesNothing() {
+        // Arrange
+        StartQuizResponse startResponse = quizService.startQuiz(StartQuizRequest.builder()
+                .userName("TestUser")
+                .build());
+        QuestionResponse questionResponse = quizService.getQuestion(startResponse.getSessionId());
+
+        // Act
+        ValidateAnswerResponse response = quizService.answerQuestion(ValidateAnswerRequest.builder()
+                .sessionId(startResponse.getSessionId())
+                .questionId(questionResponse.getQuestionId())
+                .answerId("opt2")
+                .build());
+
+        // Assert
+        assertTrue(response.isCorrect());
+        assertNull(response.getNextQuestion());
+    }
+
+    @Test
+    void testPrefetchQuestionsHasNoCorrectnessData() throws Exception {
+        // Arrange
+        StartQuizResponse startResponse = quizService.startQuiz(StartQuizRequest.builder()
+                .userName("TestUser")
+                .build());
+        quizService.getQuestion(startResponse.getSessionId());
+
+        // Act
+        byte[] json = quizService.prefetchQuestions(startResponse.getSessionId());
+
+        // Assert
+        JsonNode payload = new ObjectMapper().readTree(json);
+        assertEquals(startResponse.getSessionId(), payload.get("sessionId").asText());
+        assertEquals(3, payload.get("maxAttempts").asInt());
+        assertEquals(0, payload.get("currentIndex").asInt());
+        assertEquals(1, payload.get("questions").size());
+        JsonNode question = payload.get("questions").get(0);
+        assertEquals("q1", question.get("questionId").asText());
+        assertEquals("Sample question?", question.get("text").asText());
+        assertEquals(4, question.get("options").size());
+        assertEquals("opt2", question.get("options").get(1).get("id").asText());
+        assertFalse(new String(json, StandardCharsets.UTF_8).contains("correct"));
+    }
+
     @Test
     void testGetScore() {
         // Arrange
@@ -210,4 +310,127 @@ public class QuizServiceTest {
         // Verify that trying to get a question after ending throws an exception
         assertThrows(QuizException.class, () -> quizService.getQuestion(startResponse.getSessionId()));
     }
+
+    @Test
+    void testQuestionsAreDrawnWithoutRepetition() {
+        // Arrange
+        List<Question> bank = QuizServiceFixtures.questionBank(20);
+        when(questionCatalog.getQuestionRepository()).thenReturn(new IndexedQuestionRepository(bank));
+
+        StartQuizRequest request = StartQuizRequest.builder()
+                .userName("TestUser")
+                .build();
+        StartQuizResponse startResponse = quizService.startQuiz(request);
+
+        // Act
+        Set<String> servedQuestionIds = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            QuestionResponse questionResponse = quizService.getQuestion(startResponse.getSessionId());
+            servedQuestionIds.add(questionResponse.getQuestionId());
+            quizService.validateAnswer(ValidateAnswerRequest.builder()
+                    .sessionId(startResponse.getSessionId())
+                    .questionId(questionResponse.getQuestionId())
+                    .answerId("opt2")
+                    .build());
+        }
+
+        // Assert
+        assertEquals(5, servedQuestionIds.size());
+        assertThrows(QuizException.class, () -> quizService.getQuestion(startResponse.getSessionId()));
+    }
+
+    @Test
+    void testStartQuizWithNamedBank() {
+        // Arrange
+        Question bankQuestion = Question.builder()
+                .id("team-q1")
+                .text("Team question?")
+                .options(sampleQuestion.getOptions())
+                .build();
+        when(questionBankRegistry.getBank("team")).thenReturn(new IndexedQuestionRepository(List.of(bankQuestion)));
+
+        StartQuizRequest request = StartQuizRequest.builder()
+                .userName("TestUser")
+                .bank("team")
+                .build();
+
+        // Act
+        StartQuizResponse startResponse = quizService.startQuiz(request);
+        QuestionResponse questionResponse = quizService.getQuestion(startResponse.getSessionId());
+
+        // Assert
+        assertEquals("team", startResponse.getBank());
+        assertEquals("team-q1", questionResponse.getQuestionId());
+    }
+
+    @Test
+    void testResumedSessionIsRejectedWhenItsQuestionsMoved() {
+        // Arrange
+        List<Question> bank = QuizServiceFixtures.questionBank(3);
+        when(questionCatalog.getQuestionRepository()).thenReturn(new IndexedQuestionRepository(bank));
+        StartQuizRequest request = StartQuizRequest.builder()
+                .userName("TestUser")
+                .build();
+        String sessionId = quizService.startQuiz(request).getSessionId();
+        // A shared store hands the session to another instance without its bank
+        QuizSession session = sessionStore.find(sessionId);
+
+        // Act: a text edit keeps every question where it was
+        List<Question> edited = new ArrayList<>(bank);
+        edited.set(0, Question.builder().id("q0").text("Question 0, edited?").options(sampleQuestion.getOptions()).build());
+        when(questionCatalog.getQuestionRepository()).thenReturn(new IndexedQuestionRepository(edited));
+        session.setQuestionBank(null);
+        QuestionResponse resumed = quizService.getQuestion(sessionId);
+
+        // Act: deleting q1 and adding q3 keeps the size but moves q2
+        List<Question> shifted = List.of(bank.get(0), bank.get(2), QuizServiceFixtures.question(3));
+        when(questionCatalog.getQuestionRepository()).thenReturn(new IndexedQuestionRepository(shifted));
+        session.setQuestionBank(null);
+
+        // Assert
+        assertNotNull(resumed);
+        QuizException exception = assertThrows(QuizException.class, () -> quizService.getQuestion(sessionId));
+        assertEquals("Invalid or expired session ID", exception.getMessage());
+    }
+
+    @Test
+    void testSessionsAreEvictedAfterTtl() {
+        // Arrange
+        StartQuizRequest request = StartQuizRequest.builder()
+                .userName("TestUser")
+                .build();
+        String idleSessionId = quizService.startQuiz(request).getSessionId();
+        String endedSessionId = quizService.startQuiz(request).getSessionId();
+        quizService.endQuiz(endedSessionId);
+        long now = System.currentTimeMillis();
+
+        // Act
+        int evictedAfterEndTtl = quizService.expireSessions(now + 300000 + 2000);
+        int evictedAfterIdleTtl = quizService.expireSessions(now + 1800000 + 2000);
+
+        // Assert
+        assertEquals(1, evictedAfterEndTtl);
+        assertEquals(1, evictedAfterIdleTtl);
+        SessionStatsResponse stats = quizService.getSessionStats();
+        assertEquals(0, stats.getLiveSessions());
+        assertEquals(1, stats.getIdleEvictions());
+        assertEquals(1, stats.getEndedEvictions());
+        QuizException exception = assertThrows(QuizException.class, () -> quizService.getQuestion(idleSessionId));
+        assertEquals("Invalid or expired session ID", exception.getMessage());
+    }
+
+    @Test
+    void testStartQuizRejectedAtSessionCap() {
+        // Arrange
+        ReflectionTestUtils.setField(quizService, "maxSessions", 1);
+        StartQuizRequest request = StartQuizRequest.builder()
+                .userName("TestUser")
+                .build();
+        quizService.startQuiz(request);
+
+        // Act & Assert
+        assertThrows(SessionCapacityException.class, () -> quizService.startQuiz(request));
+        assertEquals(1, quizService.getSessionStats().getLiveSessions());
+        assertEquals(1, quizService.getSessionStats().getRejectedStarts());
+    }
 }
@@ -0,0 +1,130 @@
+package com.quizmaster.service;
+
+import com.quizmaster.model.dto.QuestionResponse;
+import com.quizmaster.model.dto.StartQuizRequest;
+import com.quizmaster.model.dto.ValidateAnswerRequest;
+import com.quizmaster.repository.QuizSessionStore;
+import com.quizmaster.repository.impl.InMemoryQuizSessionStore;
+import com.quizmaster.repository.impl.TokenQuizSessionStore;
+import com.quizmaster.service.impl.QuizServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares sessions held in memory with sessions handed to the client as signed tokens: requests
+ * per second for whole quizzes played on several threads, and the heap still taken once a batch of
+ * quizzes is in progress.
+ * Run with {@code mvn test -Dtest=SessionModeBenchmarkTest -Dbenchmarks=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+public class SessionModeBenchmarkTest {
+
+    private static final int THREADS = 8;
+    private static final int QUIZZES_PER_THREAD = 5_000;
+    private static final int HELD_SESSIONS = 50_000;
+
+    @Test
+    void testThroughputAndRetainedHeap() throws Exception {
+        Supplier<QuizSessionStore> memory = InMemoryQuizSessionStore::new;
+        Supplier<QuizSessionStore> token = () -> new TokenQuizSessionStore("benchmark-secret", 1800000);
+
+        // Warm up both modes
+        playQuizzes(QuizServiceFixtures.newService(memory.get()), 500);
+        playQuizzes(QuizServiceFixtures.newService(token.get()), 500);
+
+        double memoryRate = playQuizzes(QuizServiceFixtures.newService(memory.get()), QUIZZES_PER_THREAD);
+        double tokenRate = playQuizzes(QuizServiceFixtures.newService(token.get()), QUIZZES_PER_THREAD);
+        long memoryBytes = retainedBytesPerSession(memory);
+        long tokenBytes = retainedBytesPerSession(token);
+
+        System.out.printf("Requests per second: memory %.0f, token %.0f%n", memoryRate, tokenRate);
+        System.out.printf("Retained bytes per session in progress: memory %d, token %d%n", memoryBytes, tokenBytes);
+    }
+
+    /**
+     * Plays whole quizzes on every thread, following the session ID returned with each step
+     *
+     * @return requests per second
+     */
+    private double playQuizzes(QuizServiceImpl service, int quizzesPerThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            long started = System.nanoTime();
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    int requests = 0;
+                    for (int i = 0; i < quizzesPerThread; i++) {
+                        String sessionId = service.startQuiz(StartQuizRequest.builder()
+                                .userName("Benchmark")
+                                .iNumber("I000000")
+                                .build()).getSessionId();
+                        requests++;
+                        for (int question = 0; question < 5; question++) {
+                            QuestionResponse response = service.getQuestion(sessionId);
+                            sessionId = response.getSessionId();
+                            sessionId = service.validateAnswer(ValidateAnswerRequest.builder()
+                                    .sessionId(sessionId)
+                                    .questionId(response.getQuestionId())
+                                    .answerId("opt2")
+                                    .build()).getSessionId();
+                            requests += 2;
+                        }
+                        service.endQuiz(sessionId);
+                        requests++;
+                    }
+                    return requests;
+                }));
+            }
+            long requests = 0;
+            for (Future<Integer> future : futures) {
+                requests += future.get();
+            }
+            return requests / ((System.nanoTime() - started) / 1e9);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Measures the heap taken on the server by sessions one question into the quiz; the IDs the
+     * clients would hold are dropped
+     */
+    private long retainedBytesPerSession(Supplier<QuizSessionStore> storeFactory) {
+        QuizServiceImpl service = QuizServiceFixtures.newService(storeFactory.get());
+        String lastSessionId = null;
+        long before = usedHeapAfterGc();
+        for (int i = 0; i < HELD_SESSIONS; i++) {
+            String sessionId = service.startQuiz(StartQuizRequest.builder()
+                    .userName("Benchmark")
+                    .iNumber("I000000")
+                    .build()).getSessionId();
+            QuestionResponse response = service.getQuestion(sessionId);
+            lastSessionId = service.validateAnswer(ValidateAnswerRequest.builder()
+                    .sessionId(response.getSessionId())
+                    .questionId(response.getQuestionId())
+                    .answerId("opt2")
+                    .build()).getSessionId();
+        }
+        long retained = usedHeapAfterGc() - before;
+        assertEquals(1, service.getScore(lastSessionId).getTotalQuestions());
+        return retained / HELD_SESSIONS;
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,92 @@
+package com.quizmaster.service;
+
+import com.quizmaster.model.dto.StartQuizRequest;
+import com.quizmaster.repository.impl.InMemoryQuizSessionStore;
+import com.quizmaster.service.impl.QuizServiceImpl;
+import com.quizmaster.util.SessionIds;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures how many quizzes per second can be started from many threads at once, and compares the
+ * session ID generators on their own: {@code UUID.randomUUID()}, which shares one SecureRandom,
+ * against the per-thread generator of {@link SessionIds}.
+ * Run with {@code mvn test -Dtest=SessionStartBenchmarkTest -Dbenchmarks=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+public class SessionStartBenchmarkTest {
+
+    private static final int[] THREAD_COUNTS = {1, 8, 32, 64};
+    private static final int CALLS_PER_THREAD = 20_000;
+
+    @Test
+    void testStartQuizThroughput() throws Exception {
+        for (int threads : THREAD_COUNTS) {
+            QuizServiceImpl service = QuizServiceFixtures.newService(new InMemoryQuizSessionStore());
+            StartQuizRequest request = StartQuizRequest.builder()
+                    .userName("Benchmark")
+                    .iNumber("I000000")
+                    .build();
+            double rate = run(threads, () -> service.startQuiz(request));
+            // The warm-up round starts sessions too
+            assertEquals(threads * CALLS_PER_THREAD + CALLS_PER_THREAD / 10,
+                    service.getSessionStats().getLiveSessions());
+            System.out.printf("startQuiz on %d threads: %.0f per second%n", threads, rate);
+        }
+    }
+
+    @Test
+    void testSessionIdThroughput() throws Exception {
+        for (int threads : THREAD_COUNTS) {
+            double uuidRate = run(threads, () -> UUID.randomUUID().toString());
+            double shardedRate = run(threads,
+                    () -> SessionIds.newId(ThreadLocalRandom.current().nextInt(SessionIds.SHARDS)));
+            System.out.printf("Session IDs on %d threads: UUID %.0f, SessionIds %.0f per second%n",
+                    threads, uuidRate, shardedRate);
+        }
+    }
+
+    /**
+     * Runs the call on every thread at once, after a warm-up round
+     *
+     * @return calls per second
+     */
+    private static double run(int threads, Runnable call) throws Exception {
+        for (int i = 0; i < CALLS_PER_THREAD / 10; i++) {
+            call.run();
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < CALLS_PER_THREAD; i++) {
+                        call.run();
+                    }
+                    return null;
+                }));
+            }
+            long started = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return (double) threads * CALLS_PER_THREAD / ((System.nanoTime() - started) / 1e9);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
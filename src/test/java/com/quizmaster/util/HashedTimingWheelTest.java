@@ -0,0 +1,115 @@
+package com.quizmaster.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HashedTimingWheelTest {
+
+    private static final long TICK_MS = 1000;
+    private static final long ORIGIN_MS = 1_700_000_000_000L;
+
+    private static long at(long millis) {
+        return ORIGIN_MS + millis;
+    }
+
+    @Test
+    void testKeysFireOnceTheirDeadlineHasPassed() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(TICK_MS, 8, ORIGIN_MS);
+        List<String> fired = new ArrayList<>();
+        wheel.schedule("a", at(2500));
+        wheel.schedule("b", at(3000));
+
+        // Deadlines are rounded up to the tick, so both fire at the start of tick 3
+        assertEquals(0, wheel.advance(at(2999), fired::add));
+        assertEquals(2, wheel.advance(at(3000), fired::add));
+        assertEquals(List.of("a", "b"), fired);
+        assertEquals(0, wheel.size());
+
+        // Going back in time or staying in the same tick does nothing
+        assertEquals(0, wheel.advance(at(3500), fired::add));
+        assertEquals(0, wheel.advance(at(1000), fired::add));
+    }
+
+    @Test
+    void testDeadlinesBeyondOneRotationWaitForTheirRound() {
+        // The session expiry setup: a 30 minute TTL on a wheel of 512 one-second ticks
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(TICK_MS, 512, ORIGIN_MS);
+        long ttl = 30 * 60 * 1000;
+        wheel.schedule("session", at(ttl));
+        wheel.schedule("early", at(ttl - 512 * TICK_MS));
+        List<String> fired = new ArrayList<>();
+
+        // Both land in the same bucket, which the wheel passes three times before the TTL
+        for (long now = TICK_MS; now < ttl - 512 * TICK_MS; now += TICK_MS) {
+            assertEquals(0, wheel.advance(at(now), fired::add));
+        }
+        assertEquals(1, wheel.advance(at(ttl - 512 * TICK_MS), fired::add));
+        assertEquals(List.of("early"), fired);
+
+        for (long now = ttl - 511 * TICK_MS; now < ttl; now += TICK_MS) {
+            assertEquals(0, wheel.advance(at(now), fired::add));
+        }
+        assertEquals(1, wheel.size());
+        assertEquals(1, wheel.advance(at(ttl), fired::add));
+        assertEquals(List.of("early", "session"), fired);
+    }
+
+    @Test
+    void testLongPauseCatchesUpInOnePass() {
+        HashedTimingWheel<Integer> wheel = new HashedTimingWheel<>(TICK_MS, 8, ORIGIN_MS);
+        for (int second = 1; second <= 20; second++) {
+            wheel.schedule(second, at(second * TICK_MS));
+        }
+        wheel.schedule(100, at(100 * TICK_MS));
+        List<Integer> fired = new ArrayList<>();
+
+        // 50 ticks elapsed on a wheel of 8: every bucket is visited once and everything due fires
+        assertEquals(20, wheel.advance(at(50 * TICK_MS), fired::add));
+        assertEquals(20, fired.size());
+        assertTrue(fired.containsAll(List.of(1, 8, 9, 16, 17, 20)));
+        assertEquals(1, wheel.size());
+
+        // A deadline already in the past fires on the next tick rather than being lost
+        wheel.schedule(-1, at(10 * TICK_MS));
+        assertEquals(0, wheel.advance(at(50 * TICK_MS + 999), fired::add));
+        assertEquals(1, wheel.advance(at(51 * TICK_MS), fired::add));
+        assertEquals(Integer.valueOf(-1), fired.get(20));
+
+        assertEquals(0, wheel.advance(at(99 * TICK_MS), fired::add));
+        assertEquals(1, wheel.advance(at(1000 * TICK_MS), fired::add));
+        assertEquals(Integer.valueOf(100), fired.get(21));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testCallbackCanRescheduleTheKey() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(TICK_MS, 8, ORIGIN_MS);
+        wheel.schedule("touched", at(TICK_MS));
+        wheel.schedule("overdue", at(TICK_MS));
+        List<String> fired = new ArrayList<>();
+
+        // Like the session sweep: a session touched meanwhile is put back with its new deadline
+        assertEquals(2, wheel.advance(at(TICK_MS), key -> {
+            fired.add(key);
+            wheel.schedule(key, "touched".equals(key) ? at(4 * TICK_MS) : at(0));
+        }));
+        assertEquals(2, wheel.size());
+
+        // A deadline in the past from within the callback waits for the next advance instead of looping
+        assertEquals(1, wheel.advance(at(2 * TICK_MS), fired::add));
+        assertEquals(0, wheel.advance(at(3 * TICK_MS + 999), fired::add));
+        assertEquals(1, wheel.advance(at(4 * TICK_MS), fired::add));
+        assertEquals(List.of("touched", "overdue", "overdue", "touched"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testInvalidArgumentsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new HashedTimingWheel<String>(0, 8, ORIGIN_MS));
+        assertThrows(IllegalArgumentException.class, () -> new HashedTimingWheel<String>(TICK_MS, 0, ORIGIN_MS));
+    }
+}
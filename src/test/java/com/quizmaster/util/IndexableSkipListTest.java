@@ -0,0 +1,62 @@
+package com.quizmaster.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndexableSkipListTest {
+
+    @Test
+    void testPositionsFollowTheOrder() {
+        IndexableSkipList<Integer> list = new IndexableSkipList<>(Comparator.reverseOrder());
+        for (int value : new int[]{5, 1, 9, 3, 7}) {
+            assertTrue(list.add(value));
+        }
+        assertFalse(list.add(3));
+
+        assertEquals(5, list.size());
+        assertEquals(List.of(9, 7, 5, 3, 1), list.range(0, 10));
+        assertEquals(0, list.indexOf(9));
+        assertEquals(3, list.indexOf(3));
+        assertEquals(-1, list.indexOf(4));
+        assertEquals(7, list.get(1));
+        assertEquals(List.of(5, 3), list.range(2, 4));
+        assertEquals(List.of(), list.range(5, 8));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(5));
+    }
+
+    @Test
+    void testMatchesSortedSetUnderRandomUpdates() {
+        Random random = new Random(42);
+        IndexableSkipList<Integer> list = new IndexableSkipList<>(Comparator.naturalOrder());
+        TreeSet<Integer> expected = new TreeSet<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            int value = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), list.remove(value));
+            } else {
+                assertEquals(expected.add(value), list.add(value));
+            }
+        }
+
+        List<Integer> sorted = new ArrayList<>(expected);
+        assertEquals(sorted.size(), list.size());
+        assertEquals(sorted, list.range(0, list.size()));
+        for (int i = 0; i < sorted.size(); i += 7) {
+            assertEquals(sorted.get(i), list.get(i));
+            assertEquals(i, list.indexOf(sorted.get(i)));
+        }
+
+        list.clear();
+        assertEquals(0, list.size());
+        assertTrue(list.add(1));
+        assertEquals(0, list.indexOf(1));
+    }
+}
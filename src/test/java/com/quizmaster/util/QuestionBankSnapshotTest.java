@@ -0,0 +1,74 @@
+package com.quizmaster.util;
+
+import com.quizmaster.model.Option;
+import com.quizmaster.model.Question;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuestionBankSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    private List<Question> sampleQuestions() {
+        Question first = Question.builder()
+                .id("1")
+                .text("Which planet is known as the Red Planet?")
+                .options(Arrays.asList(
+                        Option.builder().id("A").text("Venus").correct(false).build(),
+                        Option.builder().id("B").text("Mars").correct(true).build(),
+                        Option.builder().id("C").text("Jupiter").correct(false).build(),
+                        Option.builder().id("D").text("Saturn").correct(false).build()))
+                .build();
+        Question second = Question.builder()
+                .id("2")
+                .text("Wähle die Primzahlen")
+                .options(Arrays.asList(
+                        Option.builder().id("A").text("2").correct(true).build(),
+                        Option.builder().id("B").text("3").correct(true).build(),
+                        Option.builder().id("C").text("4").correct(false).build(),
+                        Option.builder().id(null).text("Mars").correct(false).build()))
+                .build();
+        return List.of(first, second);
+    }
+
+    @Test
+    void testRoundTrip() throws IOException {
+        Path snapshot = tempDir.resolve("questions.xlsx.qbin");
+        List<Question> questions = sampleQuestions();
+
+        QuestionBankSnapshot.write(snapshot, questions, 1234L, 42L);
+
+        assertEquals(questions, QuestionBankSnapshot.read(snapshot, 1234L, 42L));
+    }
+
+    @Test
+    void testStaleChecksumIsRejected() throws IOException {
+        Path snapshot = tempDir.resolve("questions.xlsx.qbin");
+        QuestionBankSnapshot.write(snapshot, sampleQuestions(), 1234L, 42L);
+
+        assertNull(QuestionBankSnapshot.read(snapshot, 1234L, 43L));
+        assertNull(QuestionBankSnapshot.read(snapshot, 1235L, 42L));
+    }
+
+    @Test
+    void testCorruptSnapshotIsRejected() throws IOException {
+        Path snapshot = tempDir.resolve("questions.xlsx.qbin");
+        QuestionBankSnapshot.write(snapshot, sampleQuestions(), 1234L, 42L);
+
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(snapshot, bytes);
+
+        assertNull(QuestionBankSnapshot.read(snapshot, 1234L, 42L));
+        assertNull(QuestionBankSnapshot.read(tempDir.resolve("missing.qbin"), 1234L, 42L));
+    }
+}
@@ -0,0 +1,138 @@
+package com.quizmaster.util;
+
+import com.quizmaster.model.Option;
+import com.quizmaster.model.Question;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuestionEditJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Question question(String id, String text) {
+        List<Option> options = new ArrayList<>();
+        for (int option = 0; option < 4; option++) {
+            options.add(Option.builder()
+                    .id("o" + (option + 1))
+                    .text(text + " option " + (option + 1))
+                    .correct(option == 0)
+                    .build());
+        }
+        return Question.builder().id(id).text(text).options(options).build();
+    }
+
+    private static List<Question> workbook() {
+        return new ArrayList<>(List.of(question("1", "First"), question("2", "Second")));
+    }
+
+    private static List<String> texts(List<Question> questions) {
+        return questions.stream().map(q -> q.getId() + ":" + q.getText()).collect(Collectors.toList());
+    }
+
+    @Test
+    void testEditsReplayInOrder() throws IOException {
+        Path path = tempDir.resolve("questions.xlsx.journal");
+        try (QuestionEditJournal journal = new QuestionEditJournal(path)) {
+            journal.appendUpsert(question("2", "Second, edited"));
+            journal.appendUpsert(question("3", "Third"));
+            journal.appendDelete("1");
+            journal.appendUpsert(question("3", "Third, edited"));
+        }
+
+        List<Question> questions = workbook();
+        assertEquals(4, QuestionEditJournal.replay(path, questions));
+        assertEquals(List.of("2:Second, edited", "3:Third, edited"), texts(questions));
+        Option first = questions.get(1).getOptions().get(0);
+        assertEquals("o1", first.getId());
+        assertEquals("Third, edited option 1", first.getText());
+        assertTrue(first.isCorrect());
+        assertFalse(questions.get(1).getOptions().get(3).isCorrect());
+
+        // Entries are full upserts and deletes, so replaying them again changes nothing
+        assertEquals(4, QuestionEditJournal.replay(path, questions));
+        assertEquals(List.of("2:Second, edited", "3:Third, edited"), texts(questions));
+    }
+
+    @Test
+    void testMissingJournalReplaysNothing() throws IOException {
+        List<Question> questions = workbook();
+        assertEquals(0, QuestionEditJournal.replay(tempDir.resolve("none.journal"), questions));
+        assertEquals(List.of("1:First", "2:Second"), texts(questions));
+    }
+
+    @Test
+    void testTornFinalEntryIsIgnoredAndCutOff() throws IOException {
+        Path path = tempDir.resolve("questions.xlsx.journal");
+        long complete;
+        try (QuestionEditJournal journal = new QuestionEditJournal(path)) {
+            journal.appendUpsert(question("2", "Second, edited"));
+            complete = Files.size(path);
+            journal.appendUpsert(question("3", "Third"));
+        }
+        // A crash in the middle of the second append
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(path) - 5);
+        }
+
+        List<Question> questions = workbook();
+        assertEquals(1, QuestionEditJournal.replay(path, questions));
+        assertEquals(List.of("1:First", "2:Second, edited"), texts(questions));
+
+        // Reopening drops the torn tail so the next entry follows the last complete one
+        try (QuestionEditJournal journal = new QuestionEditJournal(path)) {
+            assertEquals(complete, Files.size(path));
+            journal.appendDelete("1");
+        }
+        questions = workbook();
+        assertEquals(2, QuestionEditJournal.replay(path, questions));
+        assertEquals(List.of("2:Second, edited"), texts(questions));
+    }
+
+    @Test
+    void testCorruptEntryEndsReplay() throws IOException {
+        Path path = tempDir.resolve("questions.xlsx.journal");
+        long complete;
+        try (QuestionEditJournal journal = new QuestionEditJournal(path)) {
+            journal.appendDelete("1");
+            complete = Files.size(path);
+            journal.appendUpsert(question("3", "Third"));
+            journal.appendDelete("2");
+        }
+        // Flip a byte inside the payload of the second entry
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[(int) complete + Integer.BYTES + 6] ^= 0x20;
+        Files.write(path, bytes);
+
+        List<Question> questions = workbook();
+        assertEquals(1, QuestionEditJournal.replay(path, questions));
+        assertEquals(List.of("2:Second"), texts(questions));
+    }
+
+    @Test
+    void testTruncateDiscardsEntries() throws IOException {
+        Path path = tempDir.resolve("questions.xlsx.journal");
+        try (QuestionEditJournal journal = new QuestionEditJournal(path)) {
+            journal.appendDelete("1");
+            journal.truncate();
+            assertEquals(0, Files.size(path));
+
+            journal.appendUpsert(question("3", "Third"));
+        }
+
+        List<Question> questions = workbook();
+        assertEquals(1, QuestionEditJournal.replay(path, questions));
+        assertEquals(List.of("1:First", "2:Second", "3:Third"), texts(questions));
+    }
+}
@@ -0,0 +1,76 @@
+package com.quizmaster.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScoreHistogramTest {
+
+    @Test
+    void testRanksFollowScoreThenTime() {
+        ScoreHistogram histogram = new ScoreHistogram(600);
+        histogram.add(80.0, 120);
+        histogram.add(100.0, 300);
+        histogram.add(80.0, 100);
+        histogram.add(80.0, 100);
+        histogram.add(40.0, 60);
+
+        assertEquals(5, histogram.total());
+        assertEquals(1, histogram.rankOf(100.0, 300));
+        assertEquals(2, histogram.rankOf(80.0, 100));
+        assertEquals(2, histogram.countEqual(80.0, 100));
+        assertEquals(4, histogram.rankOf(80.0, 120));
+        assertEquals(5, histogram.rankOf(40.0, 60));
+        // Scores that have not been seen rank between their neighbours
+        assertEquals(2, histogram.rankOf(90.0, 999));
+        assertEquals(6, histogram.rankOf(0.0, 0));
+        assertEquals(25.0, histogram.percentile(80.0, 120), 1e-9);
+        assertEquals(100.0, histogram.percentile(100.0, 300), 1e-9);
+
+        histogram.remove(100.0, 300);
+        histogram.remove(100.0, 300);
+        assertEquals(4, histogram.total());
+        assertEquals(1, histogram.rankOf(80.0, 100));
+
+        histogram.clear();
+        assertEquals(0, histogram.total());
+        assertEquals(1, histogram.rankOf(80.0, 100));
+    }
+
+    @Test
+    void testMatchesCountingEveryResult() {
+        Random random = new Random(7);
+        ScoreHistogram histogram = new ScoreHistogram(300);
+        List<double[]> results = new ArrayList<>();
+
+        for (int i = 0; i < 5_000; i++) {
+            if (!results.isEmpty() && random.nextInt(4) == 0) {
+                double[] removed = results.remove(random.nextInt(results.size()));
+                histogram.remove(removed[0], (int) removed[1]);
+            } else {
+                double[] added = {random.nextInt(6) * 20.0, random.nextInt(400)};
+                results.add(added);
+                histogram.add(added[0], (int) added[1]);
+            }
+
+            if (i % 50 == 0) {
+                double score = random.nextInt(6) * 20.0;
+                int seconds = random.nextInt(400);
+                long better = results.stream()
+                        .filter(r -> r[0] > score || (r[0] == score && bucket(r[1]) < bucket(seconds)))
+                        .count();
+                assertEquals(better + 1, histogram.rankOf(score, seconds));
+                assertEquals(results.size(), histogram.total());
+            }
+        }
+    }
+
+    // Times above the maximum share one bucket
+    private static double bucket(double seconds) {
+        return Math.min(seconds, 301);
+    }
+}
@@ -0,0 +1,173 @@
+package com.quizmaster.util;
+
+import com.quizmaster.model.QuizSession;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionEventJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    private QuizSession session(String sessionId) {
+        return QuizSession.builder()
+                .sessionId(sessionId)
+                .userName("Ünal")
+                .iNumber("I123456")
+                .questionBankName(null)
+                .questionSequence(new int[]{4, 0, 2})
+                .questionFingerprint(0x5EEDL)
+                .state(QuizSession.initialState())
+                .startedAt(1000L)
+                .lastAccessedAt(1000L)
+                .build();
+    }
+
+    @Test
+    void testReplayRebuildsSessions() throws IOException {
+        long served = QuizSession.advanced(QuizSession.initialState());
+        long answered = QuizSession.completed(served, 0, true);
+        try (SessionEventJournal journal = new SessionEventJournal(tempDir)) {
+            journal.appendSession(session("s1"));
+            journal.appendSession(session("s2"));
+            journal.appendSession(session("s3"));
+            journal.appendState("s1", served, 2000L);
+            journal.appendState("s1", answered, 3000L);
+            journal.appendEnd("s2", QuizSession.ended(QuizSession.initialState()), 4000L);
+            journal.appendRemove("s3");
+        }
+
+        Map<String, QuizSession> sessions = SessionEventJournal.replay(tempDir);
+
+        assertEquals(List.of("s1", "s2"), List.copyOf(sessions.keySet()));
+        QuizSession first = sessions.get("s1");
+        assertEquals("Ünal", first.getUserName());
+        assertEquals("I123456", first.getINumber());
+        assertNull(first.getQuestionBankName());
+        assertArrayEquals(new int[]{4, 0, 2}, first.getQuestionSequence());
+        assertEquals(0x5EEDL, first.getQuestionFingerprint());
+        assertEquals(answered, first.getState());
+        assertEquals(1000L, first.getStartedAt());
+        assertEquals(3000L, first.getLastAccessedAt());
+        assertFalse(sessions.get("s2").isActive());
+        assertEquals(4000L, sessions.get("s2").getEndedAt());
+    }
+
+    @Test
+    void testReplayKeepsFurthestStateWhenEventsRaced() throws IOException {
+        long served = QuizSession.advanced(QuizSession.initialState());
+        long firstAttempt = QuizSession.withAttempts(served, 1);
+        long secondAttempt = QuizSession.withAttempts(served, 2);
+        try (SessionEventJournal journal = new SessionEventJournal(tempDir)) {
+            journal.appendSession(session("s1"));
+            journal.appendState("s1", served, 2000L);
+            journal.appendState("s1", secondAttempt, 3000L);
+            journal.appendState("s1", firstAttempt, 2500L);
+        }
+
+        QuizSession session = SessionEventJournal.replay(tempDir).get("s1");
+
+        assertEquals(secondAttempt, session.getState());
+        assertEquals(3000L, session.getLastAccessedAt());
+    }
+
+    @Test
+    void testSnapshotReplacesOlderSegments() throws IOException {
+        QuizSession kept = session("s1");
+        long served = QuizSession.advanced(QuizSession.initialState());
+        try (SessionEventJournal journal = new SessionEventJournal(tempDir)) {
+            journal.appendSession(kept);
+            journal.appendSession(session("s2"));
+            journal.appendRemove("s2");
+
+            long segment = journal.rotate();
+            assertEquals(1, journal.writeSnapshot(segment, action -> action.accept(kept)));
+            journal.appendState("s1", served, 2000L);
+            journal.appendSession(session("s3"));
+        }
+
+        assertFalse(Files.exists(tempDir.resolve("sessions-1.log")));
+        Map<String, QuizSession> sessions = SessionEventJournal.replay(tempDir);
+        assertEquals(List.of("s1", "s3"), List.copyOf(sessions.keySet()));
+        assertEquals(served, sessions.get("s1").getState());
+    }
+
+    @Test
+    void testTornTailIsDiscardedAndOverwritten() throws IOException {
+        try (SessionEventJournal journal = new SessionEventJournal(tempDir)) {
+            journal.appendSession(session("s1"));
+            journal.appendSession(session("s2"));
+        }
+        Path segment = tempDir.resolve("sessions-1.log");
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+
+        assertEquals(List.of("s1"), List.copyOf(SessionEventJournal.replay(tempDir).keySet()));
+
+        // A reopened journal appends after the last intact entry
+        try (SessionEventJournal journal = new SessionEventJournal(tempDir)) {
+            journal.appendSession(session("s3"));
+        }
+        assertEquals(List.of("s1", "s3"), List.copyOf(SessionEventJournal.replay(tempDir).keySet()));
+    }
+
+    @Test
+    void testConcurrentAppendsAreAllDurable() throws Exception {
+        int threads = 8;
+        int sessionsPerThread = 200;
+        try (SessionEventJournal journal = new SessionEventJournal(tempDir)) {
+            Thread[] writers = new Thread[threads];
+            IOException[] failures = new IOException[threads];
+            for (int t = 0; t < threads; t++) {
+                int writer = t;
+                writers[t] = new Thread(() -> {
+                    try {
+                        for (int i = 0; i < sessionsPerThread; i++) {
+                            journal.appendSession(session("s" + writer + "-" + i));
+                        }
+                    } catch (IOException e) {
+                        failures[writer] = e;
+                    }
+                });
+                writers[t].start();
+            }
+            for (int t = 0; t < threads; t++) {
+                writers[t].join();
+                assertNull(failures[t]);
+            }
+        }
+
+        assertEquals(threads * sessionsPerThread, SessionEventJournal.replay(tempDir).size());
+    }
+
+    @Test
+    void testFailedWriteIsRecoveredByRotation() throws IOException {
+        try (SessionEventJournal journal = new SessionEventJournal(tempDir)) {
+            journal.appendSession(session("s1"));
+            // Writes to a closed channel fail, as they would on a full or failing disk
+            ((FileChannel) ReflectionTestUtils.getField(journal, "channel")).close();
+
+            assertThrows(IOException.class, () -> journal.appendSession(session("s2")));
+            assertTrue(journal.isFailed());
+            assertThrows(IOException.class, () -> journal.appendSession(session("s3")));
+
+            assertEquals(2, journal.rotate());
+            assertFalse(journal.isFailed());
+            journal.appendSession(session("s4"));
+        }
+
+        assertEquals(List.of("s1", "s4"), List.copyOf(SessionEventJournal.replay(tempDir).keySet()));
+    }
+}
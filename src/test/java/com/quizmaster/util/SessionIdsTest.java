@@ -0,0 +1,57 @@
+package com.quizmaster.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionIdsTest {
+
+    @Test
+    void testIdCarriesItsShard() {
+        for (int shard = 0; shard < SessionIds.SHARDS; shard++) {
+            String sessionId = SessionIds.newId(shard);
+
+            assertEquals(SessionIds.LENGTH, sessionId.length());
+            assertTrue(sessionId.matches("[0-9a-f]{2}[A-Za-z0-9_-]{22}"), sessionId);
+            assertEquals(shard, SessionIds.shardOf(sessionId));
+        }
+    }
+
+    @Test
+    void testForeignIdsHaveAStableShard() {
+        String uuid = UUID.randomUUID().toString();
+        int shard = SessionIds.shardOf(uuid);
+
+        assertTrue(shard >= 0 && shard < SessionIds.SHARDS);
+        assertEquals(shard, SessionIds.shardOf(uuid));
+        // Same length as a generated ID but without the hex prefix
+        int other = SessionIds.shardOf("zz" + "A".repeat(SessionIds.LENGTH - 2));
+        assertTrue(other >= 0 && other < SessionIds.SHARDS);
+    }
+
+    @Test
+    void testConcurrentlyGeneratedIdsAreDistinct() throws InterruptedException {
+        int threads = 8;
+        int idsPerThread = 10_000;
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        Thread[] generators = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int shard = t;
+            generators[t] = new Thread(() -> {
+                for (int i = 0; i < idsPerThread; i++) {
+                    ids.add(SessionIds.newId(shard));
+                }
+            });
+            generators[t].start();
+        }
+        for (Thread generator : generators) {
+            generator.join();
+        }
+
+        assertEquals(threads * idsPerThread, ids.size());
+    }
+}
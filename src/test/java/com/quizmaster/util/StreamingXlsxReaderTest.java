@@ -0,0 +1,208 @@
+package com.quizmaster.util;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StreamingXlsxReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final LocalDateTime TAKEN_AT = LocalDateTime.of(2024, 3, 15, 14, 30);
+
+    // Fills rows 0, 1 and 3 with every cell type the loaders and the result repository read
+    private static void fill(Workbook workbook, boolean withFormulas) {
+        CellStyle dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd hh:mm"));
+        Sheet sheet = workbook.createSheet("Results");
+
+        Row header = sheet.createRow(0);
+        header.createCell(0).setCellValue("Name");
+        header.createCell(1).setCellValue("Score");
+        header.createCell(2).setCellValue("Taken at");
+        header.createCell(3).setCellValue("Passed");
+
+        Row first = sheet.createRow(1);
+        first.createCell(0).setCellValue("Ünal Öztürk");
+        first.createCell(1).setCellValue(87.5);
+        Cell takenAt = first.createCell(2);
+        takenAt.setCellValue(TAKEN_AT);
+        takenAt.setCellStyle(dateStyle);
+        first.createCell(3).setCellValue(true);
+        // A styled cell without a value is written as a blank cell
+        first.createCell(4).setCellStyle(dateStyle);
+        // Column 5 is left out, column 6 follows the gap
+        first.createCell(6).setCellValue(3);
+
+        // Row 2 is left out entirely
+        Row last = sheet.createRow(3);
+        last.createCell(0).setCellValue("Bob");
+        if (withFormulas) {
+            last.createCell(1).setCellFormula("B2*2");
+            last.createCell(2).setCellFormula("UPPER(A4)");
+            last.createCell(3).setCellFormula("B2>50");
+            Cell formulaDate = last.createCell(4);
+            formulaDate.setCellFormula("C2+1");
+            formulaDate.setCellStyle(dateStyle);
+        }
+    }
+
+    private Path write(Workbook workbook, String fileName) throws IOException {
+        Path file = tempDir.resolve(fileName);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            workbook.write(out);
+        }
+        return file;
+    }
+
+    /**
+     * Checks that every streamed row and cell reads the same as through XSSFWorkbook
+     */
+    private static void assertSameAsWorkbook(Path file, List<String> streamed) throws IOException {
+        List<String> expected = new ArrayList<>();
+        try (InputStream in = Files.newInputStream(file); XSSFWorkbook workbook = new XSSFWorkbook(in)) {
+            for (Row row : workbook.getSheet("Results")) {
+                StringBuilder line = new StringBuilder("row " + row.getRowNum());
+                for (int column = 0; column < 8; column++) {
+                    Cell cell = row.getCell(column);
+                    line.append(" | ").append(cell == null ? "none" : describe(cell));
+                }
+                expected.add(line.toString());
+            }
+        }
+        assertEquals(expected, streamed);
+    }
+
+    private static String describe(Cell cell) {
+        CellType type = cell.getCellType();
+        String formula = type == CellType.FORMULA ? "=" + cell.getCellFormula() + " " : "";
+        CellType valueType = type == CellType.FORMULA ? cell.getCachedFormulaResultType() : type;
+        switch (valueType) {
+            case STRING:
+                return formula + "string " + cell.getStringCellValue();
+            case BOOLEAN:
+                return formula + "boolean " + cell.getBooleanCellValue();
+            case NUMERIC:
+                return formula + (DateUtil.isCellDateFormatted(cell)
+                        ? "date " + cell.getLocalDateTimeCellValue()
+                        : "numeric " + cell.getNumericCellValue());
+            default:
+                return formula + valueType.name().toLowerCase();
+        }
+    }
+
+    private static String describe(StreamingXlsxReader.SheetCell cell) {
+        CellType type = cell.getCellType();
+        String formula = type == CellType.FORMULA ? "=" + cell.getCellFormula() + " " : "";
+        CellType valueType = type == CellType.FORMULA ? cell.getCachedFormulaResultType() : type;
+        switch (valueType) {
+            case STRING:
+                return formula + "string " + cell.getStringCellValue();
+            case BOOLEAN:
+                return formula + "boolean " + cell.getBooleanCellValue();
+            case NUMERIC:
+                return formula + (cell.isDateFormatted()
+                        ? "date " + cell.getLocalDateTimeCellValue()
+                        : "numeric " + cell.getNumericCellValue());
+            default:
+                return formula + valueType.name().toLowerCase();
+        }
+    }
+
+    private static StreamingXlsxReader.RowHandler collectInto(List<String> lines) {
+        return row -> {
+            StringBuilder line = new StringBuilder("row " + row.getRowNum());
+            for (int column = 0; column < 8; column++) {
+                StreamingXlsxReader.SheetCell cell = row.getCell(column);
+                line.append(" | ").append(cell == null ? "none" : describe(cell));
+            }
+            lines.add(line.toString());
+        };
+    }
+
+    @Test
+    void testSharedStringsAndFormulasReadLikeTheWorkbook() throws IOException {
+        Path file;
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            fill(workbook, true);
+            // Stores the cached results the streaming reader reports for formulas
+            workbook.getCreationHelper().createFormulaEvaluator().evaluateAll();
+            file = write(workbook, "shared.xlsx");
+        }
+
+        List<String> streamed = new ArrayList<>();
+        assertTrue(StreamingXlsxReader.read(file.toFile(), "Results", collectInto(streamed)));
+
+        assertSameAsWorkbook(file, streamed);
+        assertEquals(3, streamed.size());
+        assertTrue(streamed.get(1).contains("string Ünal Öztürk"));
+        assertTrue(streamed.get(1).contains("date " + TAKEN_AT));
+        assertTrue(streamed.get(1).contains("| blank | none | numeric 3.0"));
+        assertTrue(streamed.get(2).startsWith("row 3 "));
+        assertTrue(streamed.get(2).contains("=B2*2 numeric 175.0"));
+        assertTrue(streamed.get(2).contains("=UPPER(A4) string BOB"));
+        assertTrue(streamed.get(2).contains("=B2>50 boolean true"));
+        assertTrue(streamed.get(2).contains("=C2+1 date " + TAKEN_AT.plusDays(1)));
+    }
+
+    @Test
+    void testInlineStringsReadLikeTheWorkbook() throws IOException {
+        Path file;
+        // SXSSF writes strings inline rather than to the shared strings table
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook()) {
+            fill(workbook, false);
+            file = write(workbook, "inline.xlsx");
+            workbook.dispose();
+        }
+        try (ZipFile zip = new ZipFile(file.toFile());
+             InputStream sheet = zip.getInputStream(zip.getEntry("xl/worksheets/sheet1.xml"))) {
+            assertTrue(new String(sheet.readAllBytes(), StandardCharsets.UTF_8).contains("t=\"inlineStr\""));
+        }
+
+        List<String> streamed = new ArrayList<>();
+        try (InputStream in = Files.newInputStream(file)) {
+            assertTrue(StreamingXlsxReader.read(in, "Results", collectInto(streamed)));
+        }
+
+        assertSameAsWorkbook(file, streamed);
+        assertTrue(streamed.get(0).contains("string Name | string Score"));
+        assertTrue(streamed.get(1).contains("string Ünal Öztürk"));
+        assertTrue(streamed.get(2).contains("string Bob"));
+    }
+
+    @Test
+    void testMissingSheetIsReported() throws IOException {
+        Path file;
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            fill(workbook, false);
+            file = write(workbook, "missing.xlsx");
+        }
+
+        List<String> streamed = new ArrayList<>();
+        assertFalse(StreamingXlsxReader.read(file.toFile(), "Questions", collectInto(streamed)));
+        assertTrue(StreamingXlsxReader.read(file.toFile(), null, collectInto(streamed)));
+        assertEquals(3, streamed.size());
+    }
+}